@@ -27,7 +27,6 @@ package com.michelin.cio.hudson.plugins.qc;
 
 import com.michelin.cio.hudson.plugins.qc.client.QualityCenterClientInstallation;
 import com.michelin.cio.hudson.plugins.qc.qtpaddins.QualityCenterQTPAddinsInstallation;
-import hudson.AbortException;
 import hudson.CopyOnWrite;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -38,26 +37,22 @@ import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.BuildListener;
 import hudson.model.Computer;
-import hudson.model.Hudson;
+import hudson.model.TaskListener;
 import hudson.tasks.BuildStep;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
 import hudson.tools.ToolInstallation;
-import hudson.util.ArgumentListBuilder;
 import hudson.util.FormValidation;
 import hudson.util.VariableResolver;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintStream;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import net.sf.json.JSONObject;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
@@ -75,7 +70,21 @@ public class QualityCenter extends Builder {
   public final static String RUN_MODE_LOCAL = "RUN_LOCAL";
   public final static String RUN_MODE_PLANNED_HOST = "RUN_PLANNED_HOST";
   public final static String RUN_MODE_REMOTE = "RUN_REMOTE";
-  public final static String[] RUN_MODES = { RUN_MODE_PLANNED_HOST, RUN_MODE_REMOTE, RUN_MODE_LOCAL };
+  /** The tests are spread over several hosts, see {@link QualityCenterHostPool}. */
+  public final static String RUN_MODE_HOST_POOL = "RUN_HOST_POOL";
+  public final static String[] RUN_MODES = { RUN_MODE_PLANNED_HOST, RUN_MODE_REMOTE, RUN_MODE_HOST_POOL, RUN_MODE_LOCAL };
+
+  /** Test sets are run through {@code runTestSet.vbs} and the OTA client. */
+  public final static String ENGINE_VBSCRIPT = "VBSCRIPT";
+  /** Test sets are run through the ALM REST API, see {@link QualityCenterRestRunner}. */
+  public final static String ENGINE_REST = "REST";
+  public final static String[] ENGINES = { ENGINE_VBSCRIPT, ENGINE_REST };
+
+  /** Everything the VBScript prints is logged. */
+  public final static String CONSOLE_OUTPUT_FULL = "FULL";
+  /** Only the changes of status of the tests, and their results, are logged. */
+  public final static String CONSOLE_OUTPUT_CHANGES = "CHANGES";
+  public final static String[] CONSOLE_OUTPUTS = { CONSOLE_OUTPUT_FULL, CONSOLE_OUTPUT_CHANGES };
   
   public final static int DEFAULT_TIMEOUT = 600;
 
@@ -101,18 +110,28 @@ public class QualityCenter extends Builder {
   private final String qcTSLogFile;
   /** Timeout */
   private final int qcTimeOut;
-  /** The parsed name (env vars) of the report file. */
-  private String parsedQcTSLogFile;
   private String runMode;
   private String runHost;
-  
-  // parsedQcTSLogFiles is used by QualityCenterResultArchiver in order to gather
-  // the name of the report files which have been generated by the build step. This
-  // is mandatory to have this because the name of the generated report files may
-  // not be the one specified by the user (which happens if several test sets have
-  // to be run in one build step and if the name specified by the user can't be
-  // unique).
-  private transient List<String> testSetLogFiles;
+  /** How test sets are run: {@link #ENGINE_VBSCRIPT} or {@link #ENGINE_REST}. */
+  private String engine;
+  /** How many test sets can be run at the same time (1 means one after the other). */
+  private int maxConcurrentTestSets;
+  /**
+   * How long, in minutes, a Quality Center session opened by the REST engine
+   * is kept on the node once idle, to be reused by the next builds; 0 means
+   * that the session is only shared by the test sets of the build step.
+   */
+  private int sessionTimeToLive;
+  /**
+   * How much of the output of the VBScript is logged:
+   * {@link #CONSOLE_OUTPUT_FULL} or {@link #CONSOLE_OUTPUT_CHANGES}.
+   */
+  private String consoleOutput;
+  /**
+   * Whether the failed steps of the tests are left out of the reports, to be
+   * fetched only when someone looks at them from the build page.
+   */
+  private boolean deferStepDetails;
 
   @DataBoundConstructor
   public QualityCenter(
@@ -128,7 +147,12 @@ public class QualityCenter extends Builder {
             String qcTSLogFile,
             int qcTimeOut,
             String runMode,
-            String runHost) {
+            String runHost,
+            String engine,
+            int maxConcurrentTestSets,
+            int sessionTimeToLive,
+            String consoleOutput,
+            boolean deferStepDetails) {
     this.qcClientInstallationName = qcClientInstallationName;
     this.qcQTPAddinInstallationName = qcQTPAddinInstallationName;
     this.qcServerURL = qcServerURL;
@@ -151,12 +175,41 @@ public class QualityCenter extends Builder {
     else {
       this.runMode = RUN_MODE_PLANNED_HOST;
     }
-    if(this.runMode.equals(RUN_MODE_REMOTE)) {
+    if(this.runMode.equals(RUN_MODE_REMOTE) || this.runMode.equals(RUN_MODE_HOST_POOL)) {
       this.runHost = runHost;
     }
     else {
       this.runHost = "";
     }
+    if(Arrays.asList(ENGINES).contains(engine)) {
+      this.engine = engine;
+    }
+    else {
+      this.engine = ENGINE_VBSCRIPT;
+    }
+    this.maxConcurrentTestSets = Math.max(1, maxConcurrentTestSets);
+    this.sessionTimeToLive = Math.max(0, sessionTimeToLive);
+    if(Arrays.asList(CONSOLE_OUTPUTS).contains(consoleOutput)) {
+      this.consoleOutput = consoleOutput;
+    }
+    else {
+      this.consoleOutput = CONSOLE_OUTPUT_FULL;
+    }
+    this.deferStepDetails = deferStepDetails;
+  }
+
+  /**
+   * Jobs configured before the REST engine was available use the VBScript,
+   * and log all its output.
+   */
+  private Object readResolve() {
+    if(engine == null) {
+      engine = ENGINE_VBSCRIPT;
+    }
+    if(consoleOutput == null) {
+      consoleOutput = CONSOLE_OUTPUT_FULL;
+    }
+    return this;
   }
 
   public String getQcDomain() {
@@ -195,10 +248,6 @@ public class QualityCenter extends Builder {
     return qcTSLogFile;
   }
 
-  public String getParsedQcTSLogFile() {
-    return parsedQcTSLogFile;
-  }
-  
   public String getQcTSName() {
     return qcTSName;
   }
@@ -215,11 +264,24 @@ public class QualityCenter extends Builder {
     return runHost;
   }
 
-  /**
-   * @see QualityCenterResultArchiver#perform(hudson.model.AbstractBuild, hudson.Launcher, hudson.model.BuildListener) 
-   */
-  List<String> getTestSetLogFiles() {
-    return testSetLogFiles;
+  public String getEngine() {
+    return engine;
+  }
+
+  public int getMaxConcurrentTestSets() {
+    return maxConcurrentTestSets;
+  }
+
+  public int getSessionTimeToLive() {
+    return sessionTimeToLive;
+  }
+
+  public String getConsoleOutput() {
+    return consoleOutput;
+  }
+
+  public boolean isDeferStepDetails() {
+    return deferStepDetails;
   }
 
   public static String getVbScriptName() {
@@ -252,15 +314,18 @@ public class QualityCenter extends Builder {
   @Override
   public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
     EnvVars env = build.getEnvironment(listener);
+    String vbScript = null;
+
+    // The REST engine needs neither the QC client nor the QTP Addin
+    if(!ENGINE_REST.equals(engine)) {
+      // Has a QC installation been set? If yes, is it really a QC installation?
+      QualityCenterClientInstallation qcInstallation = getQualityCenterClientInstallation();
+      if(qcInstallation == null) {
+        // No installation has been set
+        listener.fatalError(Messages.QualityCenter_NoInstallationSet());
+        return false;
+      }
 
-    // Has a QC installation been set? If yes, is it really a QC installation?
-    QualityCenterClientInstallation qcInstallation = getQualityCenterClientInstallation();
-    if(qcInstallation == null) {
-      // No installation has been set
-      listener.fatalError(Messages.QualityCenter_NoInstallationSet());
-      return false;
-    }
-    else {
       // Get an installation instance for this specific node.
       // Will run the QC Client auto-installer if not installed on this node
       qcInstallation = qcInstallation.forNode(Computer.currentComputer().getNode(), listener);
@@ -271,7 +336,7 @@ public class QualityCenter extends Builder {
       }
 
       qcInstallation = qcInstallation.forEnvironment(env);
-      String qcDll = qcInstallation.getQCDll(launcher);
+      String qcDll = qcInstallation.getQCDll(Computer.currentComputer().getNode(), launcher);
       // If we cant find the OTAClient DLL, then we can't run the testSet
       if(qcDll == null) {
         listener.fatalError(Messages.QualityCenter_DllNotFound());
@@ -289,43 +354,164 @@ public class QualityCenter extends Builder {
         qcQTPInstallation = qcQTPInstallation.forEnvironment(env);
       }
 
-      FilePath projectWS = build.getWorkspace();
-      // Get the URL to the VBScript used to run the test, which is bundled in the plugin
-      URL vbsUrl = Hudson.getInstance().pluginManager.uberClassLoader.getResource(VB_SCRIPT_NAME);
-      if(vbsUrl == null) {
+      // The VBScript used to run the test, which is bundled in the plugin, is
+      // only copied to the node by the first build which needs it
+      FilePath script = QualityCenterRunnerScript.get(Computer.currentComputer().getNode(), listener);
+      if(script == null) {
         listener.fatalError(Messages.QualityCenter_VBSNotFound());
         return false;
       }
+      vbScript = script.getRemote();
+    }
+
+    // The TestSets, and their reports, are registered on the build itself
+    // (rather than on this build step, which is shared by all the builds)
+    List<QualityCenterBuildAction.TestSet> testSets = new ArrayList<QualityCenterBuildAction.TestSet>();
+    QualityCenterTestSetsRunner runner = createTestSetsRunner(build, env, vbScript, testSets, listener);
+    QualityCenterDurationStore durations = QualityCenterDurationStore.get(build.getProject());
+    for(QualityCenterBuildAction.TestSet testSet : testSets) {
+      QualityCenterDurationStore.Statistics statistics = durations.getStatistics(
+              runner.getDomain(), runner.getProject(), runner.getTestSetFolder(), testSet.getName());
+      if(statistics != null && statistics.getExpectedDuration() > 0) {
+        listener.getLogger().println(Messages.QualityCenter_ExpectedDuration(testSet.getName(),
+                Util.getTimeSpanString((long) (statistics.getExpectedDuration() * 1000)),
+                Util.getTimeSpanString((long) (statistics.getStandardDeviation() * 1000))));
+      }
+    }
 
-      // Copy the script to the project workspace
-      FilePath vbScript = projectWS.child(VB_SCRIPT_NAME);
-      vbScript.copyFrom(vbsUrl);
-
+    try {
+      // The whole build step is run on the node through a single call
+      QualityCenterTestSetsRunner.Summary summary = build.getWorkspace().act(runner);
+      for(int i = 0; i < testSets.size(); i++) {
+        testSets.get(i).setSucceeded(summary.isSucceeded(i));
+        if(deferStepDetails) {
+          testSets.get(i).setFailedRuns(summary.getFailedRuns(i));
+        }
+      }
+      // The durations of the tests are remembered for the next builds
       try {
-        testSetLogFiles = new ArrayList<String>();
-
-        // For each TestSet, run the VBScript
-        String[] testSetNames = Util.replaceMacro(env.expand(this.qcTSName), build.getBuildVariableResolver()).split("[\t\r\n,]+");
-        for(String testSetName : testSetNames) {
-          String logFile = runVBScript(testSetName, build, launcher, listener, vbScript, (testSetNames.length == 1));
-          // Has the report been successfuly generated?
-          if(!projectWS.child(logFile).exists()) {
-            listener.fatalError(Messages.QualityCenter_ReportNotGenerated());
-            return false;
-          }
+        for(int i = 0; i < testSets.size(); i++) {
+          durations.record(runner.getDomain(), runner.getProject(), runner.getTestSetFolder(),
+                  testSets.get(i).getName(), summary.getSamples(i));
         }
       }
       catch(IOException ioe) {
-        Util.displayIOException(ioe, listener);
-        return false;
+        ioe.printStackTrace(listener.error(Messages.QualityCenter_DurationsNotRecorded()));
       }
-      finally {
-        // Remove the VBScript from workspace
-        vbScript.delete();
+      if(summary.getLogins() >= 0) {
+        listener.getLogger().println(Messages.QualityCenter_RestLogins(summary.getLogins()));
       }
+      return summary.isSucceeded();
     }
+    catch(IOException ioe) {
+      Util.displayIOException(ioe, listener);
+      ioe.printStackTrace(listener.fatalError(Messages.QualityCenter_TSSchedulerFailed()));
+      return false;
+    }
+  }
 
-    return true;
+  /**
+   * Resolves, on the master, everything the node needs to know to run the
+   * TestSets.
+   *
+   * @param vbScript the path, on the node, to the VBScript used to run the
+   *        TestSets, {@code null} if they have to be run through the REST API
+   * @param testSets filled with the TestSets to be run, which are registered
+   *        in the {@link QualityCenterBuildAction} of the build
+   */
+  private QualityCenterTestSetsRunner createTestSetsRunner(AbstractBuild<?, ?> build, EnvVars env, String vbScript,
+          List<QualityCenterBuildAction.TestSet> testSets, BuildListener listener) {
+    VariableResolver<String> varResolver = build.getBuildVariableResolver();
+    QualityCenterBuildAction action = QualityCenterBuildAction.getOrCreate(build);
+
+    String serverURL = Util.replaceMacro(env.expand(this.qcServerURL), varResolver);
+    String login = Util.replaceMacro(env.expand(this.qcLogin), varResolver);
+    String password = Util.replaceMacro(env.expand(StringUtils.defaultString(this.qcPass)), varResolver);
+    String domain = Util.replaceMacro(env.expand(this.qcDomain), varResolver);
+    String project = Util.replaceMacro(env.expand(this.qcProject), varResolver);
+
+    String testSetFolder = Util.replaceMacro(env.expand(this.qcTSFolder), varResolver);
+    String[] testSetNames = Util.replaceMacro(env.expand(this.qcTSName), varResolver).split("[\t\r\n,]+");
+    String[] logFiles = new String[testSetNames.length];
+    for(int i = 0; i < testSetNames.length; i++) {
+      logFiles[i] = parseReportFileName(testSetNames[i], env, varResolver, (testSetNames.length == 1));
+      QualityCenterBuildAction.TestSet testSet = action.addTestSet(testSetNames[i], logFiles[i], engine);
+      if(deferStepDetails) {
+        // the failed steps will be fetched from the master
+        testSet.setServer(serverURL, domain, project);
+      }
+      testSets.add(testSet);
+    }
+
+    // The tests are spread over the hosts of the pool depending on how long
+    // they took in the previous builds
+    List<Map<String, Long>> expectedDurations = new ArrayList<Map<String, Long>>();
+    if(RUN_MODE_HOST_POOL.equals(runMode)) {
+      QualityCenterDurationStore durations = QualityCenterDurationStore.get(build.getProject());
+      for(String testSetName : testSetNames) {
+        Map<String, Long> testSetDurations = new HashMap<String, Long>();
+        for(String test : durations.getTests(domain, project, testSetFolder, testSetName)) {
+          QualityCenterDurationStore.Statistics statistics = durations.getStatistics(domain, project, testSetFolder, testSetName, test);
+          // the durations of the runs which didn't complete aren't known
+          if(statistics.getExpectedDuration() > 0) {
+            testSetDurations.put(test, Math.round(statistics.getExpectedDuration()));
+          }
+        }
+        expectedDurations.add(testSetDurations);
+      }
+    }
+
+    // All the test sets share the same Quality Center session (REST engine
+    // only), which is owned by this build step unless it can be kept on the
+    // node
+    String sessionOwner = null;
+    if(vbScript == null && sessionTimeToLive <= 0) {
+      sessionOwner = UUID.randomUUID().toString();
+    }
+
+    return new QualityCenterTestSetsRunner(
+            engine,
+            serverURL,
+            login,
+            password,
+            domain,
+            project,
+            testSetFolder,
+            testSetNames,
+            logFiles,
+            this.qcTimeOut,
+            this.runMode,
+            Util.replaceMacro(env.expand(this.runHost), varResolver),
+            this.maxConcurrentTestSets,
+            sessionOwner,
+            TimeUnit.MINUTES.toMillis(sessionTimeToLive),
+            vbScript,
+            consoleOutput,
+            deferStepDetails,
+            expectedDurations,
+            listener);
+  }
+
+  /**
+   * Logs into Quality Center with the credentials this build step currently
+   * has, provided that, once resolved for the given build, it runs its
+   * TestSets on the given server, domain and project.
+   *
+   * @return {@code null} if this build step runs its TestSets elsewhere
+   */
+  QualityCenterRestClient login(AbstractBuild<?, ?> build, String serverURL, String domain, String project)
+          throws IOException, InterruptedException {
+    EnvVars env = build.getEnvironment(TaskListener.NULL);
+    VariableResolver<String> varResolver = build.getBuildVariableResolver();
+    if(!serverURL.equals(Util.replaceMacro(env.expand(this.qcServerURL), varResolver))
+            || !domain.equals(Util.replaceMacro(env.expand(this.qcDomain), varResolver))
+            || !project.equals(Util.replaceMacro(env.expand(this.qcProject), varResolver))) {
+      return null;
+    }
+    QualityCenterRestClient client = new QualityCenterRestClient(serverURL, domain, project);
+    client.login(Util.replaceMacro(env.expand(this.qcLogin), varResolver),
+            Util.replaceMacro(env.expand(StringUtils.defaultString(this.qcPass)), varResolver));
+    return client;
   }
 
   /**
@@ -351,19 +537,14 @@ public class QualityCenter extends Builder {
   }
 
   /**
-   * Runs the given TestSet ({@code testSetName}) through VBScript.
+   * Parses the name of the report file of the given TestSet using env vars.
    */
-  private String runVBScript(String testSetName, AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener, FilePath file, boolean isRunOnce) throws IOException, InterruptedException {
-    ArgumentListBuilder args = new ArgumentListBuilder();
-    EnvVars env = build.getEnvironment(listener);
-    VariableResolver<String> varResolver = build.getBuildVariableResolver();
-    PrintStream out = listener.getLogger();
-
+  private String parseReportFileName(String testSetName, EnvVars env, VariableResolver<String> varResolver, boolean isRunOnce) {
     // Add the qc specific env vars
     pushEnvVars(env);
 
     // Parse the report file name using env vars
-    this.parsedQcTSLogFile = Util.replaceMacro(env.expand(this.qcTSLogFile), varResolver);
+    String parsedQcTSLogFile = Util.replaceMacro(env.expand(this.qcTSLogFile), varResolver);
     if(!parsedQcTSLogFile.endsWith(".xml")) {
       parsedQcTSLogFile = parsedQcTSLogFile + ".xml";
     }
@@ -374,56 +555,10 @@ public class QualityCenter extends Builder {
       // we add it.
       parsedQcTSLogFile = parsedQcTSLogFile.substring(0, parsedQcTSLogFile.length()-4) + '_' + testSetName + ".xml";
     }
-    testSetLogFiles.add(parsedQcTSLogFile);
-
-    // Use cscript to run the vbscript and get the console output
-    
-    args.add("cscript");
-    args.add("/nologo");
-    args.add(file);
-    args.add(Util.replaceMacro(env.expand(this.qcServerURL), varResolver));
-    args.add(Util.replaceMacro(env.expand(this.qcLogin), varResolver));
-
-    // If no password, then replace by ""
-    if(StringUtils.isNotBlank(this.qcPass)) {
-      args.addMasked(Util.replaceMacro(env.expand(this.qcPass), varResolver));
-    }
-    else {
-      args.addMasked("\"\"");
-    }
-    args.add(Util.replaceMacro(env.expand(this.qcDomain), varResolver));
-    args.add(Util.replaceMacro(env.expand(this.qcProject), varResolver));
-    args.add(Util.replaceMacro(env.expand(this.qcTSFolder), varResolver));
-    args.add(Util.replaceMacro(env.expand(testSetName), varResolver));
-    args.add(this.parsedQcTSLogFile);
-    args.add(this.qcTimeOut);
-    args.add(runMode);
-    if(runMode.equals(RUN_MODE_REMOTE)) {
-      args.add(runHost);
-    }
-
     // Remove qc specific environment variables
     removeEnvVars(env);
 
-    // Run the script on node
-    // Execution result should be 0
-    if(launcher.launch().cmds(args).stdout(out).pwd(file.getParent()).join() != 0) {
-      listener.fatalError(Messages.QualityCenter_TSSchedulerFailed());
-
-      // log file is in UTF-16
-      InputStream is= new FileInputStream(this.parsedQcTSLogFile);
-      InputStreamReader in = new InputStreamReader(is, "UTF-16");
-      try {
-          // Copy the console output to our logger
-          IOUtils.copy(in,new OutputStreamWriter(out));
-      } finally {
-          in.close();
-          is.close();
-      }
-      throw new AbortException();
-    }
-
-    return this.parsedQcTSLogFile;
+    return parsedQcTSLogFile;
   }
 
   @Extension
@@ -458,13 +593,14 @@ public class QualityCenter extends Builder {
       return ToolInstallation.all().get(QualityCenterClientInstallation.DescriptorImpl.class);
     }
 
+    /**
+     * The REST engine needs no installation: The installations are only
+     * checked when the VBScript engine is selected, see
+     * {@link #doCheckEngine(String)}.
+     */
     @Override
     public boolean isApplicable(Class<? extends AbstractProject> jobType) {
-      if(getClientInstallations() != null && getClientInstallations().length > 0 &&
-          getQTPAddinsInstallations() != null && getQTPAddinsInstallations().length > 0) {
-        return true;
-      }
-      return false;
+      return true;
     }
 
     @Override
@@ -478,6 +614,7 @@ public class QualityCenter extends Builder {
 
     public void setClientInstallations(QualityCenterClientInstallation... installations) {
       this.clientInstallations = installations;
+      QualityCenterToolRegistry.invalidate(QualityCenterClientInstallation.class);
       save();
     }
 
@@ -487,6 +624,7 @@ public class QualityCenter extends Builder {
 
     public void setQTPAddinsInstallations(QualityCenterQTPAddinsInstallation... installations) {
       this.qtpAddinsInstallations = installations;
+      QualityCenterToolRegistry.invalidate(QualityCenterQTPAddinsInstallation.class);
       save();
     }
 
@@ -522,6 +660,27 @@ public class QualityCenter extends Builder {
       return FormValidation.ok();
     }
 
+    public FormValidation doCheckMaxConcurrentTestSets(@QueryParameter String value) {
+      return FormValidation.validatePositiveInteger(value);
+    }
+
+    public FormValidation doCheckSessionTimeToLive(@QueryParameter String value) {
+      return FormValidation.validateNonNegativeInteger(value);
+    }
+
+    public FormValidation doCheckEngine(@QueryParameter String value) {
+      if(ENGINE_REST.equals(value)) {
+        return FormValidation.ok();
+      }
+      if(getClientInstallations() == null || getClientInstallations().length == 0) {
+        return FormValidation.error(Messages.QualityCenter_EngineNeedsClientInstallation());
+      }
+      if(getQTPAddinsInstallations() == null || getQTPAddinsInstallations().length == 0) {
+        return FormValidation.warning(Messages.QualityCenter_EngineNeedsQTPAddinInstallation());
+      }
+      return FormValidation.ok();
+    }
+
     public FormValidation doCheckQcTSName(@QueryParameter String value) {
       if(StringUtils.isBlank(value)) {
         return FormValidation.error(Messages.QualityCenter_TSNameShouldBeDefined());
@@ -540,6 +699,24 @@ public class QualityCenter extends Builder {
     public String[] getRunModes() {
         return QualityCenter.RUN_MODES;
     }
+
+    /**
+     * Returns the possible engines.
+     *
+     * @see #getRunModes()
+     */
+    public String[] getEngines() {
+        return QualityCenter.ENGINES;
+    }
+
+    /**
+     * Returns the possible console outputs.
+     *
+     * @see #getRunModes()
+     */
+    public String[] getConsoleOutputs() {
+        return QualityCenter.CONSOLE_OUTPUTS;
+    }
   }
 
 }
@@ -0,0 +1,390 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.model.AbstractBuild;
+import hudson.model.Action;
+import hudson.model.Actionable;
+import hudson.model.Item;
+import hudson.model.Project;
+import hudson.tasks.Builder;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletException;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+/**
+ * Keeps track, for a given build, of the TestSets run by its
+ * {@link QualityCenter} build steps and of the reports they generated.
+ *
+ * <p>This is what {@link QualityCenterResultArchiver} uses to find out which
+ * reports it has to archive. As this state belongs to the build (rather than
+ * to the build step, which is shared by all the builds of the project), the
+ * builds of a same project can run concurrently.</p>
+ *
+ * <p>When the failed steps of the tests are deferred, this is also where
+ * they can be looked at: They are fetched from Quality Center when someone
+ * allowed to configure the project asks for them from the page of a failed
+ * test, and then kept in memory. They are fetched with the credentials the
+ * build step of the project has at that time, none being kept with the
+ * build.</p>
+ */
+public class QualityCenterBuildAction implements Action {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterBuildAction.class.getName());
+
+  private final List<TestSet> testSets = new ArrayList<TestSet>();
+  /** Read from the build directory the first time it's needed. */
+  private transient volatile QualityCenterResultRecord resultRecord;
+
+  /**
+   * Returns the action attached to the given build, attaching a new one if
+   * there's none yet.
+   *
+   * <p>The build steps of a same build which run concurrently get the same
+   * action.</p>
+   */
+  public static QualityCenterBuildAction getOrCreate(Actionable build) {
+    synchronized(build) {
+      QualityCenterBuildAction action = build.getAction(QualityCenterBuildAction.class);
+      if(action == null) {
+        action = new QualityCenterBuildAction();
+        build.getActions().add(action);
+      }
+      return action;
+    }
+  }
+
+  /**
+   * Registers a TestSet which is about to be run.
+   */
+  public synchronized TestSet addTestSet(String name, String reportFile, String engine) {
+    TestSet testSet = new TestSet(name, reportFile, engine);
+    testSets.add(testSet);
+    return testSet;
+  }
+
+  public synchronized List<TestSet> getTestSets() {
+    return Collections.unmodifiableList(new ArrayList<TestSet>(testSets));
+  }
+
+  /**
+   * Returns the name of the reports (relative to the workspace) of all the
+   * TestSets run by the build.
+   */
+  public synchronized List<String> getReportFiles() {
+    List<String> reportFiles = new ArrayList<String>(testSets.size());
+    for(TestSet testSet : testSets) {
+      reportFiles.add(testSet.getReportFile());
+    }
+    return reportFiles;
+  }
+
+  /**
+   * Returns the record of the outcome of the tests of the given build (the
+   * one this action is attached to), or {@code null} if they haven't been
+   * archived.
+   */
+  public QualityCenterResultRecord getResultRecord(AbstractBuild<?, ?> build) {
+    QualityCenterResultRecord record = resultRecord;
+    if(record == null) {
+      try {
+        record = QualityCenterResultRecord.load(QualityCenterResultArchiver.getReportsDir(build));
+        resultRecord = record;
+      }
+      catch(IOException ioe) {
+        LOGGER.log(Level.WARNING, "Failed to read the QC summary of " + build, ioe);
+      }
+    }
+    return record;
+  }
+
+  void setResultRecord(QualityCenterResultRecord resultRecord) {
+    this.resultRecord = resultRecord;
+  }
+
+  public String getIconFileName() {
+    return null;
+  }
+
+  public String getDisplayName() {
+    return null;
+  }
+
+  public String getUrlName() {
+    return "qualitycenter";
+  }
+
+  /**
+   * Returns whether some failed tests have their steps deferred.
+   */
+  public synchronized boolean hasFailedRuns() {
+    for(TestSet testSet : testSets) {
+      if(!testSet.getFailedRuns().isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gives access to the failed tests, by run ID.
+   */
+  public FailedRun getDynamic(String runId, StaplerRequest req, StaplerResponse rsp) {
+    for(TestSet testSet : getTestSets()) {
+      for(Map.Entry<String, String> failedRun : testSet.getFailedRuns().entrySet()) {
+        if(failedRun.getValue().equals(runId)) {
+          return new FailedRun(req.findAncestorObject(AbstractBuild.class), testSet, failedRun.getKey(), runId);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A TestSet run by the build.
+   */
+  public static class TestSet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final String reportFile;
+    private final String engine;
+    /** {@code null} as long as the TestSet hasn't been run. */
+    private Boolean succeeded;
+    /**
+     * Where the TestSet has been run from, as resolved by the build step,
+     * when the failed steps of its tests are deferred.
+     */
+    private String serverURL;
+    private String domain;
+    private String project;
+    /** Last run of each failed test, by test name, when steps are deferred. */
+    private Map<String, String> failedRuns;
+    /** Steps of the failed runs which have already been looked at, by run ID. */
+    private transient ConcurrentMap<String, List<Map<String, String>>> steps;
+
+    TestSet(String name, String reportFile, String engine) {
+      this.name = name;
+      this.reportFile = reportFile;
+      this.engine = engine;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getReportFile() {
+      return reportFile;
+    }
+
+    public String getEngine() {
+      return engine;
+    }
+
+    public Boolean getSucceeded() {
+      return succeeded;
+    }
+
+    void setSucceeded(boolean succeeded) {
+      this.succeeded = succeeded;
+    }
+
+    void setServer(String serverURL, String domain, String project) {
+      this.serverURL = serverURL;
+      this.domain = domain;
+      this.project = project;
+    }
+
+    public synchronized Map<String, String> getFailedRuns() {
+      if(failedRuns == null) {
+        return Collections.emptyMap();
+      }
+      return Collections.unmodifiableMap(failedRuns);
+    }
+
+    synchronized void setFailedRuns(Map<String, String> failedRuns) {
+      this.failedRuns = new LinkedHashMap<String, String>(failedRuns);
+    }
+
+    /**
+     * Returns the steps of the given run, {@code null} if they haven't been
+     * fetched from Quality Center yet.
+     */
+    List<Map<String, String>> getSteps(String runId) {
+      synchronized(this) {
+        if(steps == null) {
+          return null;
+        }
+      }
+      return steps.get(runId);
+    }
+
+    /**
+     * Fetches the steps of the given run from Quality Center, unless they
+     * already have been.
+     *
+     * @param build the build which ran the TestSet
+     */
+    List<Map<String, String>> fetchSteps(AbstractBuild<?, ?> build, String runId) throws IOException, InterruptedException {
+      synchronized(this) {
+        if(steps == null) {
+          steps = new ConcurrentHashMap<String, List<Map<String, String>>>();
+        }
+      }
+      List<Map<String, String>> runSteps = steps.get(runId);
+      if(runSteps == null) {
+        QualityCenterRestClient client = login(build);
+        try {
+          runSteps = client.getEntities("run-steps", "{parent-id[" + runId + "]}", "id,name,status,description,expected,actual");
+        }
+        finally {
+          client.logout();
+        }
+        for(Map<String, String> step : runSteps) {
+          step.put("description", QualityCenterRestRunner.stripHtml(step.get("description")));
+          step.put("expected", QualityCenterRestRunner.stripHtml(step.get("expected")));
+          step.put("actual", QualityCenterRestRunner.stripHtml(step.get("actual")));
+        }
+        steps.put(runId, runSteps);
+      }
+      return runSteps;
+    }
+
+    /**
+     * Logs into Quality Center with the credentials of the build step of the
+     * project which runs its TestSets where this one has been run, as it is
+     * currently configured.
+     */
+    private QualityCenterRestClient login(AbstractBuild<?, ?> build) throws IOException, InterruptedException {
+      if(serverURL != null && build.getProject() instanceof Project) {
+        for(Builder builder : ((Project<?, ?>) build.getProject()).getBuilders()) {
+          if(builder instanceof QualityCenter) {
+            QualityCenterRestClient client = ((QualityCenter) builder).login(build, serverURL, domain, project);
+            if(client != null) {
+              return client;
+            }
+          }
+        }
+      }
+      throw new IOException(Messages.QualityCenterBuildAction_NoCredentials(serverURL, domain, project));
+    }
+
+  }
+
+  /**
+   * A failed test whose steps have been deferred.
+   */
+  public static class FailedRun {
+
+    private final AbstractBuild<?, ?> build;
+    private final TestSet testSet;
+    private final String testName;
+    private final String runId;
+    /** Why the steps couldn't be fetched, if so. */
+    private String error;
+
+    FailedRun(AbstractBuild<?, ?> build, TestSet testSet, String testName, String runId) {
+      this.build = build;
+      this.testSet = testSet;
+      this.testName = testName;
+      this.runId = runId;
+    }
+
+    public AbstractBuild<?, ?> getBuild() {
+      return build;
+    }
+
+    public TestSet getTestSet() {
+      return testSet;
+    }
+
+    public String getTestName() {
+      return testName;
+    }
+
+    public String getRunId() {
+      return runId;
+    }
+
+    public String getDisplayName() {
+      return testName;
+    }
+
+    /**
+     * Returns the steps of the run, {@code null} if nobody fetched them yet.
+     */
+    public List<Map<String, String>> getSteps() {
+      return testSet.getSteps(runId);
+    }
+
+    /**
+     * Returns why the steps couldn't be fetched, if so.
+     */
+    public String getError() {
+      return error;
+    }
+
+    /**
+     * Only the users who can configure the project can have the steps
+     * fetched, as this is done with the credentials of its build step.
+     */
+    public boolean isFetchAllowed() {
+      return build.getProject().hasPermission(Item.CONFIGURE);
+    }
+
+    /**
+     * Fetches the steps of the run from Quality Center.
+     */
+    @RequirePOST
+    public void doFetch(StaplerRequest req, StaplerResponse rsp) throws IOException, ServletException, InterruptedException {
+      build.getProject().checkPermission(Item.CONFIGURE);
+      try {
+        testSet.fetchSteps(build, runId);
+      }
+      catch(IOException ioe) {
+        error = ioe.getMessage();
+        req.getView(this, "index.jelly").forward(req, rsp);
+        return;
+      }
+      rsp.sendRedirect2(".");
+    }
+
+  }
+
+}
@@ -0,0 +1,517 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.model.Job;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers how long the QC tests of a job took, and how they ended, so
+ * that the time the next executions will take can be foreseen.
+ *
+ * <p>The tests are identified by their domain, project, folder, TestSet and
+ * name. Only the last {@link #RETENTION} runs of each test are kept, and the
+ * tests which haven't run for {@link #MAX_AGE} are forgotten.</p>
+ *
+ * <p>The store of a job is kept in memory, indexed by TestSet and by test,
+ * once it has been read. It is backed by a file of the job directory, which
+ * is only appended to: Each test is written once (along with an ID the
+ * outcomes of its runs then refer to), and the file is rewritten with the
+ * retained runs only once it holds twice as many as that.</p>
+ */
+public final class QualityCenterDurationStore {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterDurationStore.class.getName());
+
+  /** How many runs of each test are kept. */
+  public static int RETENTION = Integer.getInteger(QualityCenterDurationStore.class.getName() + ".retention", 20);
+  /** How long a test which doesn't run anymore is kept, in milliseconds. */
+  public static long MAX_AGE = Long.getLong(QualityCenterDurationStore.class.getName() + ".maxAge", TimeUnit.DAYS.toMillis(90));
+
+  public static final byte PASSED = 0;
+  public static final byte FAILED = 1;
+  /** The test didn't complete (it has been blocked, aborted...). */
+  public static final byte NOT_COMPLETED = 2;
+
+  static final String FILE = "qualitycenter-durations.dat";
+
+  /** Introduces a test, which is given an ID. */
+  private static final byte TEST = 'T';
+  /** Introduces the runs recorded at a given time. */
+  private static final byte BATCH = 'B';
+  private static final byte RUN = 'R';
+  /** The file isn't compacted as long as it holds less runs than this. */
+  private static final int MIN_COMPACTION = 1000;
+
+  private static final Map<Job<?, ?>, QualityCenterDurationStore> STORES = new WeakHashMap<Job<?, ?>, QualityCenterDurationStore>();
+
+  private final File file;
+  /** Tests, by TestSet (see {@link #getTestSetKey}) and by name. */
+  private final Map<String, Map<String, History>> testSets = new HashMap<String, Map<String, History>>();
+  private int nextId;
+  /** Number of runs in the file. */
+  private int runsInFile;
+  /** Number of runs kept in memory. */
+  private int runs;
+
+  private QualityCenterDurationStore(File file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns the store of the given job, reading it if it hasn't been yet.
+   */
+  public static QualityCenterDurationStore get(Job<?, ?> job) {
+    synchronized(STORES) {
+      File file = new File(job.getRootDir(), FILE);
+      QualityCenterDurationStore store = STORES.get(job);
+      // the job may have been renamed
+      if(store == null || !store.file.equals(file)) {
+        store = new QualityCenterDurationStore(file);
+        try {
+          store.load();
+        }
+        catch(IOException ioe) {
+          LOGGER.log(Level.WARNING, "Failed to read " + file + ", the durations of the tests are lost", ioe);
+          store = new QualityCenterDurationStore(file);
+          file.delete();
+        }
+        STORES.put(job, store);
+      }
+      return store;
+    }
+  }
+
+  private static String getTestSetKey(String domain, String project, String folder, String testSet) {
+    // none of these can contain a line break
+    return domain + '\n' + project + '\n' + folder + '\n' + testSet;
+  }
+
+  /**
+   * Reads the file, compacting it if it has to be.
+   */
+  private void load() throws IOException {
+    if(!file.exists()) {
+      return;
+    }
+
+    Map<Integer, History> tests = new HashMap<Integer, History>();
+    long time = 0;
+    boolean truncated = false;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      while(true) {
+        int type = in.read();
+        if(type < 0) {
+          break;
+        }
+        if(type == TEST) {
+          int id = in.readInt();
+          String testSetKey = getTestSetKey(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+          History history = getHistory(testSetKey, in.readUTF());
+          history.id = id;
+          tests.put(id, history);
+          nextId = Math.max(nextId, id + 1);
+        }
+        else if(type == BATCH) {
+          time = in.readLong();
+        }
+        else if(type == RUN) {
+          History history = tests.get(in.readInt());
+          int duration = in.readInt();
+          byte status = in.readByte();
+          if(history == null) {
+            throw new IOException("Unknown test in " + file);
+          }
+          runs += history.add(time, duration, status);
+          runsInFile++;
+        }
+        else {
+          throw new IOException("Unexpected record in " + file);
+        }
+      }
+    }
+    catch(EOFException eofe) {
+      // the last record has only been partly written (Jenkins stopped
+      // while a build was recording its tests): it mustn't be followed by
+      // other records
+      truncated = true;
+    }
+    finally {
+      in.close();
+    }
+
+    if(truncated || shouldCompact()) {
+      compact();
+    }
+  }
+
+  private History getHistory(String testSetKey, String test) {
+    Map<String, History> tests = testSets.get(testSetKey);
+    if(tests == null) {
+      tests = new HashMap<String, History>();
+      testSets.put(testSetKey, tests);
+    }
+    History history = tests.get(test);
+    if(history == null) {
+      history = new History(testSetKey, test);
+      tests.put(test, history);
+    }
+    return history;
+  }
+
+  /**
+   * Records the outcome of the tests of a TestSet which have just run.
+   */
+  public synchronized void record(String domain, String project, String folder, String testSet, List<Sample> samples) throws IOException {
+    if(samples.isEmpty()) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    String testSetKey = getTestSetKey(domain, project, folder, testSet);
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    try {
+      out.writeByte(BATCH);
+      out.writeLong(now);
+      for(Sample sample : samples) {
+        History history = getHistory(testSetKey, sample.getTest());
+        if(history.id < 0) {
+          history.id = nextId++;
+          writeTest(out, history.id, history.test, domain, project, folder, testSet);
+        }
+        runs += history.add(now, sample.getDuration(), sample.getStatus());
+        writeRun(out, history.id, sample.getDuration(), sample.getStatus());
+        runsInFile++;
+      }
+    }
+    finally {
+      out.close();
+    }
+
+    if(shouldCompact()) {
+      compact();
+    }
+  }
+
+  private static void writeTest(DataOutputStream out, int id, String test, String domain, String project, String folder, String testSet) throws IOException {
+    out.writeByte(TEST);
+    out.writeInt(id);
+    out.writeUTF(domain);
+    out.writeUTF(project);
+    out.writeUTF(folder);
+    out.writeUTF(testSet);
+    out.writeUTF(test);
+  }
+
+  private static void writeRun(DataOutputStream out, int id, int duration, byte status) throws IOException {
+    out.writeByte(RUN);
+    out.writeInt(id);
+    out.writeInt(duration);
+    out.writeByte(status);
+  }
+
+  private boolean shouldCompact() {
+    return runsInFile > Math.max(MIN_COMPACTION, 2 * runs);
+  }
+
+  /**
+   * Rewrites the file with the retained runs only, forgetting the tests
+   * which haven't run for too long.
+   */
+  private void compact() throws IOException {
+    long oldest = System.currentTimeMillis() - MAX_AGE;
+    List<History> kept = new ArrayList<History>();
+    Iterator<Map<String, History>> testSetsIt = testSets.values().iterator();
+    while(testSetsIt.hasNext()) {
+      Map<String, History> tests = testSetsIt.next();
+      Iterator<History> testsIt = tests.values().iterator();
+      while(testsIt.hasNext()) {
+        History history = testsIt.next();
+        if(history.lastRun < oldest) {
+          runs -= history.size;
+          testsIt.remove();
+        }
+        else {
+          kept.add(history);
+        }
+      }
+      if(tests.isEmpty()) {
+        testSetsIt.remove();
+      }
+    }
+
+    // the tests are given new IDs, which are only used once the file has
+    // been replaced
+    File temp = new File(file.getPath() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+    try {
+      for(int id = 0; id < kept.size(); id++) {
+        History history = kept.get(id);
+        String[] testSet = history.testSetKey.split("\n", 4);
+        writeTest(out, id, history.test, testSet[0], testSet[1], testSet[2], testSet[3]);
+        // only the time of the last run is needed
+        out.writeByte(BATCH);
+        out.writeLong(history.lastRun);
+        for(int i = 0; i < history.size; i++) {
+          int run = (history.next - history.size + i + history.durations.length) % history.durations.length;
+          writeRun(out, id, history.durations[run], history.statuses[run]);
+        }
+      }
+    }
+    finally {
+      out.close();
+    }
+
+    // renameTo() doesn't replace existing files on Windows
+    if(!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+      throw new IOException("Failed to replace " + file);
+    }
+    for(int id = 0; id < kept.size(); id++) {
+      kept.get(id).id = id;
+    }
+    nextId = kept.size();
+    runsInFile = runs;
+  }
+
+  /**
+   * Returns the statistics of the retained runs of the given test, or
+   * {@code null} if it never ran.
+   */
+  public synchronized Statistics getStatistics(String domain, String project, String folder, String testSet, String test) {
+    Map<String, History> tests = testSets.get(getTestSetKey(domain, project, folder, testSet));
+    History history = tests != null ? tests.get(test) : null;
+    return history != null ? history.getStatistics() : null;
+  }
+
+  /**
+   * Returns the statistics of the whole TestSet, as if its tests were run
+   * one after the other (their expected durations and their variances are
+   * summed up), or {@code null} if none of its tests ever ran.
+   */
+  public synchronized Statistics getStatistics(String domain, String project, String folder, String testSet) {
+    Map<String, History> tests = testSets.get(getTestSetKey(domain, project, folder, testSet));
+    if(tests == null || tests.isEmpty()) {
+      return null;
+    }
+    Statistics total = new Statistics(0, 0, 0, 0);
+    for(History history : tests.values()) {
+      Statistics statistics = history.getStatistics();
+      total = new Statistics(total.runs + statistics.runs, total.failures + statistics.failures,
+              total.expectedDuration + statistics.expectedDuration, total.variance + statistics.variance);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the name of the tests of the given TestSet which ran.
+   */
+  public synchronized List<String> getTests(String domain, String project, String folder, String testSet) {
+    Map<String, History> tests = testSets.get(getTestSetKey(domain, project, folder, testSet));
+    if(tests == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<String>(tests.keySet());
+  }
+
+  /**
+   * The last runs of a test, in a ring buffer.
+   */
+  private static final class History {
+
+    private final String testSetKey;
+    private final String test;
+    /** In the file, {@code -1} if not written yet. */
+    private int id = -1;
+    /** In seconds. */
+    private final int[] durations = new int[Math.max(1, RETENTION)];
+    private final byte[] statuses = new byte[durations.length];
+    private int next;
+    private int size;
+    private long lastRun;
+
+    History(String testSetKey, String test) {
+      this.testSetKey = testSetKey;
+      this.test = test;
+    }
+
+    /**
+     * @return the number of runs added to the ones kept ({@code 0} if the
+     *         oldest one has been forgotten)
+     */
+    int add(long time, int duration, byte status) {
+      durations[next] = duration;
+      statuses[next] = status;
+      next = (next + 1) % durations.length;
+      lastRun = Math.max(lastRun, time);
+      if(size < durations.length) {
+        size++;
+        return 1;
+      }
+      return 0;
+    }
+
+    Statistics getStatistics() {
+      // only the runs which completed tell how long the test takes
+      int completed = 0;
+      int failures = 0;
+      double mean = 0;
+      double m2 = 0;
+      for(int i = 0; i < size; i++) {
+        if(statuses[i] == FAILED) {
+          failures++;
+        }
+        if(statuses[i] != NOT_COMPLETED) {
+          completed++;
+          double delta = durations[i] - mean;
+          mean += delta / completed;
+          m2 += delta * (durations[i] - mean);
+        }
+      }
+      return new Statistics(size, failures, mean, completed > 1 ? m2 / (completed - 1) : 0);
+    }
+
+  }
+
+  /**
+   * What is known of the runs of a test, or of a whole TestSet.
+   */
+  public static final class Statistics {
+
+    private final int runs;
+    private final int failures;
+    private final double expectedDuration;
+    private final double variance;
+
+    Statistics(int runs, int failures, double expectedDuration, double variance) {
+      this.runs = runs;
+      this.failures = failures;
+      this.expectedDuration = expectedDuration;
+      this.variance = variance;
+    }
+
+    /**
+     * Returns the number of runs the statistics are computed from.
+     */
+    public int getRuns() {
+      return runs;
+    }
+
+    public int getFailures() {
+      return failures;
+    }
+
+    public double getFailureRate() {
+      return runs > 0 ? (double) failures / runs : 0;
+    }
+
+    /**
+     * Returns the mean duration of the runs which completed, in seconds.
+     */
+    public double getExpectedDuration() {
+      return expectedDuration;
+    }
+
+    /**
+     * Returns the variance of the duration of the runs which completed, in
+     * square seconds.
+     */
+    public double getVariance() {
+      return variance;
+    }
+
+    public double getStandardDeviation() {
+      return Math.sqrt(variance);
+    }
+
+  }
+
+  /**
+   * The outcome of a test, as sent back by the node which ran it.
+   */
+  public static final class Sample implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String test;
+    private final int duration;
+    private final byte status;
+
+    /**
+     * @param duration the duration of the run, in seconds
+     * @param status the status of the run in Quality Center
+     */
+    public Sample(String test, long duration, String status) {
+      this.test = test;
+      this.duration = (int) Math.min(Integer.MAX_VALUE, Math.max(0, duration));
+      if(QualityCenterTestInstance.STATUS_PASSED.equals(status)) {
+        this.status = PASSED;
+      }
+      else if(QualityCenterTestInstance.STATUS_FAILED.equals(status)) {
+        this.status = FAILED;
+      }
+      else {
+        this.status = NOT_COMPLETED;
+      }
+    }
+
+    public String getTest() {
+      return test;
+    }
+
+    /**
+     * In seconds.
+     */
+    public int getDuration() {
+      return duration;
+    }
+
+    public byte getStatus() {
+      return status;
+    }
+
+  }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.Util;
+import hudson.console.LineTransformationOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Follows the events sent by the VBScript running TestSets, while the other
+ * lines of its output are copied as is to the underlying stream.
+ *
+ * <p>Each event is a JSON object written on its own line after the
+ * {@value #MARKER} marker: {@code connected} once the project is opened,
+ * {@code testset} before each TestSet is run (the script can run several
+ * ones through the same connection), {@code scheduled} once its execution is
+ * started, {@code test} each time the status of a test changes and
+ * {@code finished} with the outcome of the execution. Events aren't copied
+ * to the build log, only the failures of the tests are reported as soon as
+ * they are known, along with the outcome. When only the changes of status
+ * are logged, the script doesn't print them anymore: They are then reported
+ * from the events too.</p>
+ *
+ * <p>The lines which aren't events are written through a
+ * {@link QualityCenterLogWriter}, and may be omitted if there are too many
+ * when only the changes are logged; the lines which report events are always
+ * written.</p>
+ */
+public class QualityCenterEventStream extends LineTransformationOutputStream {
+
+  static final String MARKER = "@qc ";
+
+  private final QualityCenterLogWriter log;
+  /** Whether the changes of status of the tests have to be reported. */
+  private final boolean changes;
+  /**
+   * Where the output is written, so that its lines are prefixed with the
+   * name of the TestSet being run; {@code null} if they aren't prefixed.
+   */
+  private final QualityCenterPrefixedOutputStream prefixed;
+  /** Outcome of each TestSet, in the order they are run. */
+  private final List<Outcome> outcomes = new ArrayList<Outcome>();
+  /** Outcome of the TestSet being run. */
+  private Outcome outcome;
+
+  public QualityCenterEventStream(QualityCenterLogWriter log, boolean changes) {
+    this(log, changes, null);
+  }
+
+  public QualityCenterEventStream(QualityCenterLogWriter log, boolean changes, QualityCenterPrefixedOutputStream prefixed) {
+    this.log = log;
+    this.changes = changes;
+    this.prefixed = prefixed;
+  }
+
+  @Override
+  protected void eol(byte[] b, int len) throws IOException {
+    String line = new String(b, 0, len, "US-ASCII").trim();
+    if(line.startsWith(MARKER)) {
+      try {
+        onEvent(JSONObject.fromObject(line.substring(MARKER.length())));
+        return;
+      }
+      catch(JSONException e) {
+        // not an event after all
+      }
+    }
+    log.write(b, len);
+  }
+
+  private void onEvent(JSONObject event) throws IOException {
+    String type = event.optString("event");
+    if("testset".equals(type)) {
+      outcome = getOutcome(event.optInt("index"));
+      if(prefixed != null) {
+        prefixed.setPrefix(event.optString("name"));
+      }
+      return;
+    }
+
+    // the scripts which run a single TestSet don't say so
+    Outcome outcome = this.outcome != null ? this.outcome : getOutcome(0);
+    if("scheduled".equals(type)) {
+      outcome.tests = event.optInt("tests");
+    }
+    else if("test".equals(type)) {
+      if(event.has("duration")) {
+        outcome.durations.put(event.optString("id"), event.optLong("duration"));
+        outcome.samples.add(new QualityCenterDurationStore.Sample(event.optString("name"), event.optLong("duration"),
+                getRunStatus(event.optString("status"))));
+      }
+      if(event.has("message")) {
+        // the test ended and didn't pass: no need to wait for the report
+        if(event.optString("runId").length() > 0) {
+          outcome.failedRuns.put(event.optString("name"), event.optString("runId"));
+        }
+        println(Messages.QualityCenter_EventTestFailed(event.optString("name"), event.optString("status"),
+                Util.getTimeSpanString(event.optLong("elapsed") * 1000), event.optString("message")));
+      }
+      else if(changes) {
+        println(Messages.QualityCenter_EventTestStatus(event.optString("name"), event.optString("status"),
+                Util.getTimeSpanString(event.optLong("elapsed") * 1000)));
+      }
+    }
+    else if("finished".equals(type)) {
+      outcome.status = event.optString("status");
+      outcome.message = event.optString("message");
+      outcome.tests = event.optInt("tests");
+      outcome.failures = event.optInt("failed");
+      outcome.elapsed = event.optLong("elapsed");
+      println(Messages.QualityCenter_EventFinished(outcome.tests, Util.getTimeSpanString(outcome.elapsed * 1000), outcome.failures));
+    }
+  }
+
+  /**
+   * Returns the status of the run of a test from its execution status, as
+   * sent by the OTA scheduler (e.g. {@code FinishedPassed} for
+   * {@link QualityCenterTestInstance#STATUS_PASSED}).
+   */
+  static String getRunStatus(String executionStatus) {
+    return StringUtils.removeStart(executionStatus, "Finished");
+  }
+
+  private void println(String line) throws IOException {
+    byte[] b = (line + '\n').getBytes();
+    log.writeAlways(b, b.length);
+  }
+
+  @Override
+  public void close() throws IOException {
+    super.close();
+    log.close();
+  }
+
+  /**
+   * Returns how many TestSets the script started to run.
+   */
+  public int getTestSetCount() {
+    return outcomes.size();
+  }
+
+  /**
+   * Returns the outcome of the given TestSet, by the order it was run in
+   * (the outcome of a TestSet the script didn't get to is empty).
+   */
+  public Outcome getOutcome(int testSet) {
+    while(outcomes.size() <= testSet) {
+      outcomes.add(new Outcome());
+    }
+    return outcomes.get(testSet);
+  }
+
+  /**
+   * What the script sent about a TestSet.
+   */
+  public static final class Outcome {
+
+    /** Duration of each test which ended, in seconds, by TSTest ID. */
+    private final Map<String, Long> durations = new LinkedHashMap<String, Long>();
+    /** Outcome of each test which ended. */
+    private final List<QualityCenterDurationStore.Sample> samples = new ArrayList<QualityCenterDurationStore.Sample>();
+    /** Last run of each test which didn't pass, by test name. */
+    private final Map<String, String> failedRuns = new LinkedHashMap<String, String>();
+    private String status;
+    private String message;
+    private int tests;
+    private int failures;
+    private long elapsed;
+
+    /**
+     * Returns {@code true} if the script sent the outcome of the execution,
+     * which means that it already reported the error it stopped on, if any.
+     */
+    public boolean isFinished() {
+      return status != null;
+    }
+
+    /**
+     * Returns the outcome of the execution ({@code passed}, {@code failed},
+     * {@code timedout} or {@code error}), {@code null} if unknown.
+     */
+    public String getStatus() {
+      return status;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public int getTestCount() {
+      return tests;
+    }
+
+    public int getFailureCount() {
+      return failures;
+    }
+
+    /**
+     * Returns how long the execution lasted, in seconds, including the
+     * connection to Quality Center for the first TestSet.
+     */
+    public long getElapsed() {
+      return elapsed;
+    }
+
+    /**
+     * Returns the duration of each test which ended, in seconds, by TSTest ID.
+     */
+    public Map<String, Long> getDurations() {
+      return Collections.unmodifiableMap(durations);
+    }
+
+    /**
+     * Returns the outcome of each test which ended.
+     */
+    public List<QualityCenterDurationStore.Sample> getSamples() {
+      return Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * Returns the ID of the last run of each test which didn't pass, by test
+     * name.
+     */
+    public Map<String, String> getFailedRuns() {
+      return Collections.unmodifiableMap(failedRuns);
+    }
+
+  }
+
+}
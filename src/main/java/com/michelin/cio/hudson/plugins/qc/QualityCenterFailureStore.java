@@ -0,0 +1,417 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.model.AbstractBuild;
+import hudson.tasks.junit.CaseResult;
+import hudson.tasks.junit.TestAction;
+import hudson.tasks.junit.TestObject;
+import hudson.tasks.junit.TestResultAction;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.namespace.QName;
+
+/**
+ * Keeps the large failure details of the QC reports of a build out of its
+ * test result.
+ *
+ * <p>The failure details of a test can include the description of all its
+ * failed steps. When the reports are copied (on the node, before they are
+ * sent to the build directory), the details longer than {@link #THRESHOLD}
+ * characters are replaced by their first {@link #PREVIEW} characters, and
+ * appended as is to a side file;
+ * Another file indexes them by test, with their offset and their length.
+ * The JUnit test result (which Jenkins keeps in memory for the builds which
+ * are displayed) only holds the previews then, and the full details are
+ * only read when a user opens them, through the {@link Data} of the test
+ * result action.</p>
+ */
+public class QualityCenterFailureStore {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterFailureStore.class.getName());
+
+  /** {@code 0} or less to keep all the failure details in the test result. */
+  public static int THRESHOLD = Integer.getInteger(QualityCenterFailureStore.class.getName() + ".threshold", 4096);
+  public static int PREVIEW = Integer.getInteger(QualityCenterFailureStore.class.getName() + ".preview", 1024);
+
+  private static final String DATA_FILE = "failures.dat";
+  private static final String INDEX_FILE = "failures.idx";
+  private static final String ENCODING = "UTF-8";
+
+  private final File dir;
+  private DataOutputStream data;
+  private DataOutputStream index;
+  private long offset;
+  private int count;
+
+  /**
+   * @param dir the directory the reports are copied to
+   */
+  public QualityCenterFailureStore(File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Copies a report, storing apart the failure details which are too long.
+   *
+   * <p>Its test cases are added to the given summary on the way, so that the
+   * report is only read once.</p>
+   *
+   * @param report the report, relative to the workspace
+   */
+  public void copy(InputStream in, File target, QualityCenterResultSummary summary, String report) throws IOException {
+    int reportIndex = summary.addReport(report);
+    OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+    try {
+      XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+      inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      XMLEventReader reader = inputFactory.createXMLEventReader(in);
+      XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(out, ENCODING);
+      XMLEventFactory events = XMLEventFactory.newInstance();
+      try {
+        String suite = null;
+        String testCase = null;
+        int summaryCase = -1;
+        StringBuilder details = null;
+        while(reader.hasNext()) {
+          XMLEvent event = reader.nextEvent();
+          if(details != null) {
+            if(event.isCharacters()) {
+              details.append(event.asCharacters().getData());
+              continue;
+            }
+            writeDetails(writer, events, testCase, details);
+            details = null;
+          }
+
+          if(event.isStartDocument()) {
+            // the report is written back in UTF-8, whatever its encoding was
+            event = events.createStartDocument(ENCODING, ((StartDocument) event).getVersion());
+          }
+          else if(event.isStartElement()) {
+            StartElement element = event.asStartElement();
+            String name = element.getName().getLocalPart();
+            if("testsuite".equals(name)) {
+              suite = getAttribute(element, "name");
+            }
+            else if("testcase".equals(name)) {
+              // same name as the one of the CaseResult
+              String className = getAttribute(element, "classname");
+              testCase = getKey(className != null ? className : suite, getAttribute(element, "name"));
+              summaryCase = summary.addTestCase(reportIndex, className != null ? className : suite,
+                      getAttribute(element, "name"), getAttribute(element, "time"));
+            }
+            else if(testCase != null && "skipped".equals(name)) {
+              summary.setStatus(summaryCase, QualityCenterResultSummary.SKIPPED);
+            }
+            else if(testCase != null && ("failure".equals(name) || "error".equals(name))) {
+              summary.setStatus(summaryCase, "failure".equals(name) ? QualityCenterResultSummary.FAILED : QualityCenterResultSummary.ERROR);
+              writer.add(truncateMessage(element, events));
+              details = new StringBuilder();
+              continue;
+            }
+          }
+          else if(event.isEndElement() && "testcase".equals(event.asEndElement().getName().getLocalPart())) {
+            testCase = null;
+            summaryCase = -1;
+          }
+          writer.add(event);
+        }
+        writer.flush();
+      }
+      finally {
+        writer.close();
+        reader.close();
+      }
+    }
+    catch(XMLStreamException xse) {
+      IOException ioe = new IOException("Failed to copy " + target.getName());
+      ioe.initCause(xse);
+      throw ioe;
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static String getAttribute(StartElement element, String name) {
+    Attribute attribute = element.getAttributeByName(new QName(name));
+    return attribute != null ? attribute.getValue() : null;
+  }
+
+  private static String getKey(String className, String name) {
+    return className + '.' + name;
+  }
+
+  /**
+   * The message of a failure being usually the beginning of its details, it
+   * is only truncated when it's too long.
+   */
+  private static StartElement truncateMessage(StartElement element, XMLEventFactory events) {
+    String message = getAttribute(element, "message");
+    if(THRESHOLD <= 0 || message == null || message.length() <= THRESHOLD) {
+      return element;
+    }
+    List<Attribute> attributes = new ArrayList<Attribute>();
+    Iterator<?> it = element.getAttributes();
+    while(it.hasNext()) {
+      Attribute attribute = (Attribute) it.next();
+      if("message".equals(attribute.getName().getLocalPart())) {
+        attribute = events.createAttribute(attribute.getName(), preview(message) + "...");
+      }
+      attributes.add(attribute);
+    }
+    return events.createStartElement(element.getName(), attributes.iterator(), element.getNamespaces());
+  }
+
+  private void writeDetails(XMLEventWriter writer, XMLEventFactory events, String testCase, StringBuilder details) throws IOException, XMLStreamException {
+    if(THRESHOLD > 0 && details.length() > THRESHOLD) {
+      String preview = preview(details);
+      store(testCase, details.toString());
+      writer.add(events.createCharacters(preview + "\n\n" + Messages.QualityCenterFailureStore_Truncated(details.length() - preview.length())));
+    }
+    else if(details.length() > 0) {
+      writer.add(events.createCharacters(details.toString()));
+    }
+  }
+
+  private static String preview(CharSequence text) {
+    int length = Math.min(Math.max(PREVIEW, 0), text.length());
+    // don't split a surrogate pair
+    if(length > 0 && Character.isHighSurrogate(text.charAt(length - 1))) {
+      length--;
+    }
+    return text.subSequence(0, length).toString();
+  }
+
+  private void store(String testCase, String details) throws IOException {
+    if(data == null) {
+      data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, DATA_FILE))));
+      index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, INDEX_FILE))));
+    }
+    byte[] bytes = details.getBytes(ENCODING);
+    data.write(bytes);
+    index.writeUTF(testCase);
+    index.writeLong(offset);
+    index.writeInt(bytes.length);
+    offset += bytes.length;
+    count++;
+  }
+
+  /**
+   * Returns the number of failure details which have been stored apart.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  public void close() throws IOException {
+    if(data != null) {
+      try {
+        data.close();
+      }
+      finally {
+        index.close();
+      }
+    }
+  }
+
+  /**
+   * Gives access, from the pages of the failed tests, to their full failure
+   * details.
+   *
+   * <p>It is saved with the test result action of the build, but with none
+   * of its fields: The index and the details are read from the build
+   * directory when they are first needed, and only softly referenced.</p>
+   */
+  public static class Data extends TestResultAction.Data {
+
+    /** Test (class name and name) to offset and length of its details. */
+    private transient volatile SoftReference<Map<String, long[]>> index;
+    private transient volatile ConcurrentMap<String, SoftReference<String>> details;
+
+    @Override
+    public List<? extends TestAction> getTestAction(TestObject testObject) {
+      if(testObject instanceof CaseResult) {
+        CaseResult caseResult = (CaseResult) testObject;
+        AbstractBuild<?, ?> build = caseResult.getOwner();
+        String testCase = getKey(caseResult.getClassName(), caseResult.getName());
+        if(build != null && getIndex(build).containsKey(testCase)) {
+          return Collections.singletonList(new FullDetails(this, build, testCase));
+        }
+      }
+      return Collections.emptyList();
+    }
+
+    private Map<String, long[]> getIndex(AbstractBuild<?, ?> build) {
+      Map<String, long[]> map = index != null ? index.get() : null;
+      if(map == null) {
+        map = new HashMap<String, long[]>();
+        File file = new File(QualityCenterResultArchiver.getReportsDir(build), INDEX_FILE);
+        try {
+          DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+          try {
+            while(true) {
+              String testCase;
+              try {
+                testCase = in.readUTF();
+              }
+              catch(EOFException eofe) {
+                break;
+              }
+              map.put(testCase, new long[] { in.readLong(), in.readInt() });
+            }
+          }
+          finally {
+            in.close();
+          }
+        }
+        catch(IOException ioe) {
+          // the details are still there, truncated
+          LOGGER.log(Level.WARNING, "Failed to read " + file, ioe);
+        }
+        index = new SoftReference<Map<String, long[]>>(map);
+      }
+      return map;
+    }
+
+    String getDetails(AbstractBuild<?, ?> build, String testCase) throws IOException {
+      if(details == null) {
+        details = new ConcurrentHashMap<String, SoftReference<String>>();
+      }
+      SoftReference<String> ref = details.get(testCase);
+      String text = ref != null ? ref.get() : null;
+      if(text == null) {
+        long[] entry = getIndex(build).get(testCase);
+        if(entry == null) {
+          return null;
+        }
+        byte[] bytes = new byte[(int) entry[1]];
+        RandomAccessFile file = new RandomAccessFile(new File(QualityCenterResultArchiver.getReportsDir(build), DATA_FILE), "r");
+        try {
+          file.seek(entry[0]);
+          file.readFully(bytes);
+        }
+        finally {
+          file.close();
+        }
+        text = new String(bytes, ENCODING);
+        details.put(testCase, new SoftReference<String>(text));
+      }
+      return text;
+    }
+
+  }
+
+  /**
+   * The page of the full failure details of a test.
+   */
+  public static class FullDetails extends TestAction {
+
+    private final Data data;
+    private final AbstractBuild<?, ?> build;
+    private final String testCase;
+    /** Why the details couldn't be read, if so. */
+    private String error;
+
+    FullDetails(Data data, AbstractBuild<?, ?> build, String testCase) {
+      this.data = data;
+      this.build = build;
+      this.testCase = testCase;
+    }
+
+    public AbstractBuild<?, ?> getBuild() {
+      return build;
+    }
+
+    public String getTestCase() {
+      return testCase;
+    }
+
+    /**
+     * Returns the full failure details, or {@code null} if they can't be
+     * read (see {@link #getError()}).
+     */
+    public String getDetails() {
+      try {
+        return data.getDetails(build, testCase);
+      }
+      catch(IOException ioe) {
+        LOGGER.log(Level.WARNING, "Failed to read the failure details of " + testCase, ioe);
+        error = ioe.getMessage();
+        return null;
+      }
+    }
+
+    public String getError() {
+      return error;
+    }
+
+    public String getIconFileName() {
+      return "document.gif";
+    }
+
+    public String getDisplayName() {
+      return Messages.QualityCenterFailureStore_FullDetails();
+    }
+
+    public String getUrlName() {
+      return "qualitycenter";
+    }
+
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Spreads the tests of a TestSet over a pool of hosts, in
+ * {@link QualityCenter#RUN_MODE_HOST_POOL} mode, so that all the hosts are
+ * expected to be done at about the same time.
+ *
+ * <p>The tests are given, from the longest one to the shortest one, to the
+ * host which is expected to be done first (the "longest processing time
+ * first" rule). Their expected durations come from
+ * {@link QualityCenterDurationStore}, or else from their last run; the
+ * tests whose duration isn't known are expected to last as long as the
+ * other tests on average.</p>
+ *
+ * <p>A host is considered down once {@link #FAILURES_BEFORE_DOWN} tests in
+ * a row ended on it without running: Quality Center doesn't tell which
+ * hosts are up, and the messages of its scheduler depend on its version and
+ * on its language.</p>
+ *
+ * <p>This is what the REST engine uses; {@code runTestSet.vbs} does the
+ * same (see its {@code AssignHosts} and {@code IsHeldBack} functions).</p>
+ */
+public final class QualityCenterHostPool<T> {
+
+  /** Expected duration of the tests, in seconds, when none of them is known. */
+  public static int DEFAULT_DURATION = Integer.getInteger(QualityCenterHostPool.class.getName() + ".defaultDuration", 60);
+  /** How many tests in a row have to end without running on a host for it to be considered down. */
+  public static int FAILURES_BEFORE_DOWN = Integer.getInteger(QualityCenterHostPool.class.getName() + ".failuresBeforeDown", 2);
+
+  /** Host of each test. */
+  private final Map<T, String> hosts = new LinkedHashMap<T, String>();
+  /** Expected duration of the tests of each host, in seconds. */
+  private final Map<String, Long> loads = new LinkedHashMap<String, Long>();
+  /** Tests in a row which ended without running, by host. */
+  private final Map<String, Integer> failures = new HashMap<String, Integer>();
+
+  /**
+   * @param pool the hosts the tests can run on
+   * @param durations the expected duration of each test, in seconds,
+   *        {@code null} if unknown
+   */
+  public QualityCenterHostPool(List<String> pool, Map<T, Long> durations) {
+    if(pool.isEmpty()) {
+      throw new IllegalArgumentException("No host to run the tests on");
+    }
+
+    long known = 0;
+    int knownCount = 0;
+    for(Long duration : durations.values()) {
+      if(duration != null) {
+        known += duration;
+        knownCount++;
+      }
+    }
+    long unknown = knownCount > 0 ? known / knownCount : DEFAULT_DURATION;
+
+    final Map<T, Long> expected = new LinkedHashMap<T, Long>();
+    for(Map.Entry<T, Long> test : durations.entrySet()) {
+      expected.put(test.getKey(), test.getValue() != null ? test.getValue() : unknown);
+    }
+    List<T> tests = new ArrayList<T>(expected.keySet());
+    // the sort is stable: tests which last as long keep their order
+    Collections.sort(tests, new Comparator<T>() {
+      public int compare(T t1, T t2) {
+        return expected.get(t2).compareTo(expected.get(t1));
+      }
+    });
+
+    // hosts by expected end, the first ones of the pool first
+    final List<String> order = new ArrayList<String>(pool);
+    PriorityQueue<String> queue = new PriorityQueue<String>(pool.size(), new Comparator<String>() {
+      public int compare(String h1, String h2) {
+        int c = loads.get(h1).compareTo(loads.get(h2));
+        return c != 0 ? c : order.indexOf(h1) - order.indexOf(h2);
+      }
+    });
+    for(String host : pool) {
+      loads.put(host, 0L);
+      queue.add(host);
+    }
+    for(T test : tests) {
+      String host = queue.poll();
+      hosts.put(test, host);
+      loads.put(host, loads.get(host) + expected.get(test));
+      queue.add(host);
+    }
+  }
+
+  /**
+   * Parses a list of hosts separated by commas, semicolons or whitespaces,
+   * leaving out the duplicates.
+   */
+  public static List<String> parseHosts(String hosts) {
+    Set<String> pool = new LinkedHashSet<String>();
+    if(hosts != null) {
+      for(String host : hosts.split("[\\s,;]+")) {
+        if(host.length() > 0) {
+          pool.add(host);
+        }
+      }
+    }
+    return new ArrayList<String>(pool);
+  }
+
+  public String getHost(T test) {
+    return hosts.get(test);
+  }
+
+  /**
+   * Returns the expected duration of the tests given to each host, in
+   * seconds.
+   */
+  public Map<String, Long> getLoads() {
+    return Collections.unmodifiableMap(loads);
+  }
+
+  /**
+   * Returns the number of tests given to the given host.
+   */
+  public int getTestCount(String host) {
+    int count = 0;
+    for(String testHost : hosts.values()) {
+      if(testHost.equals(host)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Records whether a test which ended ran on its host, that is whether it
+   * passed or failed.
+   *
+   * @return {@code true} if its host is now considered down
+   */
+  public boolean recordOutcome(T test, boolean ran) {
+    String host = hosts.get(test);
+    if(host == null) {
+      return false;
+    }
+    boolean down = isDown(host);
+    Integer count = failures.get(host);
+    failures.put(host, ran ? 0 : (count != null ? count : 0) + 1);
+    return !down && isDown(host);
+  }
+
+  /**
+   * Returns whether {@link #FAILURES_BEFORE_DOWN} tests in a row ended on the
+   * given host without running.
+   */
+  public boolean isDown(String host) {
+    Integer count = failures.get(host);
+    return count != null && count >= FAILURES_BEFORE_DOWN;
+  }
+
+  /**
+   * Returns when all the hosts are expected to be done, in seconds.
+   */
+  public long getExpectedDuration() {
+    return loads.isEmpty() ? 0 : Collections.max(loads.values());
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lock taken while a tool is installed on a node.
+ *
+ * <p>When several builds start on a node where a tool isn't installed yet,
+ * they all call the installer at the same time. Only the first one installs
+ * the tool, the others wait for it to be done (printing their progress), and
+ * then find the tool installed.</p>
+ *
+ * <p>The installers run on the master, so a lock per node and installation
+ * directory is enough.</p>
+ */
+public final class QualityCenterInstallLock {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterInstallLock.class.getName());
+
+  /** How often a waiting build prints its progress, in seconds. */
+  public static int PROGRESS_INTERVAL = Integer.getInteger(QualityCenterInstallLock.class.getName() + ".progressInterval", 30);
+
+  private static final Map<String, QualityCenterInstallLock> LOCKS = new HashMap<String, QualityCenterInstallLock>();
+
+  private static long acquisitions;
+  private static long contentions;
+  private static long totalWaitTime;
+  private static long maxWaitTime;
+
+  private final String key;
+  private final ReentrantLock lock = new ReentrantLock();
+  /** When the installation currently running started. */
+  private volatile long installationStart;
+
+  private QualityCenterInstallLock(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Acquires the lock of the given installation directory, waiting for the
+   * installation which holds it, if any, to be done.
+   *
+   * <p>The lock must be released with {@link #release()}.</p>
+   */
+  public static QualityCenterInstallLock acquire(Node node, FilePath location, TaskListener log) throws InterruptedException {
+    return acquire(node.getNodeName() + ':' + location.getRemote(), location.getRemote(), node.getDisplayName(), log);
+  }
+
+  /**
+   * Acquires the lock of the given key, see
+   * {@link #acquire(Node, FilePath, TaskListener)}.
+   *
+   * @param location the installation directory, as printed
+   * @param nodeName the name of the node, as printed
+   */
+  static QualityCenterInstallLock acquire(String key, String location, String nodeName, TaskListener log) throws InterruptedException {
+    QualityCenterInstallLock installLock;
+    synchronized(LOCKS) {
+      installLock = LOCKS.get(key);
+      if(installLock == null) {
+        installLock = new QualityCenterInstallLock(key);
+        LOCKS.put(key, installLock);
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    boolean contended = false;
+    while(!installLock.lock.tryLock(contended ? PROGRESS_INTERVAL : 0, TimeUnit.SECONDS)) {
+      if(!contended) {
+        contended = true;
+        log.getLogger().println(Messages.QualityCenterInstallLock_Waiting(location, nodeName));
+      }
+      else {
+        log.getLogger().println(Messages.QualityCenterInstallLock_StillWaiting(
+                Util.getTimeSpanString(System.currentTimeMillis() - installLock.installationStart)));
+      }
+    }
+    installLock.installationStart = System.currentTimeMillis();
+
+    long waitTime = System.currentTimeMillis() - start;
+    synchronized(LOCKS) {
+      acquisitions++;
+      if(contended) {
+        contentions++;
+        totalWaitTime += waitTime;
+        maxWaitTime = Math.max(maxWaitTime, waitTime);
+      }
+    }
+    if(contended) {
+      log.getLogger().println(Messages.QualityCenterInstallLock_Waited(Util.getTimeSpanString(waitTime)));
+      LOGGER.log(Level.FINE, "Waited {0}ms for the lock of {1}", new Object[] {waitTime, key});
+    }
+    return installLock;
+  }
+
+  /**
+   * Releases the lock, letting the next waiting build go.
+   */
+  public void release() {
+    lock.unlock();
+  }
+
+  /** Number of times an installation lock has been acquired. */
+  public static long getAcquisitions() {
+    synchronized(LOCKS) {
+      return acquisitions;
+    }
+  }
+
+  /** Number of times an installation lock had to be waited for. */
+  public static long getContentions() {
+    synchronized(LOCKS) {
+      return contentions;
+    }
+  }
+
+  /** Total time spent waiting for the installation locks, in milliseconds. */
+  public static long getTotalWaitTime() {
+    synchronized(LOCKS) {
+      return totalWaitTime;
+    }
+  }
+
+  /** Longest time spent waiting for an installation lock, in milliseconds. */
+  public static long getMaxWaitTime() {
+    synchronized(LOCKS) {
+      return maxWaitTime;
+    }
+  }
+
+}
@@ -0,0 +1,337 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Hudson;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache, on the master, of the installers downloaded by the Quality Center
+ * client and QTP Add-in installers.
+ *
+ * <p>Without it, each node which needs a tool downloads the same installer
+ * from the Quality Center server (or from HP). Installers are now downloaded
+ * once into {@code $HUDSON_HOME/cache/qualitycenter} and copied from there to
+ * the nodes.</p>
+ *
+ * <p>The cache is content-addressed: Installers are stored under the SHA-256
+ * of their content (in {@code blobs}), and each URL points to one of them (in
+ * {@code urls}), along with the {@code ETag} and {@code Last-Modified}
+ * headers it has been served with, which are used to revalidate it. Once the
+ * cache gets bigger than {@link #MAX_SIZE}, the least recently used
+ * installers are evicted.</p>
+ */
+public final class QualityCenterInstallerCache {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterInstallerCache.class.getName());
+
+  /** Maximum size of the cache, in bytes. */
+  public static long MAX_SIZE = Long.getLong(QualityCenterInstallerCache.class.getName() + ".maxSize", 2L * 1024 * 1024 * 1024);
+  /** How long an installer is used without asking the server whether it changed, in milliseconds. */
+  public static long REVALIDATION_INTERVAL = Long.getLong(QualityCenterInstallerCache.class.getName() + ".revalidationInterval", TimeUnit.MINUTES.toMillis(10));
+
+  private static final String CACHE_DIR = "cache/qualitycenter";
+  private static final String BLOBS_DIR = "blobs";
+  private static final String URLS_DIR = "urls";
+  private static final String PARTS_DIR = "parts";
+
+  /** One lock per URL, so that an installer is only downloaded once at a time. */
+  private static final Map<String, Object> LOCKS = new HashMap<String, Object>();
+
+  private QualityCenterInstallerCache() {
+  }
+
+  /**
+   * Returns the installer available at the given URL, downloading it if it
+   * isn't in the cache yet or if it changed.
+   *
+   * @return the installer, on the master
+   */
+  public static FilePath get(URL url, TaskListener log) throws IOException, InterruptedException {
+    File dir = getCacheDir();
+    return new FilePath(getBlob(dir, getEntry(url, dir, log)));
+  }
+
+  /**
+   * Copies the installer available at the given URL to a node, then checks
+   * the copy against the cached installer.
+   *
+   * @param target the file, on the node, to copy the installer to
+   */
+  public static void copyTo(URL url, FilePath target, TaskListener log) throws IOException, InterruptedException {
+    File dir = getCacheDir();
+    Properties entry = getEntry(url, dir, log);
+    File blob = getBlob(dir, entry);
+    String md5 = entry.getProperty("md5");
+    if(md5 == null) {
+      md5 = QualityCenterInstallerDownloader.digest(blob, "MD5");
+    }
+
+    long start = System.currentTimeMillis();
+    target.copyFrom(new FilePath(blob));
+    // the MD5 is computed on the node
+    if(target.length() != blob.length() || !md5.equalsIgnoreCase(target.digest())) {
+      target.delete();
+      throw new IOException(Messages.QualityCenterInstallerCache_WrongChecksum(target.getRemote()));
+    }
+    log.getLogger().println(Messages.QualityCenterInstallerCache_Copied(
+            target.getRemote(), blob.length() / 1024, Util.getTimeSpanString(System.currentTimeMillis() - start)));
+  }
+
+  /**
+   * Returns the cache entry of the given URL, downloading the installer if
+   * needed.
+   *
+   * @param dir the directory of the cache
+   */
+  static Properties getEntry(URL url, File dir, TaskListener log) throws IOException, InterruptedException {
+    synchronized(getLock(url)) {
+      String key = digest("SHA-1", url.toExternalForm());
+      File entryFile = new File(new File(dir, URLS_DIR), key + ".properties");
+      Properties entry = load(entryFile);
+      if(entry != null && !getBlob(dir, entry).isFile()) {
+        // it has been evicted
+        entry = null;
+      }
+
+      long now = System.currentTimeMillis();
+      if(entry != null && now - Long.parseLong(entry.getProperty("validated", "0")) < REVALIDATION_INTERVAL) {
+        log.getLogger().println(Messages.QualityCenterInstallerCache_UsingCached(url));
+      }
+      else {
+        try {
+          Properties downloaded = download(url, key, entry, dir, log);
+          if(downloaded == null) {
+            log.getLogger().println(Messages.QualityCenterInstallerCache_NotModified(url));
+          }
+          else {
+            entry = downloaded;
+          }
+          entry.setProperty("validated", String.valueOf(now));
+          save(entry, entryFile);
+        }
+        catch(IOException ioe) {
+          if(entry == null) {
+            throw ioe;
+          }
+          // better use an installer which may be outdated than nothing at all
+          log.getLogger().println(Messages.QualityCenterInstallerCache_RevalidationFailed(url, ioe.getMessage()));
+        }
+      }
+
+      // the last modification date is used as the last access date
+      File blob = getBlob(dir, entry);
+      blob.setLastModified(now);
+      evict(dir, blob);
+      return entry;
+    }
+  }
+
+  static File getBlob(File dir, Properties entry) {
+    return new File(new File(dir, BLOBS_DIR), entry.getProperty("hash"));
+  }
+
+  /**
+   * Downloads the installer at the given URL into the cache, unless it didn't
+   * change since it was cached.
+   *
+   * @param key the key of the URL in the cache
+   * @param cached the cache entry of the URL, if any
+   * @return the new cache entry of the URL, {@code null} if it didn't change
+   */
+  private static Properties download(URL url, String key, Properties cached, File dir, TaskListener log) throws IOException, InterruptedException {
+    URLConnection cnx = QualityCenterInstallerDownloader.open(url);
+    if(cached != null) {
+      if(cached.getProperty("etag") != null) {
+        cnx.setRequestProperty("If-None-Match", cached.getProperty("etag"));
+      }
+      if(cached.getProperty("lastModified") != null) {
+        cnx.setRequestProperty("If-Modified-Since", cached.getProperty("lastModified"));
+      }
+    }
+
+    if(cnx instanceof HttpURLConnection) {
+      int status = ((HttpURLConnection) cnx).getResponseCode();
+      if(status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+        return null;
+      }
+      if(status != HttpURLConnection.HTTP_OK) {
+        throw new IOException(url + ": " + status + " " + ((HttpURLConnection) cnx).getResponseMessage());
+      }
+    }
+
+    log.getLogger().println(Messages.QualityCenterClientInstaller_Downloading(url));
+    File downloaded = new QualityCenterInstallerDownloader(url, new File(dir, PARTS_DIR), key, log).download(cnx);
+
+    // the same content may be served by several URLs: it's only stored once
+    File blobs = new File(dir, BLOBS_DIR);
+    blobs.mkdirs();
+    File blob = new File(blobs, QualityCenterInstallerDownloader.digest(downloaded, "SHA-256"));
+    synchronized(QualityCenterInstallerCache.class) {
+      if(blob.exists()) {
+        downloaded.delete();
+      }
+      else if(!downloaded.renameTo(blob)) {
+        downloaded.delete();
+        throw new IOException("Unable to move " + downloaded + " to " + blob);
+      }
+    }
+
+    Properties entry = new Properties();
+    entry.setProperty("url", url.toExternalForm());
+    entry.setProperty("hash", blob.getName());
+    entry.setProperty("md5", QualityCenterInstallerDownloader.digest(blob, "MD5"));
+    entry.setProperty("size", String.valueOf(blob.length()));
+    if(cnx.getHeaderField("ETag") != null) {
+      entry.setProperty("etag", cnx.getHeaderField("ETag"));
+    }
+    if(cnx.getHeaderField("Last-Modified") != null) {
+      entry.setProperty("lastModified", cnx.getHeaderField("Last-Modified"));
+    }
+    return entry;
+  }
+
+  /**
+   * Evicts the least recently used installers until the cache is small enough.
+   *
+   * @param inUse the installer which is about to be used, which is never evicted
+   */
+  private static synchronized void evict(File dir, File inUse) {
+    File[] blobs = new File(dir, BLOBS_DIR).listFiles();
+    if(blobs == null) {
+      return;
+    }
+
+    long size = 0;
+    for(File blob : blobs) {
+      size += blob.length();
+    }
+    if(size <= MAX_SIZE) {
+      return;
+    }
+
+    Arrays.sort(blobs, new Comparator<File>() {
+      public int compare(File f1, File f2) {
+        return f1.lastModified() < f2.lastModified() ? -1 : (f1.lastModified() == f2.lastModified() ? 0 : 1);
+      }
+    });
+    for(File blob : blobs) {
+      if(size <= MAX_SIZE) {
+        break;
+      }
+      if(blob.equals(inUse)) {
+        continue;
+      }
+      long length = blob.length();
+      if(blob.delete()) {
+        LOGGER.log(Level.INFO, "Evicted {0} from the Quality Center installer cache", blob.getName());
+        size -= length;
+      }
+    }
+  }
+
+  private static File getCacheDir() {
+    return new File(Hudson.getInstance().getRootDir(), CACHE_DIR);
+  }
+
+  private static Object getLock(URL url) {
+    synchronized(LOCKS) {
+      Object lock = LOCKS.get(url.toExternalForm());
+      if(lock == null) {
+        lock = new Object();
+        LOCKS.put(url.toExternalForm(), lock);
+      }
+      return lock;
+    }
+  }
+
+  private static Properties load(File entryFile) {
+    if(!entryFile.isFile()) {
+      return null;
+    }
+    Properties entry = new Properties();
+    try {
+      InputStream in = new FileInputStream(entryFile);
+      try {
+        entry.load(in);
+      }
+      finally {
+        in.close();
+      }
+      return entry.getProperty("hash") != null ? entry : null;
+    }
+    catch(IOException ioe) {
+      LOGGER.log(Level.WARNING, "Unable to read " + entryFile, ioe);
+      return null;
+    }
+  }
+
+  private static void save(Properties entry, File entryFile) throws IOException {
+    entryFile.getParentFile().mkdirs();
+    OutputStream out = new FileOutputStream(entryFile);
+    try {
+      entry.store(out, null);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static String digest(String algorithm, String value) {
+    try {
+      return Util.toHexString(MessageDigest.getInstance(algorithm).digest(value.getBytes("UTF-8")));
+    }
+    catch(UnsupportedEncodingException e) {
+      throw new AssertionError(e);
+    }
+    catch(NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+}
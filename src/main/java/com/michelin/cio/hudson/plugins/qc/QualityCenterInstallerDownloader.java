@@ -0,0 +1,393 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import hudson.model.TaskListener;
+import hudson.remoting.Base64;
+import hudson.util.DaemonThreadFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Downloads an installer into the {@link QualityCenterInstallerCache}.
+ *
+ * <p>When the server accepts byte ranges, big installers are downloaded
+ * through several connections, and a download which has been interrupted is
+ * resumed where it stopped, rather than started all over again: The parts
+ * which have already been downloaded are kept next to the cache, until the
+ * installer changes on the server. The downloaded installer is checked
+ * against the size (and, if given, the MD5) announced by the server.</p>
+ */
+final class QualityCenterInstallerDownloader {
+
+  /** Number of connections used to download a big installer. */
+  public static int CONNECTIONS = Integer.getInteger(QualityCenterInstallerDownloader.class.getName() + ".connections", 4);
+  /** Size from which an installer is downloaded through several connections, in bytes. */
+  public static long PARALLEL_THRESHOLD = Long.getLong(QualityCenterInstallerDownloader.class.getName() + ".parallelThreshold", 16L * 1024 * 1024);
+  /** Number of times the download of a part is resumed after a failure. */
+  public static int RETRIES = Integer.getInteger(QualityCenterInstallerDownloader.class.getName() + ".retries", 3);
+  /** Connect and read timeout, in milliseconds. */
+  public static int TIMEOUT = Integer.getInteger(QualityCenterInstallerDownloader.class.getName() + ".timeout", (int) TimeUnit.SECONDS.toMillis(60));
+
+  private final URL url;
+  private final File partsDir;
+  private final String key;
+  private final TaskListener log;
+
+  private long length = -1;
+  /** {@code ETag} or {@code Last-Modified} header of the installer, used to resume. */
+  private String validator;
+  private boolean acceptRanges;
+
+  /**
+   * @param partsDir the directory where the parts being downloaded are kept
+   * @param key the name, unique to {@code url}, of the parts
+   */
+  QualityCenterInstallerDownloader(URL url, File partsDir, String key, TaskListener log) {
+    this.url = url;
+    this.partsDir = partsDir;
+    this.key = key;
+    this.log = log;
+  }
+
+  /**
+   * Opens a connection to the given URL with the download timeouts set.
+   */
+  static URLConnection open(URL url) throws IOException {
+    URLConnection cnx = ProxyConfiguration.open(url);
+    cnx.setConnectTimeout(TIMEOUT);
+    cnx.setReadTimeout(TIMEOUT);
+    return cnx;
+  }
+
+  /**
+   * Downloads the installer.
+   *
+   * @param cnx the connection to the installer, which has been answered with
+   *        a {@code 200}
+   * @return the downloaded installer, which the caller has to move or delete
+   */
+  File download(URLConnection cnx) throws IOException, InterruptedException {
+    String contentLength = cnx.getHeaderField("Content-Length");
+    length = contentLength != null ? Long.parseLong(contentLength.trim()) : -1;
+    validator = cnx.getHeaderField("ETag") != null ? cnx.getHeaderField("ETag") : cnx.getHeaderField("Last-Modified");
+    acceptRanges = length > 0 && validator != null && "bytes".equalsIgnoreCase(cnx.getHeaderField("Accept-Ranges"));
+    String contentMD5 = cnx.getHeaderField("Content-MD5");
+
+    partsDir.mkdirs();
+    discardPartsIfChanged();
+
+    long start = System.currentTimeMillis();
+    List<File> parts = new ArrayList<File>();
+    int connections = acceptRanges && length >= PARALLEL_THRESHOLD ? Math.max(1, CONNECTIONS) : 1;
+    if(connections == 1) {
+      File part = getPart(0);
+      if(part.length() > 0 && acceptRanges) {
+        log.getLogger().println(Messages.QualityCenterInstallerCache_Resuming(url, String.valueOf(part.length())));
+      }
+      downloadPart(part, 0, length - 1, cnx);
+      parts.add(part);
+    }
+    else {
+      // The first connection isn't used: Each part uses its own range request
+      if(cnx instanceof HttpURLConnection) {
+        ((HttpURLConnection) cnx).disconnect();
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(connections, new DaemonThreadFactory());
+      try {
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        long partLength = (length + connections - 1) / connections;
+        for(int i = 0; i < connections; i++) {
+          final File part = getPart(i);
+          final long first = i * partLength;
+          final long last = Math.min(length, first + partLength) - 1;
+          if(part.length() > 0 && first + part.length() <= last) {
+            log.getLogger().println(Messages.QualityCenterInstallerCache_Resuming(url, String.valueOf(first + part.length())));
+          }
+          futures.add(executor.submit(new Callable<Void>() {
+            public Void call() throws Exception {
+              downloadPart(part, first, last, null);
+              return null;
+            }
+          }));
+          parts.add(part);
+        }
+        for(Future<?> future : futures) {
+          try {
+            future.get();
+          }
+          catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) {
+              throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+          }
+        }
+      }
+      finally {
+        executor.shutdownNow();
+      }
+    }
+    long duration = System.currentTimeMillis() - start;
+
+    File installer = assemble(parts, contentMD5);
+    log.getLogger().println(Messages.QualityCenterInstallerCache_Downloaded(
+            url, installer.length() / 1024, Util.getTimeSpanString(duration),
+            installer.length() / 1024 * 1000 / Math.max(1, duration), connections));
+    return installer;
+  }
+
+  /**
+   * Downloads the bytes {@code first} to {@code last} (both included) of the
+   * installer into the given part, resuming it if it isn't empty.
+   *
+   * @param last {@code -1} if the length of the installer isn't known
+   * @param cnx the connection to use for the first attempt, if any
+   */
+  private void downloadPart(File part, long first, long last, URLConnection cnx) throws IOException, InterruptedException {
+    for(int attempt = 0; ; attempt++) {
+      long done = part.length();
+      if(last >= 0 && first + done > last) {
+        return;
+      }
+
+      try {
+        if(cnx == null || done > 0) {
+          if(cnx instanceof HttpURLConnection) {
+            ((HttpURLConnection) cnx).disconnect();
+          }
+          if(!acceptRanges && done > 0) {
+            // can't resume
+            part.delete();
+            done = 0;
+          }
+          cnx = open(url);
+          if(acceptRanges) {
+            cnx.setRequestProperty("Range", "bytes=" + (first + done) + "-" + last);
+            cnx.setRequestProperty("If-Range", validator);
+          }
+        }
+
+        if(cnx instanceof HttpURLConnection) {
+          int status = ((HttpURLConnection) cnx).getResponseCode();
+          if(status == HttpURLConnection.HTTP_OK) {
+            if(first > 0) {
+              throw new IOException(Messages.QualityCenterInstallerCache_ChangedWhileDownloading(url));
+            }
+            // the whole installer is sent again
+            done = 0;
+          }
+          else if(status != HttpURLConnection.HTTP_PARTIAL) {
+            throw new IOException(url + ": " + status + " " + ((HttpURLConnection) cnx).getResponseMessage());
+          }
+        }
+
+        InputStream in = cnx.getInputStream();
+        try {
+          OutputStream out = new FileOutputStream(part, done > 0);
+          try {
+            copy(in, out, last >= 0 ? last - first + 1 - done : Long.MAX_VALUE);
+          }
+          finally {
+            out.close();
+          }
+        }
+        finally {
+          in.close();
+        }
+
+        if(last < 0 || first + part.length() > last) {
+          return;
+        }
+        throw new IOException(Messages.QualityCenterInstallerCache_Truncated(url));
+      }
+      catch(IOException ioe) {
+        if(attempt >= RETRIES) {
+          throw ioe;
+        }
+        log.getLogger().println(Messages.QualityCenterInstallerCache_Retrying(url, ioe.getMessage(), attempt + 1));
+        Thread.sleep(TimeUnit.SECONDS.toMillis(1L << attempt));
+      }
+      finally {
+        if(cnx instanceof HttpURLConnection) {
+          ((HttpURLConnection) cnx).disconnect();
+        }
+        cnx = null;
+      }
+    }
+  }
+
+  /**
+   * Copies at most {@code max} bytes.
+   */
+  private static void copy(InputStream in, OutputStream out, long max) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    int read;
+    while(max > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, max))) >= 0) {
+      out.write(buffer, 0, read);
+      max -= read;
+    }
+  }
+
+  /**
+   * Puts the parts together into the installer, checking its size and MD5.
+   */
+  private File assemble(List<File> parts, String contentMD5) throws IOException {
+    File installer = new File(partsDir, key + ".download");
+    OutputStream out = new FileOutputStream(installer);
+    try {
+      for(File part : parts) {
+        InputStream in = new FileInputStream(part);
+        try {
+          IOUtils.copyLarge(in, out);
+        }
+        finally {
+          in.close();
+        }
+      }
+    }
+    finally {
+      out.close();
+    }
+    discardParts();
+
+    try {
+      if(length >= 0 && installer.length() != length) {
+        throw new IOException(Messages.QualityCenterInstallerCache_WrongSize(url, installer.length(), length));
+      }
+      if(contentMD5 != null) {
+        String md5 = Util.toHexString(Base64.decode(contentMD5.trim()));
+        if(!md5.equalsIgnoreCase(digest(installer, "MD5"))) {
+          throw new IOException(Messages.QualityCenterInstallerCache_WrongChecksum(url));
+        }
+      }
+    }
+    catch(IOException ioe) {
+      installer.delete();
+      throw ioe;
+    }
+    return installer;
+  }
+
+  /**
+   * Discards the parts downloaded by a previous attempt if the installer
+   * changed since then, or if they can't be resumed.
+   */
+  private void discardPartsIfChanged() throws IOException {
+    File stateFile = new File(partsDir, key + ".parts");
+    Properties state = new Properties();
+    if(stateFile.isFile()) {
+      InputStream in = new FileInputStream(stateFile);
+      try {
+        state.load(in);
+      }
+      finally {
+        in.close();
+      }
+    }
+
+    if(!acceptRanges
+            || !validator.equals(state.getProperty("validator"))
+            || !String.valueOf(length).equals(state.getProperty("length"))
+            || !String.valueOf(CONNECTIONS).equals(state.getProperty("connections"))) {
+      discardParts();
+      if(acceptRanges) {
+        state.setProperty("validator", validator);
+        state.setProperty("length", String.valueOf(length));
+        state.setProperty("connections", String.valueOf(CONNECTIONS));
+        OutputStream out = new FileOutputStream(stateFile);
+        try {
+          state.store(out, url.toExternalForm());
+        }
+        finally {
+          out.close();
+        }
+      }
+    }
+  }
+
+  private void discardParts() {
+    File[] files = partsDir.listFiles();
+    if(files != null) {
+      for(File file : files) {
+        if(file.getName().startsWith(key + ".part")) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  private File getPart(int index) {
+    return new File(partsDir, key + ".part" + index);
+  }
+
+  /**
+   * Returns the hexadecimal digest of the given file.
+   */
+  static String digest(File file, String algorithm) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(algorithm);
+    }
+    catch(NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    byte[] buffer = new byte[64 * 1024];
+    InputStream in = new FileInputStream(file);
+    try {
+      int read;
+      while((read = in.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    finally {
+      in.close();
+    }
+    return Util.toHexString(digest.digest());
+  }
+
+}
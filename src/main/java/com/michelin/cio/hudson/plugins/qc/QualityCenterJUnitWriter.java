@@ -0,0 +1,361 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes a JUnit report, one test case at a time.
+ *
+ * <p>Each test case is written as soon as its result is known, so that the
+ * memory used doesn't depend on the number of tests, nor on the length of
+ * their failure details. As the counters of the {@code <testsuite>} element
+ * are only known at the end, the test cases are written to a side file
+ * (next to the report) which is appended to the report when the writer is
+ * closed.</p>
+ *
+ * <p>The report can also be written while the test set is still running
+ * (see {@link #checkpoint}), so that the results of the tests which already
+ * ended aren't lost if the run is killed: Only the test cases written since
+ * the previous checkpoint are then appended to it, with the counters of the
+ * {@code <testsuite>} element padded so that they can be updated in place.
+ * The report is written from scratch once, when the writer is closed.</p>
+ *
+ * <p>The report has the same layout as the one written by
+ * {@code runTestSet.vbs}, but names and messages are escaped rather than
+ * stripped of the XML special characters.</p>
+ */
+public class QualityCenterJUnitWriter implements Closeable {
+
+  private static final String ENCODING = "UTF-8";
+  private static final String EOL = "\r\n";
+  /** Suffix of the side file containing the test cases while they're written. */
+  static final String PART_SUFFIX = ".part";
+  /** Suffix of the file the report is written to before replacing the previous one. */
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final String FOOTER = "</testsuite>";
+
+  private final File report;
+  private final File part;
+  private final String hostName;
+  private final String suiteName;
+  private final String timestamp;
+  private final Writer body;
+
+  private int tests;
+  private int failures;
+  private int errors;
+  /** Total duration, in seconds. */
+  private long time;
+  private boolean closed;
+  /** The report while the test set is running, {@code null} until the first checkpoint. */
+  private RandomAccessFile progress;
+  /** How much of the side file has been appended to the report so far. */
+  private long saved;
+
+  /**
+   * @param report the report to be written
+   * @param hostName the value of the {@code hostname} attribute of the test suite
+   * @param suiteName the name of the test suite, which is also the class
+   *        name of its test cases
+   */
+  public QualityCenterJUnitWriter(File report, String hostName, String suiteName) throws IOException {
+    this.report = report.getAbsoluteFile();
+    this.part = new File(this.report.getPath() + PART_SUFFIX);
+    this.hostName = hostName;
+    this.suiteName = suiteName;
+    this.timestamp = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date());
+
+    this.report.getParentFile().mkdirs();
+    this.body = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(part), ENCODING));
+  }
+
+  public synchronized void writeTestCase(QualityCenterTestInstance test) throws IOException {
+    tests++;
+    time += test.getDuration();
+    if(!test.isPassed()) {
+      failures++;
+    }
+    writeTestCase(body, test);
+  }
+
+  private void writeTestCase(Writer w, QualityCenterTestInstance test) throws IOException {
+    w.write("\t<testcase classname=\"");
+    writeEscaped(w, suiteName);
+    w.write("\" name=\"");
+    writeEscaped(w, test.getName());
+    w.write("\" time=\"" + test.getDuration() + ".0\">" + EOL);
+    if(!test.isPassed()) {
+      w.write("\t\t<failure message=\"");
+      writeEscaped(w, test.getFailureMessage());
+      w.write("\" type=\"");
+      writeEscaped(w, test.getStatus());
+      w.write("\">" + EOL);
+      w.write("<![CDATA[");
+      // the tests which didn't run (yet) have no details
+      writeCData(w, test.getFailureDetails() != null ? test.getStatus() + " : " + test.getFailureDetails() : test.getStatus());
+      w.write("]]>" + EOL);
+      w.write("</failure>" + EOL);
+    }
+    w.write("\t</testcase>" + EOL);
+  }
+
+  /**
+   * Reports an error which prevented the test set from being run.
+   */
+  public synchronized void writeError(String message) throws IOException {
+    errors++;
+    body.write("\t<error message=\"");
+    writeEscaped(body, message);
+    body.write("\" type=\"fatal\">" + EOL + "\t\t");
+    writeEscaped(body, message);
+    body.write(EOL + "\t</error>");
+  }
+
+  public int getTests() {
+    return tests;
+  }
+
+  public int getFailures() {
+    return failures;
+  }
+
+  public int getErrors() {
+    return errors;
+  }
+
+  /**
+   * Appends the test cases written since the previous checkpoint to the
+   * report, and updates its counters.
+   */
+  public synchronized void checkpoint() throws IOException {
+    body.flush();
+    if(progress == null) {
+      progress = new RandomAccessFile(report, "rw");
+      progress.setLength(0);
+    }
+    else {
+      // the new test cases replace the end of the test suite
+      progress.seek(progress.length() - FOOTER.length());
+    }
+    // the header always has the same length
+    long end = Math.max(progress.getFilePointer(), getHeader(true).length);
+
+    RandomAccessFile in = new RandomAccessFile(part, "r");
+    try {
+      in.seek(saved);
+      progress.seek(end);
+      byte[] buffer = new byte[8192];
+      int read;
+      while((read = in.read(buffer)) != -1) {
+        progress.write(buffer, 0, read);
+        saved += read;
+      }
+    }
+    finally {
+      in.close();
+    }
+    progress.write(FOOTER.getBytes(ENCODING));
+    progress.setLength(progress.getFilePointer());
+
+    progress.seek(0);
+    progress.write(getHeader(true));
+  }
+
+  /**
+   * Writes the report itself.
+   */
+  public synchronized void close() throws IOException {
+    if(closed) {
+      return;
+    }
+    closed = true;
+    body.close();
+    if(progress != null) {
+      progress.close();
+    }
+
+    try {
+      writeReport();
+    }
+    finally {
+      part.delete();
+    }
+  }
+
+  /**
+   * The report is written to a temporary file first, so that the previous
+   * version of the report remains until the new one is complete.
+   */
+  private void writeReport() throws IOException {
+    File temp = new File(report.getPath() + TEMP_SUFFIX);
+    OutputStream out = new FileOutputStream(temp);
+    Writer w = new BufferedWriter(new OutputStreamWriter(out, ENCODING));
+    try {
+      // nothing has been buffered by the writer yet
+      out.write(getHeader(false));
+      Reader r = new InputStreamReader(new FileInputStream(part), ENCODING);
+      try {
+        char[] buffer = new char[8192];
+        int read;
+        while((read = r.read(buffer)) != -1) {
+          w.write(buffer, 0, read);
+        }
+      }
+      finally {
+        r.close();
+      }
+
+      w.write(FOOTER);
+    }
+    finally {
+      w.close();
+    }
+
+    // renameTo() doesn't replace existing files on Windows
+    if(!temp.renameTo(report) && !(report.delete() && temp.renameTo(report))) {
+      throw new IOException("Unable to write " + report);
+    }
+  }
+
+  /**
+   * Ends a report which {@code runTestSet.vbs} was still appending test
+   * cases to when it was stopped, so that the tests which already ended can
+   * be archived: Whatever follows the last complete test case is dropped.
+   */
+  static void endReport(File report) throws IOException {
+    if(!report.exists()) {
+      return;
+    }
+    String xml = FileUtils.readFileToString(report, ENCODING);
+    if(xml.endsWith(FOOTER)) {
+      return;
+    }
+
+    String lastTestCase = "</testcase>" + EOL;
+    int end = xml.lastIndexOf(lastTestCase);
+    if(end >= 0) {
+      end += lastTestCase.length();
+    }
+    else {
+      // no test ended
+      end = xml.indexOf('>', Math.max(xml.indexOf("<testsuite"), 0));
+      if(end < 0) {
+        return;
+      }
+      end++;
+    }
+    FileUtils.writeStringToFile(report, xml.substring(0, end) + FOOTER, ENCODING);
+  }
+
+  /**
+   * Returns the beginning of the report, up to the {@code <testsuite>}
+   * element.
+   *
+   * @param padded whether the counters are padded with zeros, so that the
+   *        header keeps the same length whatever their values
+   */
+  private byte[] getHeader(boolean padded) throws IOException {
+    String format = padded ? "%010d" : "%d";
+    StringWriter w = new StringWriter();
+    w.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" + EOL);
+    w.write("<testsuite errors=\"" + String.format(format, errors) + "\" failures=\"" + String.format(format, failures) + "\" hostname=\"");
+    writeEscaped(w, hostName);
+    w.write("\" name=\"");
+    writeEscaped(w, suiteName);
+    w.write("\" tests=\"" + String.format(format, tests) + "\" time=\"" + String.format(format, time) + ".0\" timestamp=\"" + timestamp + "\">");
+    return w.toString().getBytes(ENCODING);
+  }
+
+  /**
+   * Writes a value to be used as an attribute value or as text.
+   */
+  static void writeEscaped(Writer w, String value) throws IOException {
+    if(value == null) {
+      return;
+    }
+    for(int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch(c) {
+        case '<': w.write("&lt;"); break;
+        case '>': w.write("&gt;"); break;
+        case '&': w.write("&amp;"); break;
+        case '"': w.write("&quot;"); break;
+        case '\'': w.write("&apos;"); break;
+        // line breaks and tabs would be normalized in attribute values
+        case '\n': w.write("&#10;"); break;
+        case '\r': w.write("&#13;"); break;
+        case '\t': w.write("&#9;"); break;
+        default:
+          if(isValidXmlChar(c)) {
+            w.write(c);
+          }
+      }
+    }
+  }
+
+  /**
+   * Writes the content of a CDATA section.
+   */
+  static void writeCData(Writer w, String value) throws IOException {
+    int length = value.length();
+    for(int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if(c == ']' && value.startsWith("]]>", i)) {
+        // ]]> can't appear in a CDATA section
+        w.write("]]]]><![CDATA[>");
+        i += 2;
+      }
+      else if(isValidXmlChar(c) || c == '\t' || c == '\n' || c == '\r') {
+        w.write(c);
+      }
+    }
+  }
+
+  /**
+   * Control characters (such as the ones which can be found in the
+   * description of the steps) aren't allowed in XML 1.0 documents.
+   */
+  private static boolean isValidXmlChar(char c) {
+    return c >= 0x20 && c != 0xFFFE && c != 0xFFFF;
+  }
+
+}
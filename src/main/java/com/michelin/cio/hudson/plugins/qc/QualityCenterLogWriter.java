@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the output of a TestSet to the build log, line by line, at a bounded
+ * rate if asked to: Up to {@link #BURST} lines can be written at once, and
+ * then up to {@link #LINES_PER_SECOND} lines per second. The lines exceeding
+ * this rate are omitted, which is reported in the log as soon as lines can be
+ * written again.
+ *
+ * <p>The number of lines and bytes written and omitted is counted, so that
+ * it can be reported once the TestSet has been run.</p>
+ */
+public class QualityCenterLogWriter {
+
+  /** {@code 0} or less to write all the lines. */
+  public static int LINES_PER_SECOND = Integer.getInteger(QualityCenterLogWriter.class.getName() + ".linesPerSecond", 50);
+  public static int BURST = Integer.getInteger(QualityCenterLogWriter.class.getName() + ".burst", 1000);
+
+  private final OutputStream out;
+  /** Whether the lines exceeding the rate are omitted. */
+  private final boolean limited;
+  /** How many lines can be written right now. */
+  private double allowance = BURST;
+  private long lastCheck = System.nanoTime();
+  private long lines;
+  private long bytes;
+  private long omittedLines;
+  private long omittedBytes;
+  /** Lines omitted since the last time this was reported. */
+  private long unreportedLines;
+  private long unreportedBytes;
+
+  /**
+   * @param limited {@code false} to write all the lines whatever the rate
+   */
+  public QualityCenterLogWriter(OutputStream out, boolean limited) {
+    this.out = out;
+    this.limited = limited;
+  }
+
+  /**
+   * Writes a line (including its end of line), unless the rate is exceeded.
+   */
+  public synchronized void write(byte[] b, int len) throws IOException {
+    if(limited && LINES_PER_SECOND > 0) {
+      long now = System.nanoTime();
+      allowance = Math.min(BURST, allowance + LINES_PER_SECOND * (double) (now - lastCheck) / TimeUnit.SECONDS.toNanos(1));
+      lastCheck = now;
+      if(allowance < 1) {
+        omittedLines++;
+        omittedBytes += len;
+        unreportedLines++;
+        unreportedBytes += len;
+        return;
+      }
+      allowance--;
+    }
+    writeAlways(b, len);
+  }
+
+  /**
+   * Writes a line (including its end of line) whatever the rate, for the
+   * lines which can't be omitted.
+   */
+  public synchronized void writeAlways(byte[] b, int len) throws IOException {
+    reportOmittedLines();
+    writeLine(b, len);
+  }
+
+  /**
+   * Reports the lines omitted since the last time lines were written, if any.
+   */
+  public synchronized void close() throws IOException {
+    reportOmittedLines();
+  }
+
+  private void reportOmittedLines() throws IOException {
+    if(unreportedLines > 0) {
+      byte[] notice = (Messages.QualityCenter_LinesOmitted(unreportedLines, unreportedBytes / 1024) + '\n').getBytes();
+      unreportedLines = 0;
+      unreportedBytes = 0;
+      writeLine(notice, notice.length);
+    }
+  }
+
+  private void writeLine(byte[] b, int len) throws IOException {
+    // lines are written at once so that they don't get mixed with the ones of
+    // the other TestSets
+    synchronized(out) {
+      out.write(b, 0, len);
+      out.flush();
+    }
+    lines++;
+    bytes += len;
+  }
+
+  public synchronized long getLines() {
+    return lines;
+  }
+
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized long getOmittedLines() {
+    return omittedLines;
+  }
+
+  public synchronized long getOmittedBytes() {
+    return omittedBytes;
+  }
+
+}
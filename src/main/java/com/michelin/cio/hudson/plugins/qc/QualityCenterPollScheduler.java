@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the execution state of a test set has to be polled.
+ *
+ * <p>Polls are frequent right after the execution has started (so that
+ * short test sets, or test sets which can't be run, are detected quickly)
+ * and around the time the execution is expected to end, based on the
+ * duration of the previous runs. In between, the interval grows so that the
+ * Quality Center server isn't polled needlessly during long executions.</p>
+ *
+ * <p>The timeout is based on the wall clock, not on the number of polls.</p>
+ */
+public class QualityCenterPollScheduler {
+
+  /** Shortest interval between two polls, in milliseconds. */
+  static final long MIN_INTERVAL = 2 * 1000;
+  /** Longest interval between two polls, in milliseconds. */
+  static final long MAX_INTERVAL = 30 * 1000;
+  /** How long polls remain frequent after the start of the execution, in milliseconds. */
+  static final long FAST_PHASE = 30 * 1000;
+  /** Factor applied to the interval after each poll outside of the fast phases. */
+  private static final double BACKOFF = 1.5;
+
+  private final Clock clock;
+  private final long start;
+  private final long deadline;
+  /** Expected duration of the execution, in milliseconds ({@code 0} if unknown). */
+  private final long expectedDuration;
+  private long interval = MIN_INTERVAL;
+
+  private int pollCount;
+  private long totalLatency;
+  private long maxLatency;
+
+  /**
+   * @param timeout the timeout, in milliseconds
+   * @param expectedDuration the expected duration of the execution, in
+   *        milliseconds ({@code 0} if unknown)
+   */
+  public QualityCenterPollScheduler(long timeout, long expectedDuration) {
+    this(timeout, expectedDuration, Clock.SYSTEM);
+  }
+
+  QualityCenterPollScheduler(long timeout, long expectedDuration, Clock clock) {
+    this.clock = clock;
+    this.start = clock.now();
+    this.deadline = start + timeout;
+    this.expectedDuration = Math.max(0, expectedDuration);
+  }
+
+  public boolean hasTimedOut() {
+    return clock.now() >= deadline;
+  }
+
+  /**
+   * Records the time it took to get the execution state once.
+   */
+  public void recordPoll(long latency) {
+    pollCount++;
+    totalLatency += latency;
+    maxLatency = Math.max(maxLatency, latency);
+  }
+
+  /**
+   * Waits until the next poll, or until the timeout is reached.
+   */
+  public void waitForNextPoll() throws InterruptedException {
+    long now = clock.now();
+    long delay = Math.min(nextDelay(now - start), deadline - now);
+    if(delay > 0) {
+      clock.sleep(delay);
+    }
+  }
+
+  /**
+   * @param elapsed the time elapsed since the start of the execution
+   */
+  long nextDelay(long elapsed) {
+    if(elapsed < FAST_PHASE) {
+      return MIN_INTERVAL;
+    }
+
+    if(expectedDuration > 0) {
+      // the execution is expected to end within this window
+      long window = Math.max(FAST_PHASE, expectedDuration / 10);
+      long windowStart = expectedDuration - window;
+      if(elapsed >= windowStart && elapsed < expectedDuration + window) {
+        interval = MIN_INTERVAL;
+        return interval;
+      }
+      if(elapsed < windowStart) {
+        // don't sleep past the beginning of the window
+        interval = Math.min((long) (interval * BACKOFF), MAX_INTERVAL);
+        return Math.max(MIN_INTERVAL, Math.min(interval, windowStart - elapsed));
+      }
+    }
+
+    interval = Math.min((long) (interval * BACKOFF), MAX_INTERVAL);
+    return interval;
+  }
+
+  public int getPollCount() {
+    return pollCount;
+  }
+
+  /**
+   * @return the average time it took to get the execution state, in milliseconds
+   */
+  public long getAverageLatency() {
+    return pollCount > 0 ? totalLatency / pollCount : 0;
+  }
+
+  /**
+   * @return the longest time it took to get the execution state, in milliseconds
+   */
+  public long getMaxLatency() {
+    return maxLatency;
+  }
+
+  /**
+   * Where the time is read from, and waited for.
+   */
+  interface Clock {
+
+    /** Based on {@link System#nanoTime()}, which isn't changed by the system clock updates. */
+    Clock SYSTEM = new Clock() {
+      public long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+      }
+      public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+      }
+    };
+
+    /**
+     * @return the current time, in milliseconds
+     */
+    long now();
+
+    void sleep(long millis) throws InterruptedException;
+
+  }
+
+}
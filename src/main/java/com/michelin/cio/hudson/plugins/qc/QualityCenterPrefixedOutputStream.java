@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.console.LineTransformationOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Prefixes each line written to the underlying stream, so that the outputs of
+ * TestSets which are run concurrently can be told apart in the build log.
+ */
+public class QualityCenterPrefixedOutputStream extends LineTransformationOutputStream {
+
+  private final OutputStream out;
+  private volatile byte[] prefix;
+
+  public QualityCenterPrefixedOutputStream(OutputStream out, String prefix) {
+    this.out = out;
+    setPrefix(prefix);
+  }
+
+  /**
+   * Changes the prefix of the next lines, when the stream is shared by
+   * TestSets which are run one after the other.
+   */
+  public void setPrefix(String prefix) {
+    this.prefix = ('[' + prefix + "] ").getBytes();
+  }
+
+  @Override
+  protected void eol(byte[] b, int len) throws IOException {
+    byte[] prefix = this.prefix;
+    byte[] line = new byte[prefix.length + len];
+    System.arraycopy(prefix, 0, line, 0, prefix.length);
+    System.arraycopy(b, 0, line, prefix.length, len);
+
+    // lines are written at once so that they don't get mixed with the ones of
+    // the other TestSets
+    synchronized(out) {
+      out.write(line);
+      out.flush();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+}
@@ -0,0 +1,343 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import com.michelin.cio.hudson.plugins.qc.client.QualityCenterClientInstallation;
+import com.michelin.cio.hudson.plugins.qc.qtpaddins.QualityCenterQTPAddinsInstallation;
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Hudson;
+import hudson.model.ManagementLink;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+/**
+ * Installs the Quality Center client and the QTP Add-in on the nodes ahead
+ * of time.
+ *
+ * <p>Otherwise, they are installed by the first build which needs them on a
+ * node, which then takes several more minutes. The installations are run
+ * when a node comes online, periodically (to catch configuration changes) and
+ * on demand from the <i>Manage Hudson</i> page, on {@link #CONCURRENCY} nodes
+ * at most at the same time. Since the {@link QualityCenterToolRegistry}
+ * remembers the nodes where the tools have already been found, nodes are
+ * only checked once.</p>
+ */
+public final class QualityCenterPrewarm {
+
+  private static final Logger LOGGER = Logger.getLogger(QualityCenterPrewarm.class.getName());
+
+  /** Maximum number of nodes the tools are installed on at the same time. */
+  public static int CONCURRENCY = Integer.getInteger(QualityCenterPrewarm.class.getName() + ".concurrency", 4);
+  /** How often the tools are installed on all the online nodes, in minutes ({@code 0} to disable). */
+  public static long RECURRENCE_PERIOD = Long.getLong(QualityCenterPrewarm.class.getName() + ".recurrencePeriod", TimeUnit.HOURS.toMinutes(6));
+  /** Whether the tools are installed on the nodes as soon as they come online. */
+  public static boolean ON_ONLINE = !Boolean.getBoolean(QualityCenterPrewarm.class.getName() + ".disableOnOnline");
+
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.max(1, CONCURRENCY), new DaemonThreadFactory());
+
+  /** Status by node name. */
+  private static final Map<String, Status> STATUSES = new ConcurrentHashMap<String, Status>();
+
+  private QualityCenterPrewarm() {
+  }
+
+  /**
+   * Installs the tools on all the online nodes.
+   */
+  public static void prewarmAll() {
+    for(Computer computer : Hudson.getInstance().getComputers()) {
+      prewarm(computer);
+    }
+  }
+
+  /**
+   * Installs the tools on the given node, unless it is offline or the tools
+   * are already being installed on it.
+   */
+  public static void prewarm(Computer computer) {
+    final Node node = computer.getNode();
+    if(node == null || computer.isOffline() || !hasInstallations()) {
+      return;
+    }
+
+    final Status status = queue(node.getNodeName());
+    if(status == null) {
+      return;
+    }
+
+    EXECUTOR.submit(new Runnable() {
+      public void run() {
+        status.run(node);
+      }
+    });
+  }
+
+  /**
+   * Records that the tools are to be installed on the given node.
+   *
+   * @return {@code null} if they are already being installed on it
+   */
+  static Status queue(String nodeName) {
+    Status status = new Status(nodeName);
+    synchronized(STATUSES) {
+      Status previous = STATUSES.get(nodeName);
+      if(previous != null && !previous.isDone()) {
+        return null;
+      }
+      STATUSES.put(nodeName, status);
+    }
+    return status;
+  }
+
+  private static boolean hasInstallations() {
+    QualityCenter.DescriptorImpl descriptor = Hudson.getInstance().getDescriptorByType(QualityCenter.DescriptorImpl.class);
+    return descriptor.getClientInstallations().length > 0 || descriptor.getQTPAddinsInstallations().length > 0;
+  }
+
+  /**
+   * Returns the status of the installations on each node, sorted by node
+   * name.
+   */
+  public static List<Status> getStatuses() {
+    List<Status> statuses = new ArrayList<Status>(STATUSES.values());
+    Collections.sort(statuses, new Comparator<Status>() {
+      public int compare(Status s1, Status s2) {
+        return s1.getNodeName().compareTo(s2.getNodeName());
+      }
+    });
+    return statuses;
+  }
+
+  /**
+   * Status of the installation of the tools on a node.
+   */
+  public static final class Status {
+
+    public enum State {
+      QUEUED, INSTALLING, INSTALLED,
+      /** Not a Windows node. */
+      SKIPPED,
+      FAILED;
+
+      public String getDisplayName() {
+        switch(this) {
+          case QUEUED: return Messages.QualityCenterPrewarm_Queued();
+          case INSTALLING: return Messages.QualityCenterPrewarm_Installing();
+          case INSTALLED: return Messages.QualityCenterPrewarm_Installed();
+          case SKIPPED: return Messages.QualityCenterPrewarm_Skipped();
+          default: return Messages.QualityCenterPrewarm_Failed();
+        }
+      }
+    }
+
+    private final String nodeName;
+    private final long queued = System.currentTimeMillis();
+    private volatile State state = State.QUEUED;
+    private volatile long started;
+    private volatile long ended;
+    private volatile String log;
+
+    private Status(String nodeName) {
+      this.nodeName = nodeName;
+    }
+
+    private void run(final Node node) {
+      run(new Installer() {
+        public boolean install(TaskListener listener) throws Exception {
+          QualityCenter.DescriptorImpl descriptor = Hudson.getInstance().getDescriptorByType(QualityCenter.DescriptorImpl.class);
+          boolean applicable = false;
+          for(QualityCenterClientInstallation installation : descriptor.getClientInstallations()) {
+            applicable |= installation.forNode(node, listener) != null;
+          }
+          for(QualityCenterQTPAddinsInstallation installation : descriptor.getQTPAddinsInstallations()) {
+            applicable |= installation.forNode(node, listener) != null;
+          }
+          return applicable;
+        }
+      });
+    }
+
+    void run(Installer installer) {
+      started = System.currentTimeMillis();
+      state = State.INSTALLING;
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      TaskListener listener = new StreamTaskListener(out);
+      try {
+        // the tools are only available on Windows nodes
+        state = installer.install(listener) ? State.INSTALLED : State.SKIPPED;
+      }
+      catch(Exception e) {
+        listener.error(e.getMessage());
+        LOGGER.log(Level.WARNING, "Failed to install the Quality Center tools on " + nodeName, e);
+        state = State.FAILED;
+      }
+      finally {
+        ended = System.currentTimeMillis();
+        try {
+          log = out.toString("UTF-8");
+        }
+        catch(UnsupportedEncodingException e) {
+          throw new AssertionError(e);
+        }
+      }
+    }
+
+    public String getNodeName() {
+      return nodeName;
+    }
+
+    public State getState() {
+      return state;
+    }
+
+    public boolean isDone() {
+      return state != State.QUEUED && state != State.INSTALLING;
+    }
+
+    public Date getQueued() {
+      return new Date(queued);
+    }
+
+    /**
+     * Returns how long the installation took, in milliseconds.
+     *
+     * @return {@code -1} if it isn't done
+     */
+    public long getDuration() {
+      return isDone() ? ended - started : -1;
+    }
+
+    public String getDurationString() {
+      return isDone() ? Util.getTimeSpanString(ended - started) : null;
+    }
+
+    /**
+     * Returns the output of the installers.
+     *
+     * @return {@code null} if the installation isn't done
+     */
+    public String getLog() {
+      return log;
+    }
+
+  }
+
+  /**
+   * Installs the tools on a node.
+   */
+  interface Installer {
+
+    /**
+     * @return {@code false} if none of the tools applies to the node
+     */
+    boolean install(TaskListener listener) throws Exception;
+
+  }
+
+  /**
+   * Installs the tools on all the online nodes, periodically.
+   */
+  @Extension
+  public static class PeriodicWorkImpl extends AsyncPeriodicWork {
+
+    public PeriodicWorkImpl() {
+      super("Quality Center tools installation");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+      return RECURRENCE_PERIOD > 0 ? TimeUnit.MINUTES.toMillis(RECURRENCE_PERIOD) : TimeUnit.DAYS.toMillis(1);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+      if(RECURRENCE_PERIOD > 0) {
+        prewarmAll();
+      }
+    }
+
+  }
+
+  /**
+   * Page of <i>Manage Hudson</i> showing the status of the installations,
+   * from which they can be run.
+   */
+  @Extension
+  public static class ManagementLinkImpl extends ManagementLink {
+
+    public String getIconFileName() {
+      return Hudson.getInstance().hasPermission(Hudson.ADMINISTER) ? "setting.gif" : null;
+    }
+
+    public String getUrlName() {
+      return "qualitycenter-tools";
+    }
+
+    public String getDisplayName() {
+      return Messages.QualityCenterPrewarm_DisplayName();
+    }
+
+    @Override
+    public String getDescription() {
+      return Messages.QualityCenterPrewarm_Description();
+    }
+
+    public List<Status> getStatuses() {
+      return QualityCenterPrewarm.getStatuses();
+    }
+
+    @RequirePOST
+    public void doPrewarm(StaplerResponse rsp) throws IOException {
+      Hudson.getInstance().checkPermission(Hudson.ADMINISTER);
+      prewarmAll();
+      rsp.sendRedirect2(".");
+    }
+
+  }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.model.AbstractBuild;
+import hudson.model.AbstractProject;
+import hudson.model.Action;
+import hudson.util.ChartUtil;
+import hudson.util.ColorPalette;
+import hudson.util.DataSetBuilder;
+import hudson.util.ShiftedCategoryAxis;
+import hudson.util.StackedAreaRenderer2;
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryAxis;
+import org.jfree.chart.axis.CategoryLabelPositions;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.renderer.category.StackedAreaRenderer;
+import org.jfree.data.category.CategoryDataset;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+/**
+ * Shows the trend of the QC tests of a project.
+ *
+ * <p>Unlike the stock test result trend, which loads the test results of
+ * the builds it shows, this one only reads their {@link QualityCenterResultRecord}.</p>
+ */
+public class QualityCenterProjectAction implements Action {
+
+  /**
+   * Maximum number of builds looked at (and so shown by the trend), {@code 0}
+   * or less for all of them.
+   */
+  public static int MAX_BUILDS = Integer.getInteger(QualityCenterProjectAction.class.getName() + ".maxBuilds", 100);
+
+  private final AbstractProject<?, ?> project;
+
+  public QualityCenterProjectAction(AbstractProject<?, ?> project) {
+    this.project = project;
+  }
+
+  public AbstractProject<?, ?> getProject() {
+    return project;
+  }
+
+  public String getIconFileName() {
+    return "graph.gif";
+  }
+
+  public String getDisplayName() {
+    return Messages.QualityCenterProjectAction_DisplayName();
+  }
+
+  public String getUrlName() {
+    return "qualitycenter";
+  }
+
+  /**
+   * Returns the builds which have a record, along with it, from the most
+   * recent one, among the last {@link #MAX_BUILDS} builds.
+   */
+  public List<BuildRecord> getBuildRecords() {
+    return getBuildRecords(MAX_BUILDS);
+  }
+
+  /**
+   * @param max how many records are needed at most, {@code 0} or less for
+   *        all of them: However, no more than {@link #MAX_BUILDS} builds are
+   *        looked at, so that the jobs whose builds mostly have no record
+   *        (such as the ones run before the records existed) aren't walked
+   *        down to their first build
+   */
+  private List<BuildRecord> getBuildRecords(int max) {
+    List<BuildRecord> records = new ArrayList<BuildRecord>();
+    int visited = 0;
+    for(AbstractBuild<?, ?> build = project.getLastBuild(); build != null; build = build.getPreviousBuild()) {
+      if((max > 0 && records.size() >= max) || (MAX_BUILDS > 0 && visited >= MAX_BUILDS)) {
+        break;
+      }
+      visited++;
+      QualityCenterBuildAction action = build.getAction(QualityCenterBuildAction.class);
+      QualityCenterResultRecord record = action != null ? action.getResultRecord(build) : null;
+      if(record != null) {
+        records.add(new BuildRecord(build, record));
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Returns the most recent build which has a record, if any.
+   */
+  public BuildRecord getLastBuildRecord() {
+    List<BuildRecord> records = getBuildRecords(1);
+    return records.isEmpty() ? null : records.get(0);
+  }
+
+  /**
+   * Returns whether there are enough builds with a record to draw a trend.
+   */
+  public boolean isGraphActive() {
+    return getBuildRecords(2).size() == 2;
+  }
+
+  /**
+   * Draws the number of tests of the builds, by status.
+   */
+  public void doTrend(StaplerRequest req, StaplerResponse rsp) throws IOException {
+    if(ChartUtil.awtProblemCause != null) {
+      // not available, send out error message
+      rsp.sendRedirect2(req.getContextPath() + "/images/headless.png");
+      return;
+    }
+    AbstractBuild<?, ?> lastBuild = project.getLastBuild();
+    if(lastBuild != null && req.checkIfModified(lastBuild.getTimestamp(), rsp)) {
+      return;
+    }
+    ChartUtil.generateGraph(req, rsp, createChart(buildDataSet()), 500, 200);
+  }
+
+  private CategoryDataset buildDataSet() {
+    DataSetBuilder<String, ChartUtil.NumberOnlyBuildLabel> dsb = new DataSetBuilder<String, ChartUtil.NumberOnlyBuildLabel>();
+    for(BuildRecord buildRecord : getBuildRecords()) {
+      ChartUtil.NumberOnlyBuildLabel label = new ChartUtil.NumberOnlyBuildLabel(buildRecord.getBuild());
+      QualityCenterResultRecord record = buildRecord.getRecord();
+      dsb.add(record.getFailCount(), "0failed", label);
+      dsb.add(record.getSkipCount(), "1skipped", label);
+      dsb.add(record.getPassCount(), "2passed", label);
+    }
+    return dsb.build();
+  }
+
+  private static JFreeChart createChart(CategoryDataset dataset) {
+    JFreeChart chart = ChartFactory.createStackedAreaChart(
+            null,                               // chart title
+            null,                               // unused
+            Messages.QualityCenterProjectAction_Tests(), // range axis label
+            dataset,                            // data
+            PlotOrientation.VERTICAL,           // orientation
+            false,                              // include legend
+            true,                               // tooltips
+            false                               // urls
+    );
+    chart.setBackgroundPaint(Color.white);
+
+    CategoryPlot plot = chart.getCategoryPlot();
+    plot.setBackgroundPaint(Color.WHITE);
+    plot.setOutlinePaint(null);
+    plot.setForegroundAlpha(0.8f);
+    plot.setRangeGridlinesVisible(true);
+    plot.setRangeGridlinePaint(Color.black);
+
+    CategoryAxis domainAxis = new ShiftedCategoryAxis(null);
+    plot.setDomainAxis(domainAxis);
+    domainAxis.setCategoryLabelPositions(CategoryLabelPositions.UP_90);
+    domainAxis.setLowerMargin(0.0);
+    domainAxis.setUpperMargin(0.0);
+    domainAxis.setCategoryMargin(0.0);
+
+    NumberAxis rangeAxis = (NumberAxis) plot.getRangeAxis();
+    rangeAxis.setStandardTickUnits(NumberAxis.createIntegerTickUnits());
+
+    StackedAreaRenderer renderer = new StackedAreaRenderer2();
+    plot.setRenderer(renderer);
+    renderer.setSeriesPaint(0, ColorPalette.RED);
+    renderer.setSeriesPaint(1, ColorPalette.YELLOW);
+    renderer.setSeriesPaint(2, ColorPalette.BLUE);
+
+    return chart;
+  }
+
+  /**
+   * A build along with its record.
+   */
+  public static class BuildRecord {
+
+    private final AbstractBuild<?, ?> build;
+    private final QualityCenterResultRecord record;
+
+    BuildRecord(AbstractBuild<?, ?> build, QualityCenterResultRecord record) {
+      this.build = build;
+      this.record = record;
+    }
+
+    public AbstractBuild<?, ?> getBuild() {
+      return build;
+    }
+
+    public QualityCenterResultRecord getRecord() {
+      return record;
+    }
+
+  }
+
+}
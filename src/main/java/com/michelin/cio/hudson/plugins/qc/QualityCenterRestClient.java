@@ -0,0 +1,552 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.remoting.Base64;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Minimal client for the HP ALM/Quality Center REST API.
+ *
+ * <p>Unlike {@code runTestSet.vbs}, which relies on the OTA COM client (and
+ * thus on Windows), this client only needs an HTTP connection to the server:
+ * It can be used from any node.</p>
+ *
+ * <p>Entities are handled as plain {@code field name -> value} maps, which is
+ * all we need to run test sets and gather their results.</p>
+ */
+public class QualityCenterRestClient {
+
+  private static final String AUTHENTICATE_PATH = "authentication-point/authenticate";
+  private static final String LOGOUT_PATH = "authentication-point/logout";
+  private static final String SITE_SESSION_PATH = "rest/site-session";
+  private static final String XML_CONTENT_TYPE = "application/xml";
+  private static final String ENCODING = "UTF-8";
+  /** Lock status of an entity locked by another session. */
+  private static final String LOCKED_BY_OTHER = "LOCKED_BY_OTHER";
+
+  /** Number of entities to ask for per request when reading a collection. */
+  private static final int PAGE_SIZE = 500;
+
+  private static final int CONNECT_TIMEOUT = 30 * 1000;
+  private static final int READ_TIMEOUT = 5 * 60 * 1000;
+
+  /** Server URL, always ending with a "/". */
+  private final String serverURL;
+  private final String domain;
+  private final String project;
+  /** Cookies handed out by the server (LWSSO_COOKIE_KEY, QCSession, ...). */
+  private final Map<String, String> cookies = new LinkedHashMap<String, String>();
+  /** Credentials, kept to log in again once the session has expired. */
+  private String login;
+  private String password;
+  /** Incremented each time we log in, to avoid concurrent re-authentications. */
+  private int sessionGeneration;
+  private int reauthentications;
+
+  public QualityCenterRestClient(String serverURL, String domain, String project) {
+    // Does the URL ends with a "/" ? if not, add it
+    if(serverURL.lastIndexOf("/") == serverURL.length() - 1) {
+      this.serverURL = serverURL;
+    }
+    else {
+      this.serverURL = serverURL + "/";
+    }
+    this.domain = domain;
+    this.project = project;
+  }
+
+  public String getServerURL() {
+    return serverURL;
+  }
+
+  public String getDomain() {
+    return domain;
+  }
+
+  public String getProject() {
+    return project;
+  }
+
+  /**
+   * Authenticates against the server and opens a site session.
+   */
+  public synchronized void login(String login, String password) throws IOException {
+    cookies.clear();
+    this.login = login;
+    this.password = password;
+    sessionGeneration++;
+
+    String credentials = login + ":" + (password != null ? password : "");
+    HttpURLConnection cnx = open(AUTHENTICATE_PATH, "GET");
+    cnx.setRequestProperty("Authorization", "Basic " + Base64.encode(credentials.getBytes(ENCODING)));
+    read(cnx);
+
+    // QC 11 doesn't know about site sessions, which were introduced with
+    // ALM 11.5: A 404 is thus not an error
+    HttpURLConnection session = open(SITE_SESSION_PATH, "POST");
+    try {
+      send(session, "");
+      read(session);
+    } catch(RestException re) {
+      if(re.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+        throw re;
+      }
+    }
+  }
+
+  public synchronized boolean isLoggedIn() {
+    return !cookies.isEmpty();
+  }
+
+  /**
+   * Checks that the session is still alive.
+   */
+  public boolean isAuthenticated() {
+    if(!isLoggedIn()) {
+      return false;
+    }
+    try {
+      read(open("rest/is-authenticated", "GET"));
+      return true;
+    } catch(IOException ioe) {
+      return false;
+    }
+  }
+
+  /**
+   * Closes the session; Errors are ignored since there's nothing we can do
+   * about them.
+   */
+  public synchronized void logout() {
+    if(!isLoggedIn()) {
+      return;
+    }
+    try {
+      read(open(LOGOUT_PATH, "GET"));
+    } catch(IOException ioe) {
+      // ignored
+    } finally {
+      cookies.clear();
+      login = null;
+      password = null;
+    }
+  }
+
+  /**
+   * Reads all the entities of the given collection (e.g. {@code test-sets})
+   * which match {@code query} (may be {@code null}).
+   *
+   * @param fields comma-separated list of the fields to get, {@code null} to
+   *        get all of them
+   */
+  public List<Map<String, String>> getEntities(String collection, String query, String fields) throws IOException {
+    List<Map<String, String>> entities = new ArrayList<Map<String, String>>();
+    int total;
+    do {
+      StringBuilder path = new StringBuilder(projectPath(collection));
+      path.append("?page-size=").append(PAGE_SIZE);
+      path.append("&start-index=").append(entities.size() + 1);
+      if(query != null) {
+        path.append("&query=").append(encode(query));
+      }
+      if(fields != null) {
+        path.append("&fields=").append(encode(fields));
+      }
+
+      int before = entities.size();
+      total = parseEntities(execute(path.toString(), "GET", null), entities);
+      if(entities.size() == before) {
+        // the server doesn't give us anything more
+        break;
+      }
+    } while(entities.size() < total);
+
+    return entities;
+  }
+
+  /**
+   * Reads a single entity.
+   */
+  public Map<String, String> getEntity(String collection, String id) throws IOException {
+    List<Map<String, String>> entities = new ArrayList<Map<String, String>>();
+    parseEntities(execute(projectPath(collection + "/" + encode(id)), "GET", null), entities);
+    if(entities.isEmpty()) {
+      throw new RestException(HttpURLConnection.HTTP_NOT_FOUND, collection + "/" + id);
+    }
+    return entities.get(0);
+  }
+
+  /**
+   * Updates the given fields of an entity.
+   */
+  public void updateEntity(String collection, String type, String id, Map<String, String> fields) throws IOException {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<Entity Type=\"").append(escape(type)).append("\"><Fields>");
+    for(Map.Entry<String, String> field : fields.entrySet()) {
+      xml.append("<Field Name=\"").append(escape(field.getKey())).append("\"><Value>");
+      xml.append(escape(field.getValue())).append("</Value></Field>");
+    }
+    xml.append("</Fields></Entity>");
+
+    execute(projectPath(collection + "/" + encode(id)), "PUT", xml.toString());
+  }
+
+  /**
+   * Locks an entity for the current session, so that the other sessions
+   * can't lock it (nor change it through the user interface) until it is
+   * unlocked or the session ends.
+   *
+   * @return {@code false} if another session holds the lock
+   */
+  public boolean lock(String collection, String id) throws IOException {
+    String resource = projectPath(collection + "/" + encode(id) + "/lock");
+    try {
+      String response = new String(execute(resource, "POST", ""), ENCODING);
+      return response.length() == 0 || !LOCKED_BY_OTHER.equals(getElementText(response, "LockStatus"));
+    } catch(RestException re) {
+      // the lock may be refused rather than reported as held by another
+      // session
+      String status = getElementText(new String(execute(resource, "GET", null), ENCODING), "LockStatus");
+      if(LOCKED_BY_OTHER.equals(status)) {
+        return false;
+      }
+      throw re;
+    }
+  }
+
+  /**
+   * Releases the lock taken through {@link #lock}.
+   */
+  public void unlock(String collection, String id) throws IOException {
+    execute(projectPath(collection + "/" + encode(id) + "/lock"), "DELETE", null);
+  }
+
+  /**
+   * Posts {@code body} to a project resource and returns the response.
+   */
+  public String post(String resource, String body) throws IOException {
+    return new String(execute(projectPath(resource), "POST", body), ENCODING);
+  }
+
+  /**
+   * Returns the text of the first {@code element} of the given XML document,
+   * or {@code null}.
+   */
+  public static String getElementText(String xml, String element) throws IOException {
+    try {
+      XMLStreamReader reader = newInputFactory().createXMLStreamReader(new StringReader(xml));
+      try {
+        while(reader.hasNext()) {
+          if(reader.next() == XMLStreamReader.START_ELEMENT && element.equals(reader.getLocalName())) {
+            return reader.getElementText().trim();
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch(XMLStreamException xse) {
+      throw new IOException("Malformed response from the Quality Center server: " + xse.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Builds the path to a resource of the current project.
+   */
+  String projectPath(String resource) throws IOException {
+    return "rest/domains/" + encode(domain) + "/projects/" + encode(project) + "/" + resource;
+  }
+
+  /**
+   * Sends a request to the server, logging in again if the session has
+   * expired in the meantime.
+   */
+  private byte[] execute(String path, String method, String body) throws IOException {
+    int generation;
+    synchronized(this) {
+      generation = sessionGeneration;
+    }
+
+    try {
+      return executeOnce(path, method, body);
+    } catch(RestException re) {
+      if(re.getStatusCode() != HttpURLConnection.HTTP_UNAUTHORIZED) {
+        throw re;
+      }
+      reauthenticate(generation);
+      return executeOnce(path, method, body);
+    }
+  }
+
+  private byte[] executeOnce(String path, String method, String body) throws IOException {
+    HttpURLConnection cnx = open(path, method);
+    if(body != null) {
+      send(cnx, body);
+    }
+    return read(cnx);
+  }
+
+  /**
+   * Logs in again, unless another thread did it while we were waiting for
+   * the lock.
+   */
+  private synchronized void reauthenticate(int generation) throws IOException {
+    if(login == null) {
+      throw new RestException(HttpURLConnection.HTTP_UNAUTHORIZED, "Not logged in");
+    }
+    if(generation == sessionGeneration) {
+      reauthentications++;
+      login(login, password);
+    }
+  }
+
+  /**
+   * Returns how many times the session had to be reopened because it had
+   * expired.
+   */
+  public synchronized int getReauthentications() {
+    return reauthentications;
+  }
+
+  private HttpURLConnection open(String path, String method) throws IOException {
+    HttpURLConnection cnx = (HttpURLConnection) new URL(serverURL + path).openConnection();
+    cnx.setRequestMethod(method);
+    cnx.setConnectTimeout(CONNECT_TIMEOUT);
+    cnx.setReadTimeout(READ_TIMEOUT);
+    cnx.setUseCaches(false);
+    cnx.setInstanceFollowRedirects(false);
+    cnx.setRequestProperty("Accept", XML_CONTENT_TYPE);
+
+    synchronized(this) {
+      if(!cookies.isEmpty()) {
+        StringBuilder cookieHeader = new StringBuilder();
+        for(Map.Entry<String, String> cookie : cookies.entrySet()) {
+          if(cookieHeader.length() > 0) {
+            cookieHeader.append("; ");
+          }
+          cookieHeader.append(cookie.getKey()).append('=').append(cookie.getValue());
+        }
+        cnx.setRequestProperty("Cookie", cookieHeader.toString());
+      }
+    }
+
+    return cnx;
+  }
+
+  private void send(HttpURLConnection cnx, String body) throws IOException {
+    byte[] bytes = body.getBytes(ENCODING);
+    cnx.setDoOutput(true);
+    cnx.setRequestProperty("Content-Type", XML_CONTENT_TYPE);
+    cnx.setFixedLengthStreamingMode(bytes.length);
+    OutputStream os = cnx.getOutputStream();
+    try {
+      os.write(bytes);
+    } finally {
+      os.close();
+    }
+  }
+
+  /**
+   * Reads the response of the request, keeping track of the cookies sent by
+   * the server.
+   */
+  private byte[] read(HttpURLConnection cnx) throws IOException {
+    try {
+      int status = cnx.getResponseCode();
+
+      // header names are case-insensitive, but not the keys of the map
+      for(Map.Entry<String, List<String>> header : cnx.getHeaderFields().entrySet()) {
+        if(!"Set-Cookie".equalsIgnoreCase(header.getKey())) {
+          continue;
+        }
+        synchronized(this) {
+          for(String setCookie : header.getValue()) {
+            int semicolon = setCookie.indexOf(';');
+            String cookie = semicolon >= 0 ? setCookie.substring(0, semicolon) : setCookie;
+            int equals = cookie.indexOf('=');
+            if(equals > 0) {
+              cookies.put(cookie.substring(0, equals).trim(), cookie.substring(equals + 1).trim());
+            }
+          }
+        }
+      }
+
+      if(status < 200 || status >= 300) {
+        InputStream error = cnx.getErrorStream();
+        String message = cnx.getResponseMessage();
+        if(error != null) {
+          try {
+            String title = getElementText(IOUtils.toString(error, ENCODING), "Title");
+            if(title != null) {
+              message = title;
+            }
+          } catch(IOException ioe) {
+            // not an ALM error document, stick to the HTTP message
+          } finally {
+            error.close();
+          }
+        }
+        throw new RestException(status, message);
+      }
+
+      InputStream is = cnx.getInputStream();
+      try {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IOUtils.copy(is, bytes);
+        return bytes.toByteArray();
+      } finally {
+        is.close();
+      }
+    } finally {
+      cnx.disconnect();
+    }
+  }
+
+  /**
+   * Parses an {@code <Entities>} (or single {@code <Entity>}) document.
+   *
+   * @return the value of the {@code TotalResults} attribute
+   */
+  private static int parseEntities(byte[] xml, List<Map<String, String>> entities) throws IOException {
+    int total = 0;
+    try {
+      XMLStreamReader reader = newInputFactory().createXMLStreamReader(
+              new ByteArrayInputStream(xml), ENCODING);
+      try {
+        Map<String, String> entity = null;
+        String fieldName = null;
+        while(reader.hasNext()) {
+          int event = reader.next();
+          if(event != XMLStreamReader.START_ELEMENT) {
+            continue;
+          }
+          String element = reader.getLocalName();
+          if("Entities".equals(element)) {
+            String totalResults = reader.getAttributeValue(null, "TotalResults");
+            if(totalResults != null) {
+              total = Integer.parseInt(totalResults);
+            }
+          }
+          else if("Entity".equals(element)) {
+            entity = new LinkedHashMap<String, String>();
+            entities.add(entity);
+          }
+          else if("Field".equals(element)) {
+            fieldName = reader.getAttributeValue(null, "Name");
+            if(entity != null && fieldName != null && !entity.containsKey(fieldName)) {
+              entity.put(fieldName, "");
+            }
+          }
+          else if("Value".equals(element) && entity != null && fieldName != null) {
+            // multi-valued fields are flattened as a comma-separated list
+            String value = reader.getElementText();
+            String previous = entity.get(fieldName);
+            entity.put(fieldName, previous == null || previous.length() == 0 ? value : previous + "," + value);
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch(XMLStreamException xse) {
+      throw new IOException("Malformed response from the Quality Center server: " + xse.getMessage());
+    } catch(NumberFormatException nfe) {
+      throw new IOException("Malformed response from the Quality Center server: " + nfe.getMessage());
+    }
+    return Math.max(total, entities.size());
+  }
+
+  /**
+   * Returns a parser which neither reads DTDs nor resolves external entities,
+   * the responses coming from a server we don't control.
+   */
+  private static XMLInputFactory newInputFactory() {
+    XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    return inputFactory;
+  }
+
+  private static String encode(String value) throws IOException {
+    // URLEncoder is meant for forms: Spaces must be sent as %20 in paths
+    return URLEncoder.encode(value, ENCODING).replace("+", "%20");
+  }
+
+  static String escape(String value) {
+    if(value == null) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder(value.length());
+    for(int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch(c) {
+        case '<': escaped.append("&lt;"); break;
+        case '>': escaped.append("&gt;"); break;
+        case '&': escaped.append("&amp;"); break;
+        case '"': escaped.append("&quot;"); break;
+        case '\'': escaped.append("&apos;"); break;
+        default: escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Error returned by the server.
+   */
+  public static class RestException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public RestException(int statusCode, String message) {
+      super("HTTP " + statusCode + ": " + message);
+      this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+  }
+
+}
@@ -0,0 +1,969 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.FilePath.FileCallable;
+import hudson.Util;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Runs a test set through the ALM/Quality Center REST API and writes the
+ * resulting JUnit report.
+ *
+ * <p>This is the pure-Java alternative to {@code runTestSet.vbs}: It is run
+ * on the node which performs the build, in the project workspace, but needs
+ * neither {@code cscript} nor the OTA client to be available there. The
+ * test set is executed server-side (ALM 11.52 or later is required).</p>
+ *
+ * <p>The generated report is the same as the one produced by the VBScript.</p>
+ */
+public class QualityCenterRestRunner implements FileCallable<Boolean> {
+
+  /** ID of the {@code Root} folder of the test lab. */
+  private static final String ROOT_FOLDER_ID = "0";
+  /** How many tests are looked up per request when getting their names. */
+  private static final int NAMES_BATCH_SIZE = 100;
+  /** How many runs are looked up per request when getting their failed steps. */
+  private static final int STEPS_BATCH_SIZE = 50;
+  /**
+   * Suffix of the file, next to the report, which lists the hosts changed
+   * by the build until they are given back.
+   */
+  static final String HOSTS_SUFFIX = ".hosts";
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * How often a build waiting for another one to give back the hosts of a
+   * test set checks if it's done, in milliseconds.
+   */
+  public static long LOCK_POLL_INTERVAL = Long.getLong(QualityCenterRestRunner.class.getName() + ".lockPollInterval", TimeUnit.SECONDS.toMillis(10));
+
+  /**
+   * Test sets whose hosts are being changed from this JVM, which may share
+   * its Quality Center sessions (and thus their locks) between builds.
+   */
+  private static final Set<String> LOCAL_LOCKS = new HashSet<String>();
+
+  private final String serverURL;
+  private final String login;
+  private final String password;
+  private final String domain;
+  private final String project;
+  private final String testSetFolder;
+  private final String testSetName;
+  private final String reportFile;
+  /** Timeout, in seconds. */
+  private final int timeout;
+  private final String runMode;
+  private final String runHost;
+  /** Build step the Quality Center session belongs to, see {@link QualityCenterSessionPool}. */
+  private final String sessionOwner;
+  /** How long the session can be kept once idle, in milliseconds. */
+  private final long sessionTimeToLive;
+  /**
+   * Whether the failed steps are left out of the report, to be fetched only
+   * if someone looks at them, see {@link QualityCenterBuildAction}.
+   */
+  private final boolean deferStepDetails;
+  /**
+   * Expected duration of the tests, in seconds, by test name, used to spread
+   * them over the hosts in {@link QualityCenter#RUN_MODE_HOST_POOL} mode.
+   */
+  private final Map<String, Long> expectedDurations;
+  private final TaskListener listener;
+  /** Last run of each failed test, by test name, when step details are deferred. */
+  private final Map<String, String> failedRuns = new LinkedHashMap<String, String>();
+  /** Outcome of each test which ended. */
+  private final List<QualityCenterDurationStore.Sample> samples = new ArrayList<QualityCenterDurationStore.Sample>();
+  /** The hosts the tests are spread over, in {@link QualityCenter#RUN_MODE_HOST_POOL} mode. */
+  private transient QualityCenterHostPool<QualityCenterTestInstance> hostPool;
+
+  public QualityCenterRestRunner(String serverURL, String login, String password,
+          String domain, String project, String testSetFolder, String testSetName,
+          String reportFile, int timeout, String runMode, String runHost,
+          String sessionOwner, long sessionTimeToLive, boolean deferStepDetails, Map<String, Long> expectedDurations,
+          TaskListener listener) {
+    this.serverURL = serverURL;
+    this.login = login;
+    this.password = password;
+    this.domain = domain;
+    this.project = project;
+    this.testSetFolder = testSetFolder;
+    this.testSetName = testSetName;
+    this.reportFile = reportFile;
+    this.timeout = timeout;
+    this.runMode = runMode;
+    this.runHost = runHost;
+    this.sessionOwner = sessionOwner;
+    this.sessionTimeToLive = sessionTimeToLive;
+    this.deferStepDetails = deferStepDetails;
+    this.expectedDurations = expectedDurations;
+    this.listener = listener;
+  }
+
+  /**
+   * Returns the ID of the last run of each failed test, by test name, when
+   * step details are deferred (empty otherwise).
+   */
+  public Map<String, String> getFailedRuns() {
+    return failedRuns;
+  }
+
+  /**
+   * Returns the outcome of each test which ended.
+   */
+  public List<QualityCenterDurationStore.Sample> getSamples() {
+    return samples;
+  }
+
+  /**
+   * @return {@code false} if the test set couldn't be run (the report then
+   *         contains the error, and the results of the tests which ended)
+   */
+  public Boolean invoke(File workspace, VirtualChannel channel) throws IOException, InterruptedException {
+    PrintStream out = listener.getLogger();
+    QualityCenterRestClient client = null;
+    String errorMsg = null;
+    InterruptedException interruption = null;
+
+    File report = new File(workspace, reportFile);
+    QualityCenterJUnitWriter writer = new QualityCenterJUnitWriter(report, serverURL,
+            domain + "." + project + "." + testSetFolder + "." + testSetName);
+    // tests which haven't been written to the report yet, by test instance ID
+    Map<String, QualityCenterTestInstance> pending = new LinkedHashMap<String, QualityCenterTestInstance>();
+    // the execution, as long as it may still be running on the server
+    String runningId = null;
+    // tests which have been given another host than the planned one
+    List<QualityCenterTestInstance> reassigned = new ArrayList<QualityCenterTestInstance>();
+    // the hosts changed by this build, or by a previous one which was
+    // stopped before giving them back
+    File hostsFile = new File(workspace, reportFile + HOSTS_SUFFIX);
+    // the test set, as long as it's locked to change its hosts
+    String lockedId = null;
+
+    try {
+      client = QualityCenterSessionPool.acquire(serverURL, login, password, domain, project, sessionOwner, sessionTimeToLive);
+      out.println(Messages.QualityCenter_RestLoggedIn(serverURL, login));
+
+      String testSetId = findTestSet(client);
+      if(!QualityCenter.RUN_MODE_PLANNED_HOST.equals(runMode)) {
+        lockTestSet(client, testSetId);
+        lockedId = testSetId;
+        // the planned hosts are only known once they have been given back
+        restoreStoppedBuildHosts(client, testSetId, hostsFile);
+      }
+      for(QualityCenterTestInstance test : getTestInstances(client, testSetId)) {
+        pending.put(test.getId(), test);
+      }
+      out.println(Messages.QualityCenter_RestRunningTestSet(testSetName, testSetId, pending.size()));
+
+      Map<String, Map<String, String>> previousRuns = getLastRuns(client, testSetId, "0");
+      long expectedDuration = getExpectedDuration(previousRuns);
+      if(QualityCenter.RUN_MODE_HOST_POOL.equals(runMode)) {
+        expectedDuration = spreadOverHosts(client, pending.values(), previousRuns, hostsFile, reassigned);
+      }
+      else {
+        assignHosts(client, pending.values(), hostsFile, reassigned);
+      }
+      // the report is written as the tests end, the other ones are only
+      // added at the end
+      writer.checkpoint();
+
+      String runId = startExecution(client, testSetId);
+      runningId = runId;
+      out.println(Messages.QualityCenter_RestExecutionStarted(runId));
+
+      String lastRunId = getLastRunId(previousRuns);
+      if(waitForCompletion(client, runId, expectedDuration, testSetId, lastRunId, pending, writer)) {
+        runningId = null;
+        out.println(Messages.QualityCenter_RestExecutionFinished());
+        getResults(client, testSetId, previousRuns, lastRunId, pending, writer);
+      }
+      else {
+        errorMsg = Messages.QualityCenter_RestTimedOut();
+      }
+    }
+    catch(IOException ioe) {
+      // as done by the VBScript, errors are reported in the report itself
+      errorMsg = ioe.getMessage();
+    }
+    catch(InterruptedException ie) {
+      // the build has been aborted: the report is written nevertheless
+      errorMsg = Messages.QualityCenter_RestAborted();
+      interruption = ie;
+    }
+    finally {
+      if(client != null) {
+        // the tests aren't left running on the hosts after a timeout, an
+        // error or the build being aborted
+        if(runningId != null) {
+          stopExecution(client, runningId);
+        }
+        if(lockedId != null) {
+          restoreHosts(client, lockedId, reassigned, hostsFile);
+          unlockTestSet(client, lockedId);
+        }
+        // the session is closed later on, once all the TestSets have been run
+        QualityCenterSessionPool.release(client);
+      }
+    }
+
+    try {
+      // the tests which didn't end are reported as not run
+      for(QualityCenterTestInstance test : pending.values()) {
+        writer.writeTestCase(test);
+      }
+      if(errorMsg != null) {
+        writer.writeError(errorMsg);
+      }
+    }
+    finally {
+      writer.close();
+    }
+    out.println(Messages.QualityCenter_RestReportCreated(report.getPath()));
+
+    if(interruption != null) {
+      throw interruption;
+    }
+    if(errorMsg != null) {
+      listener.error(errorMsg);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Walks the test lab tree down to the test set.
+   */
+  private String findTestSet(QualityCenterRestClient client) throws IOException {
+    String folderId = ROOT_FOLDER_ID;
+    for(String folder : testSetFolder.split("[\\\\/]+")) {
+      if(folder.length() == 0 || (folderId.equals(ROOT_FOLDER_ID) && folder.equals("Root"))) {
+        continue;
+      }
+      List<Map<String, String>> folders = client.getEntities("test-set-folders",
+              "{parent-id[" + folderId + "];name[" + quote(folder) + "]}", "id");
+      if(folders.isEmpty()) {
+        throw new QualityCenterRestClient.RestException(404, Messages.QualityCenter_RestFolderNotFound(testSetFolder));
+      }
+      folderId = folders.get(0).get("id");
+    }
+
+    List<Map<String, String>> testSets = client.getEntities("test-sets",
+            "{parent-id[" + folderId + "];name[" + quote(testSetName) + "]}", "id");
+    if(testSets.isEmpty()) {
+      throw new QualityCenterRestClient.RestException(404, Messages.QualityCenter_RestTestSetNotFound(testSetName));
+    }
+    return testSets.get(0).get("id");
+  }
+
+  private List<QualityCenterTestInstance> getTestInstances(QualityCenterRestClient client, String testSetId) throws IOException {
+    List<Map<String, String>> instances = client.getEntities("test-instances", "{cycle-id[" + testSetId + "]}", "id,test-id,test-instance,host-name");
+
+    // the names of the tests are fetched once for all, by batches, rather
+    // than with one request per test
+    Set<String> testIds = new LinkedHashSet<String>();
+    for(Map<String, String> instance : instances) {
+      testIds.add(instance.get("test-id"));
+    }
+    Map<String, String> testNames = getTestNames(client, new ArrayList<String>(testIds));
+
+    return createTestInstances(instances, testNames);
+  }
+
+  /**
+   * Creates the test instances, named after their test.
+   *
+   * <p>The instances of a same test (or of tests with the same name) are
+   * told apart with their instance number, as in the test lab (e.g.
+   * {@code [2]MyTest}), so that each one is reported separately.</p>
+   *
+   * @param testNames the names of the tests, by test ID
+   */
+  static List<QualityCenterTestInstance> createTestInstances(List<Map<String, String>> instances, Map<String, String> testNames) {
+    Map<String, Integer> occurrences = new HashMap<String, Integer>();
+    for(Map<String, String> instance : instances) {
+      String name = testNames.get(instance.get("test-id"));
+      Integer count = occurrences.get(name);
+      occurrences.put(name, count == null ? 1 : count + 1);
+    }
+
+    List<QualityCenterTestInstance> tests = new ArrayList<QualityCenterTestInstance>(instances.size());
+    // how many instances of each duplicate name have been seen so far
+    Map<String, Integer> seen = new HashMap<String, Integer>();
+    Set<String> names = new HashSet<String>();
+    for(Map<String, String> instance : instances) {
+      String testId = instance.get("test-id");
+      String name = testNames.get(testId);
+      if(occurrences.get(name) > 1) {
+        Integer count = seen.get(name);
+        count = count == null ? 1 : count + 1;
+        seen.put(name, count);
+        String number = instance.get("test-instance");
+        if(StringUtils.isEmpty(number) || names.contains("[" + number + "]" + name)) {
+          // distinct tests with the same name can have the same instance
+          // number: they get the next free one
+          int free = count;
+          while(names.contains("[" + free + "]" + name)) {
+            free++;
+          }
+          number = String.valueOf(free);
+        }
+        name = "[" + number + "]" + name;
+      }
+      names.add(name);
+      QualityCenterTestInstance test = new QualityCenterTestInstance(instance.get("id"), testId, name);
+      test.setPlannedHost(StringUtils.trimToNull(instance.get("host-name")));
+      tests.add(test);
+    }
+    return tests;
+  }
+
+  /**
+   * Returns the names of the given tests, indexed by test ID.
+   */
+  private static Map<String, String> getTestNames(QualityCenterRestClient client, List<String> testIds) throws IOException {
+    Map<String, String> testNames = new HashMap<String, String>();
+    for(int i = 0; i < testIds.size(); i += NAMES_BATCH_SIZE) {
+      List<String> batch = testIds.subList(i, Math.min(i + NAMES_BATCH_SIZE, testIds.size()));
+      for(Map<String, String> test : client.getEntities("tests", "{id[" + StringUtils.join(batch, " OR ") + "]}", "id,name")) {
+        testNames.put(test.get("id"), test.get("name"));
+      }
+    }
+    return testNames;
+  }
+
+  /**
+   * Locks the test set before changing its hosts, waiting (up to the
+   * timeout) for the build which holds the lock to give them back.
+   *
+   * <p>Two builds running the same test set would otherwise change the same
+   * test instances: One of them would run its tests on the hosts of the
+   * other, and the last one to give them back would record the hosts of the
+   * other as the planned ones. The lock is taken through the Quality Center
+   * session, which may be shared by the builds run on the same node: They
+   * also wait for each other in this JVM. A session which expires loses its
+   * lock, so does a session which is reopened.</p>
+   */
+  private void lockTestSet(QualityCenterRestClient client, String testSetId) throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout * 1000L;
+    String key = getLockKey(testSetId);
+    boolean waiting = false;
+    synchronized(LOCAL_LOCKS) {
+      while(LOCAL_LOCKS.contains(key)) {
+        long remaining = deadline - System.currentTimeMillis();
+        if(remaining <= 0) {
+          throw new IOException(Messages.QualityCenter_RestTestSetLocked(testSetName));
+        }
+        if(!waiting) {
+          listener.getLogger().println(Messages.QualityCenter_RestWaitingForTestSet(testSetName));
+          waiting = true;
+        }
+        LOCAL_LOCKS.wait(remaining);
+      }
+      LOCAL_LOCKS.add(key);
+    }
+
+    boolean locked = false;
+    try {
+      while(!client.lock("test-sets", testSetId)) {
+        long remaining = deadline - System.currentTimeMillis();
+        if(remaining <= 0) {
+          throw new IOException(Messages.QualityCenter_RestTestSetLocked(testSetName));
+        }
+        if(!waiting) {
+          listener.getLogger().println(Messages.QualityCenter_RestWaitingForTestSet(testSetName));
+          waiting = true;
+        }
+        Thread.sleep(Math.min(remaining, LOCK_POLL_INTERVAL));
+      }
+      locked = true;
+    }
+    finally {
+      if(!locked) {
+        releaseLocalLock(key);
+      }
+    }
+  }
+
+  /**
+   * Releases the lock taken by {@link #lockTestSet}, logging rather than
+   * throwing the error if it can't be (the lock is released anyway once the
+   * session ends).
+   */
+  private void unlockTestSet(QualityCenterRestClient client, String testSetId) {
+    try {
+      client.unlock("test-sets", testSetId);
+    }
+    catch(IOException ioe) {
+      listener.error(Messages.QualityCenter_RestCouldNotUnlock(testSetName, ioe.getMessage()));
+    }
+    finally {
+      releaseLocalLock(getLockKey(testSetId));
+    }
+  }
+
+  private String getLockKey(String testSetId) {
+    return serverURL + '|' + domain + '|' + project + '|' + testSetId;
+  }
+
+  private static void releaseLocalLock(String key) {
+    synchronized(LOCAL_LOCKS) {
+      LOCAL_LOCKS.remove(key);
+      LOCAL_LOCKS.notifyAll();
+    }
+  }
+
+  /**
+   * Sets the host each test has to run on, depending on the run mode.
+   *
+   * @param reassigned the tests whose host has been changed, see
+   *        {@link #restoreHosts}
+   */
+  private void assignHosts(QualityCenterRestClient client, Collection<QualityCenterTestInstance> tests,
+          File hostsFile, List<QualityCenterTestInstance> reassigned) throws IOException {
+    String host;
+    if(QualityCenter.RUN_MODE_REMOTE.equals(runMode)) {
+      host = runHost;
+    }
+    else if(QualityCenter.RUN_MODE_LOCAL.equals(runMode)) {
+      host = InetAddress.getLocalHost().getHostName();
+    }
+    else {
+      // RUN_PLANNED_HOST: nothing to do
+      return;
+    }
+
+    Map<QualityCenterTestInstance, String> hosts = new LinkedHashMap<QualityCenterTestInstance, String>();
+    for(QualityCenterTestInstance test : tests) {
+      hosts.put(test, host);
+    }
+    setHosts(client, hosts, hostsFile, reassigned);
+  }
+
+  /**
+   * Sets the host each test has to run on, unless it's already the planned
+   * one.
+   *
+   * <p>The REST API can only do this by updating the test instances: The
+   * hosts are changed in the test set itself, until {@link #restoreHosts}.
+   * They are first listed in {@code hostsFile}, so that the next build gives
+   * them back if this one is stopped before (see
+   * {@link #restoreStoppedBuildHosts}).</p>
+   */
+  private static void setHosts(QualityCenterRestClient client, Map<QualityCenterTestInstance, String> hosts,
+          File hostsFile, List<QualityCenterTestInstance> reassigned) throws IOException {
+    List<QualityCenterTestInstance> changed = new ArrayList<QualityCenterTestInstance>();
+    for(Map.Entry<QualityCenterTestInstance, String> host : hosts.entrySet()) {
+      if(!host.getValue().equals(host.getKey().getPlannedHost())) {
+        host.getKey().setAssignedHost(host.getValue());
+        changed.add(host.getKey());
+      }
+    }
+    if(changed.isEmpty()) {
+      return;
+    }
+
+    writeHostsFile(hostsFile, changed);
+    for(QualityCenterTestInstance test : changed) {
+      // the test is recorded first, in case the host is changed but the
+      // response gets lost
+      reassigned.add(test);
+      client.updateEntity("test-instances", "test-instance", test.getId(), Collections.singletonMap("host-name", test.getAssignedHost()));
+    }
+  }
+
+  /**
+   * Gives back the tests their planned host, logging rather than throwing
+   * the error if it can't be (the hosts are then given back by the next
+   * build).
+   */
+  private void restoreHosts(QualityCenterRestClient client, String testSetId, List<QualityCenterTestInstance> reassigned, File hostsFile) {
+    if(reassigned.isEmpty()) {
+      // the hosts a stopped build couldn't give back are left to the next
+      // build
+      return;
+    }
+    try {
+      giveBackHosts(client, testSetId, reassigned);
+      hostsFile.delete();
+    }
+    catch(IOException ioe) {
+      listener.error(Messages.QualityCenter_RestHostsNotRestored(ioe.getMessage()));
+    }
+  }
+
+  /**
+   * Gives back their planned host to the tests whose host was changed by a
+   * previous build, which was stopped before it could do it (e.g. because
+   * its node went offline).
+   */
+  private void restoreStoppedBuildHosts(QualityCenterRestClient client, String testSetId, File hostsFile) throws IOException {
+    if(!hostsFile.exists()) {
+      return;
+    }
+    listener.getLogger().println(Messages.QualityCenter_RestRestoringHosts());
+    giveBackHosts(client, testSetId, readHostsFile(hostsFile));
+    hostsFile.delete();
+  }
+
+  /**
+   * Gives back the tests their planned host, unless their host has been
+   * changed again since it was assigned (by someone editing the test set,
+   * or by a build which doesn't lock it): It's then left as is.
+   */
+  private void giveBackHosts(QualityCenterRestClient client, String testSetId, List<QualityCenterTestInstance> tests) throws IOException {
+    Map<String, String> currentHosts = new HashMap<String, String>();
+    for(Map<String, String> instance : client.getEntities("test-instances", "{cycle-id[" + testSetId + "]}", "id,host-name")) {
+      currentHosts.put(instance.get("id"), StringUtils.defaultString(instance.get("host-name")));
+    }
+
+    for(QualityCenterTestInstance test : tests) {
+      String currentHost = currentHosts.get(test.getId());
+      if(currentHost == null) {
+        // removed from the test set meanwhile
+        continue;
+      }
+      if(!currentHost.equals(test.getAssignedHost())) {
+        listener.getLogger().println(Messages.QualityCenter_RestHostChanged(test.getName(), currentHost));
+        continue;
+      }
+      client.updateEntity("test-instances", "test-instance", test.getId(),
+              Collections.singletonMap("host-name", StringUtils.defaultString(test.getPlannedHost())));
+    }
+  }
+
+  /**
+   * Lists the changed hosts, a "test instance ID, planned host, assigned
+   * host" line (separated by tabs) per test.
+   */
+  private static void writeHostsFile(File hostsFile, List<QualityCenterTestInstance> tests) throws IOException {
+    hostsFile.getParentFile().mkdirs();
+    Writer w = new OutputStreamWriter(new FileOutputStream(hostsFile), "UTF-8");
+    try {
+      for(QualityCenterTestInstance test : tests) {
+        w.write(test.getId() + '\t' + StringUtils.defaultString(test.getPlannedHost()) + '\t' + test.getAssignedHost() + "\r\n");
+      }
+    }
+    finally {
+      w.close();
+    }
+  }
+
+  private static List<QualityCenterTestInstance> readHostsFile(File hostsFile) throws IOException {
+    List<QualityCenterTestInstance> tests = new ArrayList<QualityCenterTestInstance>();
+    for(String line : FileUtils.readLines(hostsFile, "UTF-8")) {
+      String[] fields = line.split("\t", -1);
+      if(fields.length == 3) {
+        // only the ID of the test instance is known
+        QualityCenterTestInstance test = new QualityCenterTestInstance(fields[0], null, fields[0]);
+        test.setPlannedHost(StringUtils.trimToNull(fields[1]));
+        test.setAssignedHost(fields[2]);
+        tests.add(test);
+      }
+    }
+    return tests;
+  }
+
+  /**
+   * Spreads the tests over the hosts of the pool, see
+   * {@link QualityCenterHostPool}: As with {@link #assignHosts}, the planned
+   * hosts are given back afterwards.
+   *
+   * <p>Unlike {@code runTestSet.vbs}, the tests of a host which is down
+   * aren't run again on the other ones: they are only reported as not run
+   * because of their host, see {@link #getResults}.</p>
+   *
+   * @return when all the hosts are expected to be done, in milliseconds
+   */
+  private long spreadOverHosts(QualityCenterRestClient client, Collection<QualityCenterTestInstance> tests,
+          Map<String, Map<String, String>> previousRuns, File hostsFile, List<QualityCenterTestInstance> reassigned) throws IOException {
+    List<String> hosts = QualityCenterHostPool.parseHosts(runHost);
+    if(hosts.isEmpty()) {
+      throw new IOException(Messages.QualityCenter_HostPoolEmpty());
+    }
+
+    Map<QualityCenterTestInstance, Long> durations = new LinkedHashMap<QualityCenterTestInstance, Long>();
+    for(QualityCenterTestInstance test : tests) {
+      Long duration = expectedDurations.get(test.getName());
+      Map<String, String> previousRun = previousRuns.get(test.getId());
+      if(duration == null && previousRun != null && StringUtils.isNotEmpty(previousRun.get("duration"))) {
+        duration = Long.valueOf(previousRun.get("duration"));
+      }
+      durations.put(test, duration);
+    }
+    QualityCenterHostPool<QualityCenterTestInstance> pool = new QualityCenterHostPool<QualityCenterTestInstance>(hosts, durations);
+    hostPool = pool;
+
+    Map<QualityCenterTestInstance, String> assigned = new LinkedHashMap<QualityCenterTestInstance, String>();
+    for(QualityCenterTestInstance test : tests) {
+      assigned.put(test, pool.getHost(test));
+    }
+    setHosts(client, assigned, hostsFile, reassigned);
+    PrintStream out = listener.getLogger();
+    for(Map.Entry<String, Long> load : pool.getLoads().entrySet()) {
+      out.println(Messages.QualityCenter_HostPoolAssignment(load.getKey(), pool.getTestCount(load.getKey()),
+              Util.getTimeSpanString(load.getValue() * 1000)));
+    }
+    return pool.getExpectedDuration() * 1000;
+  }
+
+  private String startExecution(QualityCenterRestClient client, String testSetId) throws IOException {
+    // the duration of the execution has to be given in minutes
+    int duration = Math.max(1, (timeout + 59) / 60);
+    String response = client.post("test-sets/" + testSetId + "/startexecution",
+            "<StartRunEntityParameters>"
+            + "<UseSUTEnvironment>false</UseSUTEnvironment>"
+            + "<Duration>" + duration + "</Duration>"
+            + "</StartRunEntityParameters>");
+
+    String runId = QualityCenterRestClient.getElementText(response, "info");
+    if(!"1".equals(QualityCenterRestClient.getElementText(response, "SuccessStatus")) || runId == null) {
+      throw new QualityCenterRestClient.RestException(500, Messages.QualityCenter_RestCouldNotStart(response));
+    }
+    return runId;
+  }
+
+  /**
+   * Stops an execution which hasn't ended, logging rather than throwing the
+   * error if it can't be.
+   */
+  private void stopExecution(QualityCenterRestClient client, String runId) {
+    try {
+      client.post("procedure-runs/" + runId + "/stop", "");
+      listener.getLogger().println(Messages.QualityCenter_RestExecutionStopped(runId));
+    }
+    catch(IOException ioe) {
+      listener.error(Messages.QualityCenter_RestCouldNotStop(runId, ioe.getMessage()));
+    }
+  }
+
+  /**
+   * Polls the state of the execution until it ends or until the timeout is
+   * reached, writing the results of the tests to the report as they end.
+   *
+   * @param expectedDuration the expected duration of the execution, in
+   *        milliseconds ({@code 0} if unknown)
+   * @param lastRunId the ID of the last run of the test set before the
+   *        execution started
+   * @param pending the tests which haven't ended yet, by test instance ID
+   * @return {@code false} if the timeout has been reached
+   */
+  private boolean waitForCompletion(QualityCenterRestClient client, String runId, long expectedDuration,
+          String testSetId, String lastRunId, Map<String, QualityCenterTestInstance> pending,
+          QualityCenterJUnitWriter writer) throws IOException, InterruptedException {
+    PrintStream out = listener.getLogger();
+    QualityCenterPollScheduler scheduler = new QualityCenterPollScheduler(timeout * 1000L, expectedDuration);
+    String previousState = null;
+
+    try {
+      while(!scheduler.hasTimedOut()) {
+        long pollStart = System.currentTimeMillis();
+        String state = client.getEntity("procedure-runs", runId).get("state");
+        scheduler.recordPoll(System.currentTimeMillis() - pollStart);
+
+        if(state != null && !state.equals(previousState)) {
+          out.println(Messages.QualityCenter_RestExecutionState(state));
+          previousState = state;
+        }
+        if(isFinished(state)) {
+          return true;
+        }
+        saveEndedTests(client, testSetId, lastRunId, pending, writer);
+        scheduler.waitForNextPoll();
+      }
+      return false;
+    }
+    finally {
+      out.println(Messages.QualityCenter_RestPolls(scheduler.getPollCount(),
+              scheduler.getAverageLatency(), scheduler.getMaxLatency()));
+    }
+  }
+
+  /**
+   * Writes the results of the tests which ended since the last poll, and
+   * updates the report accordingly.
+   */
+  private void saveEndedTests(QualityCenterRestClient client, String testSetId, String lastRunId,
+          Map<String, QualityCenterTestInstance> pending, QualityCenterJUnitWriter writer) throws IOException {
+    List<QualityCenterTestInstance> ended = new ArrayList<QualityCenterTestInstance>();
+
+    // only the runs created by this execution are fetched
+    for(Map<String, String> run : client.getEntities("runs", "{cycle-id[" + testSetId + "];id[>" + lastRunId + "]}", "id,testcycl-id,status,duration")) {
+      String status = run.get("status");
+      QualityCenterTestInstance test = pending.get(run.get("testcycl-id"));
+      // other statuses are only known for sure once the execution is over
+      if(test != null && (QualityCenterTestInstance.STATUS_PASSED.equals(status) || QualityCenterTestInstance.STATUS_FAILED.equals(status))) {
+        updateTest(test, status, run);
+        ended.add(test);
+        if(hostPool != null) {
+          hostPool.recordOutcome(test, true);
+        }
+      }
+    }
+
+    if(!ended.isEmpty()) {
+      getFailedSteps(client, ended);
+      for(QualityCenterTestInstance test : ended) {
+        addSample(test);
+        writer.writeTestCase(test);
+        test.setFailureDetails(null);
+        pending.remove(test.getId());
+      }
+      writer.checkpoint();
+    }
+  }
+
+  /**
+   * Returns the expected duration of the execution of the test set, that is
+   * the sum of the durations of the last runs of its tests (in milliseconds).
+   *
+   * <p>This is an upper bound when the tests are run on several hosts.</p>
+   */
+  private static long getExpectedDuration(Map<String, Map<String, String>> lastRuns) {
+    long expectedDuration = 0;
+    for(Map<String, String> run : lastRuns.values()) {
+      String duration = run.get("duration");
+      if(duration != null && duration.length() > 0) {
+        expectedDuration += Long.parseLong(duration);
+      }
+    }
+    return expectedDuration * 1000;
+  }
+
+  private static boolean isFinished(String state) {
+    return "Finished".equalsIgnoreCase(state) || "Failed".equalsIgnoreCase(state)
+            || "Aborted".equalsIgnoreCase(state) || "Stopped".equalsIgnoreCase(state);
+  }
+
+  /**
+   * Updates the tests which haven't ended yet with the outcome of their last
+   * run, and writes each of them to the report as soon as it's known.
+   *
+   * <p>In {@link QualityCenter#RUN_MODE_HOST_POOL} mode, the tests which
+   * didn't run on a host considered down (see {@link QualityCenterHostPool})
+   * are reported as such.</p>
+   *
+   * @param previousRuns the last run of each test instance before the
+   *        execution started, see {@link #getLastRuns}
+   */
+  private void getResults(QualityCenterRestClient client, String testSetId, Map<String, Map<String, String>> previousRuns,
+          String lastRunId, Map<String, QualityCenterTestInstance> pending, QualityCenterJUnitWriter writer) throws IOException {
+    // only the runs created by this execution are fetched again
+    Map<String, Map<String, String>> lastRuns = new HashMap<String, Map<String, String>>(previousRuns);
+    lastRuns.putAll(getLastRuns(client, testSetId, lastRunId));
+
+    Map<String, String> statuses = new HashMap<String, String>();
+    for(Map<String, String> instance : client.getEntities("test-instances", "{cycle-id[" + testSetId + "]}", "id,status")) {
+      statuses.put(instance.get("id"), instance.get("status"));
+    }
+
+    List<QualityCenterTestInstance> notRun = new ArrayList<QualityCenterTestInstance>();
+    for(QualityCenterTestInstance test : pending.values()) {
+      String status = statuses.get(test.getId());
+      if(status == null) {
+        status = QualityCenterTestInstance.STATUS_NO_RUN;
+      }
+      Map<String, String> run = lastRuns.get(test.getId());
+      updateTest(test, status, run);
+
+      if(hostPool != null) {
+        boolean ran = run != null && Long.parseLong(run.get("id")) > Long.parseLong(lastRunId)
+                && (QualityCenterTestInstance.STATUS_PASSED.equals(status) || QualityCenterTestInstance.STATUS_FAILED.equals(status));
+        if(!ran) {
+          notRun.add(test);
+        }
+        if(hostPool.recordOutcome(test, ran)) {
+          listener.getLogger().println(Messages.QualityCenter_HostPoolHostDown(hostPool.getHost(test), QualityCenterHostPool.FAILURES_BEFORE_DOWN));
+        }
+      }
+    }
+    for(QualityCenterTestInstance test : notRun) {
+      if(hostPool.isDown(hostPool.getHost(test))) {
+        test.setFailureDetails(Messages.QualityCenter_HostPoolNotRunOnDownHost(test.getStatus(), hostPool.getHost(test)));
+      }
+    }
+    getFailedSteps(client, pending.values());
+
+    Iterator<QualityCenterTestInstance> tests = pending.values().iterator();
+    while(tests.hasNext()) {
+      QualityCenterTestInstance test = tests.next();
+      addSample(test);
+      writer.writeTestCase(test);
+      // the details, which can be large, are not needed anymore
+      test.setFailureDetails(null);
+      tests.remove();
+    }
+  }
+
+  /**
+   * Records the outcome of a test, if it ran.
+   */
+  private void addSample(QualityCenterTestInstance test) {
+    if(test.getRunId() != null && !QualityCenterTestInstance.STATUS_NO_RUN.equals(test.getStatus())) {
+      samples.add(new QualityCenterDurationStore.Sample(test.getName(), test.getDuration(), test.getStatus()));
+    }
+  }
+
+  /**
+   * Updates a test with its status and its last run: The failed steps of
+   * the failed tests are fetched afterwards, see {@link #getFailedSteps}.
+   *
+   * @param run the last run of the test, if any
+   */
+  private void updateTest(QualityCenterTestInstance test, String status, Map<String, String> run) {
+    test.setStatus(status);
+    test.setRunId(run != null ? run.get("id") : null);
+
+    if(run != null && run.get("duration") != null && run.get("duration").length() > 0) {
+      test.setDuration(Long.parseLong(run.get("duration")));
+    }
+
+    if(QualityCenterTestInstance.STATUS_PASSED.equals(status)) {
+      test.setFailureMessage(null);
+    }
+    else if(QualityCenterTestInstance.STATUS_FAILED.equals(status) && run != null) {
+      test.setFailureMessage(status);
+      test.setFailureDetails(null);
+    }
+    else {
+      test.setFailureMessage(status);
+      test.setFailureDetails(status);
+    }
+  }
+
+  /**
+   * Returns the ID of the most recent of the given runs, {@code "0"} if
+   * there's none.
+   */
+  private static String getLastRunId(Map<String, Map<String, String>> runs) {
+    long lastRunId = 0;
+    for(Map<String, String> run : runs.values()) {
+      lastRunId = Math.max(lastRunId, Long.parseLong(run.get("id")));
+    }
+    return String.valueOf(lastRunId);
+  }
+
+  /**
+   * Returns the last run of each test instance of the test set, indexed by
+   * test instance ID.
+   *
+   * @param afterRunId only the runs whose ID is greater are looked up
+   *        ({@code "0"} for all of them)
+   */
+  private static Map<String, Map<String, String>> getLastRuns(QualityCenterRestClient client, String testSetId,
+          String afterRunId) throws IOException {
+    Map<String, Map<String, String>> lastRuns = new HashMap<String, Map<String, String>>();
+    String query = "{cycle-id[" + testSetId + "]" + ("0".equals(afterRunId) ? "" : ";id[>" + afterRunId + "]") + "}";
+    // the last run of each test instance is the one with the highest ID
+    for(Map<String, String> run : client.getEntities("runs", query, "id,testcycl-id,status,duration")) {
+      Map<String, String> previous = lastRuns.get(run.get("testcycl-id"));
+      if(previous == null || Long.parseLong(run.get("id")) > Long.parseLong(previous.get("id"))) {
+        lastRuns.put(run.get("testcycl-id"), run);
+      }
+    }
+    return lastRuns;
+  }
+
+  /**
+   * Sets the description of the failed steps of the last run of the given
+   * tests which failed (this is what {@code GenerateFailedLog} does in
+   * {@code runTestSet.vbs}), fetching them by batches; when step details are
+   * deferred, only the runs are recorded.
+   */
+  private void getFailedSteps(QualityCenterRestClient client, Collection<QualityCenterTestInstance> tests) throws IOException {
+    // failed tests, by run ID
+    Map<String, QualityCenterTestInstance> failed = new LinkedHashMap<String, QualityCenterTestInstance>();
+    for(QualityCenterTestInstance test : tests) {
+      if(QualityCenterTestInstance.STATUS_FAILED.equals(test.getStatus()) && test.getRunId() != null) {
+        failed.put(test.getRunId(), test);
+      }
+    }
+
+    if(deferStepDetails) {
+      for(QualityCenterTestInstance test : failed.values()) {
+        test.setFailureDetails(test.getStatus());
+        failedRuns.put(test.getName(), test.getRunId());
+      }
+      return;
+    }
+
+    Map<String, StringBuilder> failedSteps = new HashMap<String, StringBuilder>();
+    List<String> runIds = new ArrayList<String>(failed.keySet());
+    for(int i = 0; i < runIds.size(); i += STEPS_BATCH_SIZE) {
+      List<String> batch = runIds.subList(i, Math.min(i + STEPS_BATCH_SIZE, runIds.size()));
+      for(Map<String, String> step : client.getEntities("run-steps",
+              "{parent-id[" + StringUtils.join(batch, " OR ") + "];status[Failed]}", "id,parent-id,description")) {
+        StringBuilder steps = failedSteps.get(step.get("parent-id"));
+        if(steps == null) {
+          steps = new StringBuilder();
+          failedSteps.put(step.get("parent-id"), steps);
+        }
+        steps.append(stripHtml(step.get("description"))).append("\r\n");
+      }
+    }
+    for(Map.Entry<String, QualityCenterTestInstance> entry : failed.entrySet()) {
+      StringBuilder steps = failedSteps.get(entry.getKey());
+      entry.getValue().setFailureDetails(steps != null ? steps.toString() : "");
+    }
+  }
+
+  /**
+   * Quotes a value to be used in a query.
+   */
+  private static String quote(String value) {
+    return '"' + value.replace("\"", "\\\"") + '"';
+  }
+
+  static String stripHtml(String value) {
+    if(value == null) {
+      return "";
+    }
+    return value.replace("<html><body>", "").replace("</body></html>", "").trim();
+  }
+
+}
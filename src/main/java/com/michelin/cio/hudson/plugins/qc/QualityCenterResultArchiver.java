@@ -27,8 +27,10 @@
 package com.michelin.cio.hudson.plugins.qc;
 
 import hudson.Extension;
+import hudson.FilePath;
 import hudson.FilePath.FileCallable;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.AbortException;
 import hudson.matrix.MatrixAggregatable;
 import hudson.matrix.MatrixAggregator;
@@ -37,23 +39,23 @@ import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Action;
 import hudson.model.BuildListener;
-import hudson.model.Project;
 import hudson.model.Result;
 import hudson.remoting.VirtualChannel;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
-import hudson.tasks.Builder;
 import hudson.tasks.Publisher;
 import hudson.tasks.Recorder;
 import hudson.tasks.junit.TestResult;
 import hudson.tasks.junit.TestResultAction;
 import hudson.tasks.test.TestResultAggregator;
-import hudson.tasks.test.TestResultProjectAction;
 import org.apache.tools.ant.DirectoryScanner;
 import org.kohsuke.stapler.DataBoundConstructor;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -73,16 +75,12 @@ public class QualityCenterResultArchiver extends Recorder implements Serializabl
   @Override
   public boolean perform(AbstractBuild build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
       TestResultAction action;
-      List<Builder> builders = ((Project)build.getProject()).getBuilders();
       final List<String> names = new ArrayList<String>();
-      // Get the TestSet report files names of the current build
-      for(Builder builder : builders) {
-          if(builder instanceof QualityCenter) {
-              List<String> files = ((QualityCenter) builder).getTestSetLogFiles();
-              if(files != null && files.size() > 0) { // log files may not have been generated
-                  names.addAll(((QualityCenter) builder).getTestSetLogFiles());
-              }
-          }
+      // Get the TestSet report files names of the current build, which have
+      // been registered by the QualityCenter build steps
+      QualityCenterBuildAction qcAction = build.getAction(QualityCenterBuildAction.class);
+      if(qcAction != null) {
+          names.addAll(qcAction.getReportFiles());
       }
 
       // Has any QualityCenter builder been set up?
@@ -93,47 +91,112 @@ public class QualityCenterResultArchiver extends Recorder implements Serializabl
 
       try {
           final long buildTime = build.getTimestamp().getTimeInMillis();
-          final long nowMaster = System.currentTimeMillis();
 
-          TestResult result = build.getWorkspace().act(new FileCallable<TestResult>() {
-              public TestResult invoke(File ws, VirtualChannel channel) throws IOException {
+          // The reports are read once, on the node, with a streaming parser:
+          // They are summarized and their failure details which are too long
+          // are stored apart while they are copied to a staging directory,
+          // which is then sent (compressed) to the build directory. The test
+          // result is still built on the master, from these copies
+          final long nowMaster = System.currentTimeMillis();
+          Staged staged = build.getWorkspace().act(new FileCallable<Staged>() {
+              public Staged invoke(File ws, VirtualChannel channel) throws IOException {
                   final long nowSlave = System.currentTimeMillis();
-                  List<String> files = new ArrayList<String>();
-                  DirectoryScanner ds = new DirectoryScanner();
-                  ds.setBasedir(ws);
-
-                  // Transform the report file names list to a File Array,
-                  // and add it to the DirectoryScanner includes set
-                  for(String name : names) {
-                      if(name != null) {  // JENKINS-12389
-                          File file = new File(ws, name);
-                          if(file.exists()) {
-                              files.add(file.getName());
+                  File dir = File.createTempFile("qualitycenter", null);
+                  if(!dir.delete() || !dir.mkdir()) {
+                      throw new IOException("Failed to create " + dir);
+                  }
+                  boolean done = false;
+                  try {
+                      Staged staged = new Staged(dir.getAbsolutePath(), nowSlave);
+                      QualityCenterFailureStore failures = new QualityCenterFailureStore(dir);
+                      try {
+                          for(String name : names) {
+                              if(name != null) {  // JENKINS-12389
+                                  File file = new File(ws, name);
+                                  if(file.exists()) {
+                                      // reports from different directories can have the same name
+                                      String target = staged.summary.getReportCount() + "-" + file.getName();
+                                      InputStream in = new FileInputStream(file);
+                                      try {
+                                          failures.copy(new BufferedInputStream(in), new File(dir, target), staged.summary, name);
+                                      }
+                                      finally {
+                                          in.close();
+                                      }
+                                      staged.includes.add(target);
+                                  }
+                              }
                           }
                       }
-                  }
+                      finally {
+                          failures.close();
+                      }
+                      staged.failureCount = failures.getCount();
 
-                  Object[] objectArray = new String[files.size()];
-                  files.toArray(objectArray);
-                  ds.setIncludes((String[])objectArray);
-                  ds.scan();
-                  if(ds.getIncludedFilesCount()==0) {
-                      // no test result. Most likely a configuration error or fatal problem
-                      throw new AbortException("Report not found");
+                      if(staged.summary.getReportCount()==0) {
+                          // no test result. Most likely a configuration error or fatal problem
+                          throw new AbortException("Report not found");
+                      }
+                      done = true;
+                      return staged;
+                  }
+                  finally {
+                      if(!done) {
+                          Util.deleteRecursive(dir);
+                      }
                   }
-
-                  return new TestResult(buildTime+(nowSlave-nowMaster), ds, true);
               }
           });
+          FilePath stagingDir = new FilePath(build.getWorkspace().getChannel(), staged.dir);
+          QualityCenterResultSummary summary = staged.summary;
+          File reportsDir = getReportsDir(build);
+          try {
+              if(summary.getPassCount()==0 && summary.getFailCount()==0) {
+                  throw new AbortException("Result is empty");
+              }
+              listener.getLogger().println(Messages.QualityCenterResultArchiver_Summary(
+                      summary.size(), summary.getReportCount(), summary.getFailCount(), summary.getSkipCount()));
+
+              Util.deleteRecursive(reportsDir);
+              reportsDir.mkdirs();
+              stagingDir.copyRecursiveTo(new FilePath(reportsDir));
+          }
+          finally {
+              stagingDir.deleteRecursive();
+          }
 
-          action = new TestResultAction(build, result, listener);
-          if(result.getPassCount()==0 && result.getFailCount()==0) {
-              throw new AbortException("Result is empty");
+          // The JUnit test result is built on the master from the copies of
+          // the reports, which only hold the previews of the long details.
+          // The copies keep the last modification time the reports have on
+          // the node, so the build time is shifted by the clock skew
+          String[] includes = staged.includes.toArray(new String[staged.includes.size()]);
+          DirectoryScanner ds = new DirectoryScanner();
+          ds.setBasedir(reportsDir);
+          ds.setIncludes(includes);
+          ds.scan();
+
+          action = new TestResultAction(build, new TestResult(buildTime+(staged.nowSlave-nowMaster), ds, true), listener);
+
+          // the record of the outcome of the tests, for the trend of the project
+          List<String> testSetNames = new ArrayList<String>(summary.getReportCount());
+          for(int i = 0; i < summary.getReportCount(); i++) {
+              testSetNames.add(getTestSetName(qcAction, summary.getReport(i)));
+          }
+          QualityCenterResultRecord record = QualityCenterResultRecord.create(summary, testSetNames);
+          record.save(reportsDir);
+          qcAction.setResultRecord(record);
+
+          if(staged.failureCount > 0) {
+              listener.getLogger().println(Messages.QualityCenterResultArchiver_FailuresStored(
+                      staged.failureCount, QualityCenterFailureStore.THRESHOLD));
+              List<TestResultAction.Data> data = new ArrayList<TestResultAction.Data>();
+              data.add(new QualityCenterFailureStore.Data());
+              action.setData(data);
           }
       } catch (AbortException e) {
-          if(build.getResult()==Result.FAILURE) {
-              // most likely a build failed before it gets to the test phase.
-              // don't report confusing error message.
+          if(build.getResult()!=null && build.getResult().isWorseOrEqualTo(Result.FAILURE)) {
+              // most likely a build failed (or was aborted) before it gets to
+              // the test phase. don't report confusing error message.
               return true;
           }
 
@@ -148,16 +211,57 @@ public class QualityCenterResultArchiver extends Recorder implements Serializabl
 
       build.getActions().add(action);
 
-      if(action.getResult().getFailCount()>0) {
+      if(action.getFailCount()>0) {
           build.setResult(Result.UNSTABLE);
       }
 
       return true;
   }
 
+  /**
+   * What is left on the node once the reports have been copied.
+   */
+  private static class Staged implements Serializable {
+      private static final long serialVersionUID = 1L;
+
+      /** The staging directory, on the node. */
+      private final String dir;
+      /** The names of the copies, in the staging directory. */
+      private final List<String> includes = new ArrayList<String>();
+      private final QualityCenterResultSummary summary = new QualityCenterResultSummary();
+      /** The number of failure details which have been stored apart. */
+      private int failureCount;
+      /** The time on the node when the reports were read. */
+      private final long nowSlave;
+
+      private Staged(String dir, long nowSlave) {
+          this.dir = dir;
+          this.nowSlave = nowSlave;
+      }
+  }
+
+  /**
+   * Returns the name of the TestSet which generated the given report.
+   */
+  private static String getTestSetName(QualityCenterBuildAction qcAction, String report) {
+      for(QualityCenterBuildAction.TestSet testSet : qcAction.getTestSets()) {
+          if(report.equals(testSet.getReportFile())) {
+              return testSet.getName();
+          }
+      }
+      return report;
+  }
+
+  /**
+   * Returns the directory where the reports of the given build are kept.
+   */
+  public static File getReportsDir(AbstractBuild<?, ?> build) {
+      return new File(build.getRootDir(), "qualitycenter");
+  }
+
   @Override
   public Action getProjectAction(AbstractProject<?, ?> project) {
-      return new TestResultProjectAction(project);
+      return new QualityCenterProjectAction(project);
   }
 
   public MatrixAggregator createAggregator(MatrixBuild build, Launcher launcher, BuildListener listener) {
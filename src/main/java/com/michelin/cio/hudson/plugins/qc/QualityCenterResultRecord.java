@@ -0,0 +1,267 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.Util;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The outcome of the QC tests of a build, by status and by TestSet.
+ *
+ * <p>It is written by {@link QualityCenterResultArchiver} next to the
+ * reports it archives, in a small properties file, so that the trend of the
+ * project ({@link QualityCenterProjectAction}) can be drawn without loading
+ * the test results of all the builds.</p>
+ */
+public class QualityCenterResultRecord {
+
+  static final String FILE = "summary.properties";
+
+  private final int passCount;
+  private final int failCount;
+  private final int errorCount;
+  private final int skipCount;
+  /** In seconds. */
+  private final float duration;
+  private final List<TestSet> testSets;
+
+  QualityCenterResultRecord(int passCount, int failCount, int errorCount, int skipCount, float duration, List<TestSet> testSets) {
+    this.passCount = passCount;
+    this.failCount = failCount;
+    this.errorCount = errorCount;
+    this.skipCount = skipCount;
+    this.duration = duration;
+    this.testSets = Collections.unmodifiableList(testSets);
+  }
+
+  /**
+   * Sums up the test cases of the given summary.
+   *
+   * @param testSetNames the name of the TestSet of each report of the summary
+   */
+  public static QualityCenterResultRecord create(QualityCenterResultSummary summary, List<String> testSetNames) {
+    int[][] counts = new int[summary.getReportCount()][4];
+    float[] durations = new float[summary.getReportCount()];
+    for(int i = 0; i < summary.size(); i++) {
+      counts[summary.getReportIndex(i)][summary.getStatus(i)]++;
+      durations[summary.getReportIndex(i)] += summary.getDuration(i);
+    }
+
+    List<TestSet> testSets = new ArrayList<TestSet>(counts.length);
+    for(int r = 0; r < counts.length; r++) {
+      testSets.add(new TestSet(testSetNames.get(r),
+              counts[r][QualityCenterResultSummary.PASSED], counts[r][QualityCenterResultSummary.FAILED],
+              counts[r][QualityCenterResultSummary.ERROR], counts[r][QualityCenterResultSummary.SKIPPED], durations[r]));
+    }
+    return new QualityCenterResultRecord(
+            summary.getCount(QualityCenterResultSummary.PASSED), summary.getCount(QualityCenterResultSummary.FAILED),
+            summary.getCount(QualityCenterResultSummary.ERROR), summary.getCount(QualityCenterResultSummary.SKIPPED),
+            summary.getDuration(), testSets);
+  }
+
+  /**
+   * Writes the record to the given directory.
+   */
+  public void save(File dir) throws IOException {
+    Properties properties = new Properties();
+    put(properties, "", passCount, failCount, errorCount, skipCount, duration);
+    properties.setProperty("testSets", Integer.toString(testSets.size()));
+    for(int i = 0; i < testSets.size(); i++) {
+      TestSet testSet = testSets.get(i);
+      properties.setProperty("testSet." + i + ".name", testSet.getName());
+      put(properties, "testSet." + i + ".", testSet.passCount, testSet.failCount, testSet.errorCount, testSet.skipCount, testSet.duration);
+    }
+
+    OutputStream out = new FileOutputStream(new File(dir, FILE));
+    try {
+      properties.store(out, null);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static void put(Properties properties, String prefix, int passCount, int failCount, int errorCount, int skipCount, float duration) {
+    properties.setProperty(prefix + "passed", Integer.toString(passCount));
+    properties.setProperty(prefix + "failed", Integer.toString(failCount));
+    properties.setProperty(prefix + "errors", Integer.toString(errorCount));
+    properties.setProperty(prefix + "skipped", Integer.toString(skipCount));
+    properties.setProperty(prefix + "duration", Float.toString(duration));
+  }
+
+  /**
+   * Reads the record written to the given directory.
+   *
+   * @return {@code null} if there's none
+   */
+  public static QualityCenterResultRecord load(File dir) throws IOException {
+    File file = new File(dir, FILE);
+    if(!file.isFile()) {
+      return null;
+    }
+
+    Properties properties = new Properties();
+    InputStream in = new FileInputStream(file);
+    try {
+      properties.load(in);
+    }
+    finally {
+      in.close();
+    }
+
+    try {
+      int count = Integer.parseInt(properties.getProperty("testSets", "0"));
+      List<TestSet> testSets = new ArrayList<TestSet>(count);
+      for(int i = 0; i < count; i++) {
+        String prefix = "testSet." + i + ".";
+        testSets.add(new TestSet(properties.getProperty(prefix + "name"),
+                getInt(properties, prefix + "passed"), getInt(properties, prefix + "failed"),
+                getInt(properties, prefix + "errors"), getInt(properties, prefix + "skipped"),
+                Float.parseFloat(properties.getProperty(prefix + "duration", "0"))));
+      }
+      return new QualityCenterResultRecord(
+              getInt(properties, "passed"), getInt(properties, "failed"),
+              getInt(properties, "errors"), getInt(properties, "skipped"),
+              Float.parseFloat(properties.getProperty("duration", "0")), testSets);
+    }
+    catch(NumberFormatException nfe) {
+      IOException ioe = new IOException("Failed to read " + file);
+      ioe.initCause(nfe);
+      throw ioe;
+    }
+  }
+
+  private static int getInt(Properties properties, String key) {
+    return Integer.parseInt(properties.getProperty(key, "0"));
+  }
+
+  public int getPassCount() {
+    return passCount;
+  }
+
+  /**
+   * Returns the number of tests which failed, including the ones in error
+   * (as JUnit does).
+   */
+  public int getFailCount() {
+    return failCount + errorCount;
+  }
+
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  public int getSkipCount() {
+    return skipCount;
+  }
+
+  public int getTotalCount() {
+    return passCount + failCount + errorCount + skipCount;
+  }
+
+  /**
+   * Returns the total duration of the tests, in seconds.
+   */
+  public float getDuration() {
+    return duration;
+  }
+
+  public String getDurationString() {
+    return Util.getTimeSpanString((long) (duration * 1000));
+  }
+
+  public List<TestSet> getTestSets() {
+    return testSets;
+  }
+
+  /**
+   * The outcome of the tests of one of the TestSets.
+   */
+  public static class TestSet {
+
+    private final String name;
+    private final int passCount;
+    private final int failCount;
+    private final int errorCount;
+    private final int skipCount;
+    private final float duration;
+
+    TestSet(String name, int passCount, int failCount, int errorCount, int skipCount, float duration) {
+      this.name = name;
+      this.passCount = passCount;
+      this.failCount = failCount;
+      this.errorCount = errorCount;
+      this.skipCount = skipCount;
+      this.duration = duration;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getPassCount() {
+      return passCount;
+    }
+
+    /**
+     * Returns the number of tests which failed, including the ones in error.
+     */
+    public int getFailCount() {
+      return failCount + errorCount;
+    }
+
+    public int getErrorCount() {
+      return errorCount;
+    }
+
+    public int getSkipCount() {
+      return skipCount;
+    }
+
+    public int getTotalCount() {
+      return passCount + failCount + errorCount + skipCount;
+    }
+
+    public float getDuration() {
+      return duration;
+    }
+
+    public String getDurationString() {
+      return Util.getTimeSpanString((long) (duration * 1000));
+    }
+
+  }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of all the test cases of the JUnit reports of a build, without
+ * their failure messages and details.
+ *
+ * <p>This is what {@link QualityCenterResultArchiver} gets back from the node
+ * the reports have been written on: It is filled there while the reports are
+ * copied by the {@link QualityCenterFailureStore}. The test cases are stored
+ * by columns (primitive arrays for their durations and statuses, names shared
+ * by all the test cases which have the same one) so that the summary stays
+ * small even for tens of thousands of tests.</p>
+ */
+public class QualityCenterResultSummary implements Serializable {
+
+  public static final byte PASSED = 0;
+  public static final byte FAILED = 1;
+  public static final byte ERROR = 2;
+  public static final byte SKIPPED = 3;
+
+  private static final long serialVersionUID = 1L;
+
+  /** The reports, relative to the workspace. */
+  private final List<String> reports = new ArrayList<String>();
+  /** Number of test cases. */
+  private int size;
+  /** Index, in {@link #reports}, of the report of each test case. */
+  private int[] reportIndexes = new int[64];
+  private String[] suites = new String[64];
+  private String[] names = new String[64];
+  /** In seconds. */
+  private float[] durations = new float[64];
+  private byte[] statuses = new byte[64];
+  /** Names already met, so that each one is only stored once. */
+  private transient Map<String, String> namePool = new HashMap<String, String>();
+
+  /**
+   * Adds a report, whose test cases are then added with {@link #addTestCase}.
+   *
+   * @param name the report, relative to the workspace
+   * @return the index of the report
+   */
+  int addReport(String name) {
+    reports.add(name);
+    return reports.size() - 1;
+  }
+
+  /**
+   * Adds a test case, which has passed until its status is set.
+   *
+   * @param time the duration of the test case, as found in the report
+   * @return the index of the test case
+   */
+  int addTestCase(int reportIndex, String suite, String name, String time) {
+    return add(reportIndex, suite, name, parseDuration(time));
+  }
+
+  void setStatus(int testCase, byte status) {
+    statuses[testCase] = status;
+  }
+
+  private static float parseDuration(String time) {
+    if(time == null) {
+      return 0;
+    }
+    try {
+      return Float.parseFloat(time.replace(",", ""));
+    }
+    catch(NumberFormatException nfe) {
+      return 0;
+    }
+  }
+
+  private int add(int reportIndex, String suite, String name, float duration) {
+    if(size == names.length) {
+      int capacity = size * 2;
+      reportIndexes = Arrays.copyOf(reportIndexes, capacity);
+      suites = Arrays.copyOf(suites, capacity);
+      names = Arrays.copyOf(names, capacity);
+      durations = Arrays.copyOf(durations, capacity);
+      statuses = Arrays.copyOf(statuses, capacity);
+    }
+    reportIndexes[size] = reportIndex;
+    suites[size] = intern(suite);
+    names[size] = intern(name);
+    durations[size] = duration;
+    statuses[size] = PASSED;
+    return size++;
+  }
+
+  private String intern(String value) {
+    if(value == null) {
+      return null;
+    }
+    if(namePool == null) {
+      namePool = new HashMap<String, String>();
+    }
+    String pooled = namePool.get(value);
+    if(pooled == null) {
+      namePool.put(value, value);
+      pooled = value;
+    }
+    return pooled;
+  }
+
+  /**
+   * Only the test cases are sent, not the room left to add more of them.
+   */
+  private Object writeReplace() {
+    reportIndexes = Arrays.copyOf(reportIndexes, size);
+    suites = Arrays.copyOf(suites, size);
+    names = Arrays.copyOf(names, size);
+    durations = Arrays.copyOf(durations, size);
+    statuses = Arrays.copyOf(statuses, size);
+    return this;
+  }
+
+  public int getReportCount() {
+    return reports.size();
+  }
+
+  public String getReport(int index) {
+    return reports.get(index);
+  }
+
+  /**
+   * Returns the number of test cases.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the index of the report of the given test case.
+   */
+  public int getReportIndex(int testCase) {
+    return reportIndexes[testCase];
+  }
+
+  public String getSuite(int testCase) {
+    return suites[testCase];
+  }
+
+  public String getName(int testCase) {
+    return names[testCase];
+  }
+
+  /**
+   * Returns the duration of the given test case, in seconds.
+   */
+  public float getDuration(int testCase) {
+    return durations[testCase];
+  }
+
+  public byte getStatus(int testCase) {
+    return statuses[testCase];
+  }
+
+  /**
+   * Returns the number of test cases with the given status.
+   */
+  public int getCount(byte status) {
+    int count = 0;
+    for(int i = 0; i < size; i++) {
+      if(statuses[i] == status) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public int getPassCount() {
+    return getCount(PASSED);
+  }
+
+  /**
+   * Returns the number of test cases which failed, including the ones in
+   * error (as JUnit does).
+   */
+  public int getFailCount() {
+    return getCount(FAILED) + getCount(ERROR);
+  }
+
+  public int getSkipCount() {
+    return getCount(SKIPPED);
+  }
+
+  /**
+   * Returns the total duration of the test cases, in seconds.
+   */
+  public float getDuration() {
+    float duration = 0;
+    for(int i = 0; i < size; i++) {
+      duration += durations[i];
+    }
+    return duration;
+  }
+
+}
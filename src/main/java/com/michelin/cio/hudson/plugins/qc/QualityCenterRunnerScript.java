@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.FilePath;
+import hudson.FilePath.FileCallable;
+import hudson.Util;
+import hudson.model.Hudson;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * The VBScript used to run the TestSets through the OTA client, as stored on
+ * the nodes.
+ *
+ * <p>Rather than being copied into the workspace (and deleted) by each
+ * build, the script is copied once on each node, into
+ * {@code tools/qualitycenter/<hash>} under the node's root: A new version of
+ * the plugin bringing a new script gets a new directory.</p>
+ */
+public final class QualityCenterRunnerScript {
+
+  static final String SCRIPT_NAME = "runTestSet.vbs";
+  private static final String TOOLS_DIR = "tools/qualitycenter";
+  /** Number of characters of the SHA-1 of the script used to name its directory. */
+  private static final int HASH_LENGTH = 12;
+
+  /** Content of the script, read once from the plugin. */
+  private static byte[] content;
+  private static String hash;
+
+  private QualityCenterRunnerScript() {
+  }
+
+  /**
+   * Returns the script on the given node, copying it there if it isn't yet.
+   *
+   * @return {@code null} if the script isn't bundled with the plugin
+   */
+  public static FilePath get(Node node, TaskListener listener) throws IOException, InterruptedException {
+    if(!load()) {
+      return null;
+    }
+
+    FilePath root = node.getRootPath();
+    if(root == null) {
+      throw new IOException(node.getDisplayName() + " is offline");
+    }
+    FilePath script = root.child(TOOLS_DIR).child(hash).child(SCRIPT_NAME);
+    if(!script.exists()) {
+      listener.getLogger().println(Messages.QualityCenter_CopyingVBScript(script.getRemote()));
+      script.getParent().act(new Install(content));
+    }
+    return script;
+  }
+
+  private static synchronized boolean load() throws IOException {
+    if(content != null) {
+      return true;
+    }
+
+    URL url = Hudson.getInstance().pluginManager.uberClassLoader.getResource(SCRIPT_NAME);
+    if(url == null) {
+      return false;
+    }
+    InputStream is = url.openStream();
+    try {
+      content = IOUtils.toByteArray(is);
+    }
+    finally {
+      is.close();
+    }
+    try {
+      hash = Util.toHexString(MessageDigest.getInstance("SHA-1").digest(content)).substring(0, HASH_LENGTH);
+    }
+    catch(NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    return true;
+  }
+
+  /**
+   * Writes the script into its directory on the node, and removes the other
+   * versions of the script.
+   */
+  static class Install implements FileCallable<Void> {
+
+    private final byte[] content;
+
+    Install(byte[] content) {
+      this.content = content;
+    }
+
+    public Void invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+      File script = new File(dir, SCRIPT_NAME);
+      if(script.exists()) {
+        // copied by another build in the meantime
+        return null;
+      }
+
+      // The script is written under a temporary name first, so that
+      // concurrent builds never run a partial script
+      dir.mkdirs();
+      File temp = File.createTempFile(SCRIPT_NAME, ".tmp", dir);
+      try {
+        OutputStream os = new FileOutputStream(temp);
+        try {
+          os.write(content);
+        }
+        finally {
+          os.close();
+        }
+        if(!temp.renameTo(script) && !script.exists()) {
+          throw new IOException("Unable to move " + temp + " to " + script);
+        }
+      }
+      finally {
+        temp.delete();
+      }
+
+      // The previous versions are cleaned up, if they aren't in use
+      File[] versions = dir.getParentFile().listFiles();
+      if(versions != null) {
+        for(File version : versions) {
+          if(!version.equals(dir)) {
+            try {
+              Util.deleteRecursive(version);
+            }
+            catch(IOException ioe) {
+              // will be done by the next version
+            }
+          }
+        }
+      }
+      return null;
+    }
+
+  }
+
+}
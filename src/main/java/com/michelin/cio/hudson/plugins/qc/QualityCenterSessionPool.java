@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.Util;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps authenticated {@link QualityCenterRestClient}s around so that all the
+ * TestSets of a build step (and, optionally, of the builds which come next on
+ * the same node) share a single Quality Center session.
+ *
+ * <p>Logging into Quality Center is slow and each session consumes a license:
+ * Sessions are thus either owned by a build step, and closed at the end of it
+ * (see {@link #release(String)}), or shared by all the build steps run on the
+ * node and closed once they haven't been used for a given time.</p>
+ *
+ * <p>This pool lives in the JVM of the node which runs the TestSets.</p>
+ */
+public final class QualityCenterSessionPool {
+
+  /** How often idle sessions are looked for. */
+  private static final long REAPER_PERIOD = TimeUnit.MINUTES.toMillis(1);
+
+  private static final Map<String, Session> SESSIONS = new HashMap<String, Session>();
+  private static Timer reaper;
+
+  private QualityCenterSessionPool() {
+  }
+
+  /**
+   * Gets an authenticated client, reusing an existing session if possible.
+   *
+   * @param owner the build step the session belongs to; {@code null} if the
+   *        session can be shared by all the build steps run on this node
+   * @param timeToLive how long a shared session can stay idle, in milliseconds
+   * @return the client, to be handed back using {@link #release(QualityCenterRestClient)}
+   */
+  public static QualityCenterRestClient acquire(String serverURL, String login, String password,
+          String domain, String project, String owner, long timeToLive) throws IOException {
+    // the password is part of the key so that a session isn't reused once
+    // the password has been changed
+    String key = serverURL + '|' + login + '|' + Util.getDigestOf(String.valueOf(password))
+            + '|' + domain + '|' + project + '|' + owner;
+
+    Session session;
+    synchronized(SESSIONS) {
+      session = SESSIONS.get(key);
+      if(session == null) {
+        session = new Session(new QualityCenterRestClient(serverURL, domain, project), owner, timeToLive);
+        SESSIONS.put(key, session);
+        if(owner == null) {
+          startReaper();
+        }
+      }
+      session.users++;
+      session.lastUsed = System.currentTimeMillis();
+    }
+
+    // logging in is done outside the pool lock, so that slow servers don't
+    // hold the other TestSets; concurrent callers wait for the session to
+    // be opened
+    synchronized(session) {
+      try {
+        if(!session.client.isLoggedIn()) {
+          session.client.login(login, password);
+          session.logins++;
+        }
+      } catch(IOException ioe) {
+        release(session.client);
+        throw ioe;
+      }
+    }
+
+    return session.client;
+  }
+
+  /**
+   * Hands back a client obtained through {@link #acquire}.
+   */
+  public static void release(QualityCenterRestClient client) {
+    synchronized(SESSIONS) {
+      for(Session session : SESSIONS.values()) {
+        if(session.client == client) {
+          session.users--;
+          session.lastUsed = System.currentTimeMillis();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Closes all the sessions owned by the given build step.
+   */
+  public static void release(String owner) {
+    for(Session session : remove(owner, 0)) {
+      session.client.logout();
+    }
+  }
+
+  /**
+   * Returns how many times the sessions of the given build step had to be
+   * opened (1 per distinct server/project when they're properly reused).
+   */
+  public static int getLogins(String owner) {
+    int logins = 0;
+    synchronized(SESSIONS) {
+      for(Session session : SESSIONS.values()) {
+        if(owner == null ? session.owner == null : owner.equals(session.owner)) {
+          logins += session.logins + session.client.getReauthentications();
+        }
+      }
+    }
+    return logins;
+  }
+
+  /**
+   * Removes the sessions of {@code owner} (or the idle shared sessions if
+   * {@code owner} is {@code null}) from the pool.
+   */
+  private static List<Session> remove(String owner, long now) {
+    List<Session> removed = new ArrayList<Session>();
+    synchronized(SESSIONS) {
+      Iterator<Session> it = SESSIONS.values().iterator();
+      while(it.hasNext()) {
+        Session session = it.next();
+        boolean expired = owner == null && session.owner == null && session.users <= 0
+                && now - session.lastUsed > session.timeToLive;
+        if(expired || (owner != null && owner.equals(session.owner))) {
+          it.remove();
+          removed.add(session);
+        }
+      }
+      if(reaper != null && SESSIONS.isEmpty()) {
+        reaper.cancel();
+        reaper = null;
+      }
+    }
+    return removed;
+  }
+
+  private static void startReaper() {
+    if(reaper != null) {
+      return;
+    }
+    reaper = new Timer("Quality Center session reaper", true);
+    reaper.schedule(new TimerTask() {
+      @Override
+      public void run() {
+        reap(System.currentTimeMillis());
+      }
+    }, REAPER_PERIOD, REAPER_PERIOD);
+  }
+
+  /**
+   * Closes the shared sessions which have been idle for longer than their
+   * time to live.
+   */
+  static void reap(long now) {
+    for(Session session : remove(null, now)) {
+      session.client.logout();
+    }
+  }
+
+  private static final class Session {
+
+    private final QualityCenterRestClient client;
+    private final String owner;
+    private final long timeToLive;
+    /** Number of TestSets currently using the session. */
+    private int users;
+    private long lastUsed;
+    private int logins;
+
+    private Session(QualityCenterRestClient client, String owner, long timeToLive) {
+      this.client = client;
+      this.owner = owner;
+      this.timeToLive = timeToLive;
+    }
+
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import groovy.text.GStringTemplateEngine;
+import groovy.text.Template;
+import hudson.model.Hudson;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders the templates bundled with the plugin, such as the silent install
+ * script of the QTP Add-in.
+ *
+ * <p>Compiling a template is much more expensive than rendering it, so each
+ * template is only compiled the first time it is rendered, and then reused
+ * for all the installations. Renderers using another template language only
+ * have to implement {@link #compile(URL)}.</p>
+ */
+public abstract class QualityCenterTemplateRenderer {
+
+  /** Renderer for the Groovy {@code GString} templates. */
+  public static final QualityCenterTemplateRenderer GSTRING = new GStringRenderer();
+
+  /** Compiled templates, by resource name. */
+  private final ConcurrentMap<String, CompiledTemplate> templates = new ConcurrentHashMap<String, CompiledTemplate>();
+
+  /**
+   * A compiled template, which must be safe to render from several threads.
+   */
+  public interface CompiledTemplate {
+    String render(Map<String, ?> binding) throws Exception;
+  }
+
+  /**
+   * Compiles the given template.
+   */
+  protected abstract CompiledTemplate compile(URL template) throws Exception;
+
+  /**
+   * Renders the template bundled with the plugin under the given name.
+   */
+  public String render(String name, Map<String, ?> binding) throws Exception {
+    CompiledTemplate template = templates.get(name);
+    if(template == null) {
+      URL url = getResource(name);
+      if(url == null) {
+        throw new IOException("Couldn't find the template " + name);
+      }
+      // in the worst case, the template is compiled by several threads
+      template = compile(url);
+      CompiledTemplate previous = templates.putIfAbsent(name, template);
+      if(previous != null) {
+        template = previous;
+      }
+    }
+    return template.render(binding);
+  }
+
+  /**
+   * Looks up the template bundled with the plugin under the given name.
+   */
+  protected URL getResource(String name) {
+    return Hudson.getInstance().pluginManager.uberClassLoader.getResource(name);
+  }
+
+  static class GStringRenderer extends QualityCenterTemplateRenderer {
+
+    @Override
+    protected CompiledTemplate compile(URL url) throws Exception {
+      final Template template = new GStringTemplateEngine().createTemplate(url);
+      return new CompiledTemplate() {
+        public String render(Map<String, ?> binding) {
+          // make() works on a copy of the template
+          return template.make(binding).toString();
+        }
+      };
+    }
+
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of a test instance (a "TSTest" in OTA terms) of a test set.
+ *
+ * <p>This is the Java counterpart of the {@code QCTest} and {@code QCFailure}
+ * classes of {@code runTestSet.vbs}.</p>
+ */
+public class QualityCenterTestInstance implements Serializable {
+
+  public final static String STATUS_NO_RUN = "No Run";
+  public final static String STATUS_PASSED = "Passed";
+  public final static String STATUS_FAILED = "Failed";
+
+  private static final long serialVersionUID = 1L;
+
+  /** ID of the test instance in the test set. */
+  private final String id;
+  /** ID of the test in the test plan. */
+  private final String testId;
+  private final String name;
+  private String status = STATUS_NO_RUN;
+  /** Duration of the last run, in seconds. */
+  private long duration;
+  /** Short failure message, {@code null} if the test passed. */
+  private String failureMessage = STATUS_NO_RUN;
+  /** Detailed failure description (typically the failed steps). */
+  private String failureDetails;
+  /** ID of the last run, {@code null} if unknown. */
+  private String runId;
+  /** Host the test is planned to run on in the test set, {@code null} if none. */
+  private String plannedHost;
+  /** Host the test has been given instead of the planned one, {@code null} if none. */
+  private String assignedHost;
+
+  public QualityCenterTestInstance(String id, String testId, String name) {
+    this.id = id;
+    this.testId = testId;
+    this.name = name;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getTestId() {
+    return testId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public long getDuration() {
+    return duration;
+  }
+
+  public void setDuration(long duration) {
+    this.duration = duration;
+  }
+
+  public String getFailureMessage() {
+    return failureMessage;
+  }
+
+  public void setFailureMessage(String failureMessage) {
+    this.failureMessage = failureMessage;
+  }
+
+  public String getFailureDetails() {
+    return failureDetails;
+  }
+
+  public void setFailureDetails(String failureDetails) {
+    this.failureDetails = failureDetails;
+  }
+
+  public String getRunId() {
+    return runId;
+  }
+
+  public void setRunId(String runId) {
+    this.runId = runId;
+  }
+
+  public String getPlannedHost() {
+    return plannedHost;
+  }
+
+  public void setPlannedHost(String plannedHost) {
+    this.plannedHost = plannedHost;
+  }
+
+  public String getAssignedHost() {
+    return assignedHost;
+  }
+
+  public void setAssignedHost(String assignedHost) {
+    this.assignedHost = assignedHost;
+  }
+
+  public boolean isPassed() {
+    return failureMessage == null;
+  }
+
+  /**
+   * Tests which didn't run are reported with their status as the failure
+   * type, as done by {@code runTestSet.vbs}.
+   */
+  public boolean isNotRun() {
+    return STATUS_NO_RUN.equals(status) || "Not Completed".equals(status) || "Blocked".equals(status) || "N/A".equals(status);
+  }
+
+}
@@ -0,0 +1,547 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.FilePath.FileCallable;
+import hudson.Launcher.LocalLauncher;
+import hudson.Util;
+import hudson.model.BuildListener;
+import hudson.model.StreamBuildListener;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.ArgumentListBuilder;
+import hudson.util.DaemonThreadFactory;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Runs all the test sets of a {@link QualityCenter} build step.
+ *
+ * <p>Everything which has to be known to run the test sets (their names, the
+ * names of their reports, the engine, the run mode...) is resolved on the
+ * master beforehand, so that the whole build step is run on the node
+ * performing the build through a single remote call, which only returns a
+ * {@link Summary}.</p>
+ */
+public class QualityCenterTestSetsRunner implements FileCallable<QualityCenterTestSetsRunner.Summary> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String engine;
+  private final String serverURL;
+  private final String login;
+  private final String password;
+  private final String domain;
+  private final String project;
+  private final String testSetFolder;
+  private final String[] testSetNames;
+  /** Name of the report of each test set, relative to the workspace. */
+  private final String[] reportFiles;
+  /** Timeout, in seconds. */
+  private final int timeout;
+  private final String runMode;
+  private final String runHost;
+  private final int maxConcurrentTestSets;
+  /** See {@link QualityCenterSessionPool#acquire}. */
+  private final String sessionOwner;
+  /** In milliseconds. */
+  private final long sessionTimeToLive;
+  /** Path to the VBScript, when test sets are run through it. */
+  private final String vbScript;
+  /** See {@link QualityCenter#CONSOLE_OUTPUTS}. */
+  private final String consoleOutput;
+  /** Whether the failed steps are only fetched if someone looks at them. */
+  private final boolean deferStepDetails;
+  /**
+   * Expected duration of the tests of each test set, in seconds, by test
+   * name, when they are spread over a pool of hosts.
+   */
+  private final List<Map<String, Long>> expectedDurations;
+  private final TaskListener listener;
+
+  public QualityCenterTestSetsRunner(String engine, String serverURL, String login, String password,
+          String domain, String project, String testSetFolder, String[] testSetNames, String[] reportFiles,
+          int timeout, String runMode, String runHost, int maxConcurrentTestSets,
+          String sessionOwner, long sessionTimeToLive, String vbScript, String consoleOutput, boolean deferStepDetails,
+          List<Map<String, Long>> expectedDurations, TaskListener listener) {
+    this.engine = engine;
+    this.serverURL = serverURL;
+    this.login = login;
+    this.password = password;
+    this.domain = domain;
+    this.project = project;
+    this.testSetFolder = testSetFolder;
+    this.testSetNames = testSetNames;
+    this.reportFiles = reportFiles;
+    this.timeout = timeout;
+    this.runMode = runMode;
+    this.runHost = runHost;
+    this.maxConcurrentTestSets = maxConcurrentTestSets;
+    this.sessionOwner = sessionOwner;
+    this.sessionTimeToLive = sessionTimeToLive;
+    this.vbScript = vbScript;
+    this.consoleOutput = consoleOutput;
+    this.deferStepDetails = deferStepDetails;
+    this.expectedDurations = expectedDurations;
+    this.listener = listener;
+  }
+
+  public String getDomain() {
+    return domain;
+  }
+
+  public String getProject() {
+    return project;
+  }
+
+  public String getTestSetFolder() {
+    return testSetFolder;
+  }
+
+  public Summary invoke(File workspace, VirtualChannel channel) throws IOException, InterruptedException {
+    // Reports are written while the TestSets are running: The ones of a
+    // previous build mustn't be archived if this build is aborted
+    for(String reportFile : reportFiles) {
+      new File(workspace, reportFile).delete();
+    }
+
+    File script = null;
+    if(QualityCenter.ENGINE_VBSCRIPT.equals(engine)) {
+      script = new File(vbScript);
+    }
+
+    List<int[]> groups = getGroups(script != null);
+    Summary summary = new Summary(testSetNames.length);
+    try {
+      if(maxConcurrentTestSets <= 1 || groups.size() == 1) {
+        for(int[] group : groups) {
+          if(!runGroup(workspace, script, group, true, summary, listener, null)) {
+            break;
+          }
+        }
+      }
+      else {
+        runGroupsConcurrently(workspace, script, groups, summary);
+      }
+    }
+    finally {
+      if(sessionOwner != null) {
+        summary.logins = QualityCenterSessionPool.getLogins(sessionOwner);
+        QualityCenterSessionPool.release(sessionOwner);
+      }
+    }
+
+    return summary;
+  }
+
+  /**
+   * Returns the indexes of the test sets which are run one after the other,
+   * the groups themselves being run at the same time.
+   *
+   * <p>Each test set is a group of its own when run through the REST API,
+   * whose sessions are reused anyway, while a cscript process logs in
+   * Quality Center each time it's started: Test sets are then dealt out to as
+   * few processes as possible.</p>
+   */
+  private List<int[]> getGroups(boolean vbScript) {
+    int count = testSetNames.length;
+    if(vbScript) {
+      count = Math.max(1, Math.min(maxConcurrentTestSets, testSetNames.length));
+    }
+    List<int[]> groups = new ArrayList<int[]>(count);
+    for(int g = 0; g < count; g++) {
+      int[] group = new int[(testSetNames.length - g + count - 1) / count];
+      for(int i = 0; i < group.length; i++) {
+        group[i] = g + i * count;
+      }
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  private void runGroupsConcurrently(final File workspace, final File script, final List<int[]> groups, final Summary summary) throws InterruptedException {
+    int threads = groups.size();
+    listener.getLogger().println(Messages.QualityCenter_RunningTestSetsConcurrently(testSetNames.length, threads));
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+    try {
+      List<BuildListener> listeners = new ArrayList<BuildListener>();
+      List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for(final int[] group : groups) {
+        final QualityCenterPrefixedOutputStream prefixed = new QualityCenterPrefixedOutputStream(
+                listener.getLogger(), testSetNames[group[0]]);
+        final BuildListener groupListener = new StreamBuildListener(prefixed, Charset.defaultCharset());
+        listeners.add(groupListener);
+        results.add(executor.submit(new Callable<Boolean>() {
+          public Boolean call() throws IOException, InterruptedException {
+            return runGroup(workspace, script, group, false, summary, groupListener, prefixed);
+          }
+        }));
+      }
+
+      // Wait for all the TestSets to be run
+      for(int g = 0; g < groups.size(); g++) {
+        try {
+          results.get(g).get();
+        }
+        catch(ExecutionException ee) {
+          if(ee.getCause() instanceof IOException) {
+            Util.displayIOException((IOException) ee.getCause(), listeners.get(g));
+          }
+          ee.getCause().printStackTrace(listeners.get(g).error(Messages.QualityCenter_TSSchedulerFailed()));
+        }
+        finally {
+          listeners.get(g).getLogger().flush();
+        }
+      }
+
+      int failures = 0;
+      for(boolean testSetSucceeded : summary.succeeded) {
+        if(!testSetSucceeded) {
+          failures++;
+        }
+      }
+      if(failures > 0) {
+        listener.fatalError(Messages.QualityCenter_TestSetsFailed(failures, testSetNames.length));
+      }
+    }
+    finally {
+      // If the build has been aborted, the TestSets which are still running
+      // get interrupted
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Runs a group of test sets one after the other.
+   *
+   * @param script the VBScript, {@code null} if the test sets have to be run
+   *        through the REST API
+   * @param stopOnFailure whether the next test sets are skipped as soon as one
+   *        of them can't be run
+   * @param prefixed the stream the log of the group is written to, so that
+   *        its lines are prefixed with the name of the test set being run;
+   *        {@code null} if they aren't prefixed
+   * @return whether all the test sets of the group have been run successfully
+   */
+  private boolean runGroup(File workspace, File script, int[] group, boolean stopOnFailure, Summary summary,
+          TaskListener listener, QualityCenterPrefixedOutputStream prefixed) throws IOException, InterruptedException {
+    if(script != null) {
+      return runVBScript(workspace, script, group, stopOnFailure, summary, listener, prefixed);
+    }
+
+    boolean succeeded = true;
+    for(int index : group) {
+      summary.succeeded[index] = runTestSet(workspace, index, summary, listener);
+      if(!summary.succeeded[index]) {
+        succeeded = false;
+        if(stopOnFailure) {
+          break;
+        }
+      }
+    }
+    return succeeded;
+  }
+
+  /**
+   * Runs a test set through the REST API.
+   */
+  private boolean runTestSet(File workspace, int index, Summary summary, TaskListener listener) throws IOException, InterruptedException {
+    QualityCenterRestRunner runner = new QualityCenterRestRunner(serverURL, login, password, domain, project,
+            testSetFolder, testSetNames[index], reportFiles[index], timeout, runMode, runHost,
+            sessionOwner, sessionTimeToLive, deferStepDetails, getExpectedDurations(index), listener);
+
+    boolean succeeded = runner.invoke(workspace, null);
+    summary.setFailedRuns(index, runner.getFailedRuns());
+    summary.setSamples(index, runner.getSamples());
+    if(!succeeded) {
+      listener.fatalError(Messages.QualityCenter_TSSchedulerFailed());
+      return false;
+    }
+    return true;
+  }
+
+  private Map<String, Long> getExpectedDurations(int index) {
+    if(index < expectedDurations.size()) {
+      return expectedDurations.get(index);
+    }
+    return Collections.emptyMap();
+  }
+
+  /**
+   * Runs a group of test sets through a single cscript process, which only
+   * connects once to Quality Center.
+   */
+  private boolean runVBScript(File workspace, File script, int[] group, boolean stopOnFailure, Summary summary,
+          TaskListener listener, QualityCenterPrefixedOutputStream prefixed) throws IOException, InterruptedException {
+    ArgumentListBuilder args = new ArgumentListBuilder();
+    PrintStream out = listener.getLogger();
+
+    // Use cscript to run the vbscript and get the console output
+    args.add("cscript");
+    args.add("/nologo");
+    args.add(script.getPath());
+    args.add(serverURL);
+    args.add(login);
+
+    // If no password, then replace by ""
+    if(StringUtils.isNotBlank(password)) {
+      args.addMasked(password);
+    }
+    else {
+      args.addMasked("\"\"");
+    }
+    args.add(domain);
+    args.add(project);
+    args.add(testSetFolder);
+    args.add(testSetNames[group[0]]);
+    args.add(reportFiles[group[0]]);
+    args.add(String.valueOf(timeout));
+    args.add(runMode);
+    if(runMode.equals(QualityCenter.RUN_MODE_REMOTE) || runMode.equals(QualityCenter.RUN_MODE_HOST_POOL)) {
+      args.add(runHost);
+    }
+    boolean changes = QualityCenter.CONSOLE_OUTPUT_CHANGES.equals(consoleOutput);
+    if(changes) {
+      args.add("/output:" + consoleOutput);
+    }
+    if(deferStepDetails) {
+      args.add("/steps:deferred");
+    }
+    if(!stopOnFailure) {
+      args.add("/onerror:continue");
+    }
+    if(runMode.equals(QualityCenter.RUN_MODE_HOST_POOL)) {
+      args.add("/hostfailures:" + QualityCenterHostPool.FAILURES_BEFORE_DOWN);
+    }
+
+    // the test sets, and the expected durations of their tests, are given to
+    // the script through files, as there can be a lot of them
+    List<File> files = new ArrayList<File>();
+    Writer w = null;
+    try {
+      File testSets = File.createTempFile("qctestsets", ".txt");
+      files.add(testSets);
+      w = new OutputStreamWriter(new FileOutputStream(testSets), "UTF-8");
+      for(int index : group) {
+        w.write(testSetNames[index] + "\t" + reportFiles[index]);
+        if(runMode.equals(QualityCenter.RUN_MODE_HOST_POOL) && !getExpectedDurations(index).isEmpty()) {
+          File durations = File.createTempFile("qcdurations", ".txt");
+          files.add(durations);
+          writeExpectedDurations(durations, getExpectedDurations(index));
+          w.write("\t" + durations.getPath());
+        }
+        w.write("\r\n");
+      }
+      w.close();
+      args.add("/testsets:" + testSets.getPath());
+
+      // Run the script on the node, where this is already executed, following
+      // the events it sends (lines are only omitted when just the changes are
+      // logged)
+      QualityCenterLogWriter log = new QualityCenterLogWriter(out, changes);
+      QualityCenterEventStream events = new QualityCenterEventStream(log, changes, prefixed);
+      try {
+        // the outcome of each test set is known from the events, whatever the
+        // exit code
+        new LocalLauncher(listener).launch().cmds(args).stdout(events).pwd(workspace).join();
+      }
+      finally {
+        events.close();
+        // the reports are only ended by the script once their test set is
+        // over
+        for(int index : group) {
+          QualityCenterJUnitWriter.endReport(new File(workspace, reportFiles[index]));
+        }
+        out.println(Messages.QualityCenter_ConsoleOutput(log.getLines(), log.getBytes() / 1024,
+                log.getOmittedLines(), log.getOmittedBytes() / 1024));
+      }
+      return checkOutcomes(workspace, group, events, summary, listener, prefixed);
+    }
+    finally {
+      IOUtils.closeQuietly(w);
+      for(File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  private static void writeExpectedDurations(File file, Map<String, Long> durations) throws IOException {
+    Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    try {
+      for(Map.Entry<String, Long> duration : durations.entrySet()) {
+        w.write(duration.getValue() + "\t" + duration.getKey() + "\r\n");
+      }
+    }
+    finally {
+      w.close();
+    }
+  }
+
+  /**
+   * Tells from the events sent by the VBScript which test sets of a group
+   * have been run successfully.
+   */
+  private boolean checkOutcomes(File workspace, int[] group, QualityCenterEventStream events,
+          Summary summary, TaskListener listener, QualityCenterPrefixedOutputStream prefixed) throws IOException {
+    // the script stops running the test sets on the first one which fails,
+    // unless told to go on
+    int started = events.getTestSetCount();
+    boolean succeeded = true;
+    for(int i = 0; i < group.length; i++) {
+      int index = group[i];
+      if(i > 0 && i >= started) {
+        succeeded = false;
+        continue;
+      }
+      if(prefixed != null) {
+        prefixed.setPrefix(testSetNames[index]);
+      }
+
+      QualityCenterEventStream.Outcome outcome = events.getOutcome(i);
+      if(deferStepDetails) {
+        summary.setFailedRuns(index, outcome.getFailedRuns());
+      }
+      summary.setSamples(index, outcome.getSamples());
+      File report = new File(workspace, reportFiles[index]);
+      if("passed".equals(outcome.getStatus()) || "failed".equals(outcome.getStatus())) {
+        // Has the report been successfuly generated?
+        summary.succeeded[index] = report.exists();
+        if(!summary.succeeded[index]) {
+          listener.fatalError(Messages.QualityCenter_ReportNotGenerated());
+          succeeded = false;
+        }
+        continue;
+      }
+
+      listener.fatalError(Messages.QualityCenter_TSSchedulerFailed());
+      succeeded = false;
+      // The script already reported the error it stopped on if it sent the
+      // outcome of the execution
+      if(!outcome.isFinished() && report.exists()) {
+        PrintStream out = listener.getLogger();
+        InputStream is = new FileInputStream(report);
+        InputStreamReader in = new InputStreamReader(is, "UTF-8");
+        try {
+            // Copy the report, which holds the error, to our logger
+            OutputStreamWriter w = new OutputStreamWriter(out);
+            IOUtils.copy(in, w);
+            w.flush();
+        } finally {
+            in.close();
+            is.close();
+        }
+      }
+    }
+    return succeeded;
+  }
+
+  /**
+   * What is sent back to the master once all the test sets have been run.
+   */
+  public static final class Summary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Whether each test set has been run successfully. */
+    private final boolean[] succeeded;
+    /** How many times the build step had to log in, {@code -1} if unknown. */
+    private int logins = -1;
+    /**
+     * Last run of each failed test of each test set, by test name, when
+     * step details are deferred.
+     */
+    private final List<Map<String, String>> failedRuns;
+    /** Outcome of the tests of each test set which ended. */
+    private final List<List<QualityCenterDurationStore.Sample>> samples;
+
+    Summary(int testSets) {
+      this.succeeded = new boolean[testSets];
+      this.failedRuns = new ArrayList<Map<String, String>>(testSets);
+      this.samples = new ArrayList<List<QualityCenterDurationStore.Sample>>(testSets);
+      for(int i = 0; i < testSets; i++) {
+        failedRuns.add(Collections.<String, String>emptyMap());
+        samples.add(Collections.<QualityCenterDurationStore.Sample>emptyList());
+      }
+    }
+
+    public boolean isSucceeded() {
+      for(boolean testSetSucceeded : succeeded) {
+        if(!testSetSucceeded) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    public synchronized Map<String, String> getFailedRuns(int testSet) {
+      return failedRuns.get(testSet);
+    }
+
+    synchronized void setFailedRuns(int testSet, Map<String, String> runs) {
+      failedRuns.set(testSet, new LinkedHashMap<String, String>(runs));
+    }
+
+    public synchronized List<QualityCenterDurationStore.Sample> getSamples(int testSet) {
+      return samples.get(testSet);
+    }
+
+    synchronized void setSamples(int testSet, List<QualityCenterDurationStore.Sample> testSetSamples) {
+      samples.set(testSet, new ArrayList<QualityCenterDurationStore.Sample>(testSetSamples));
+    }
+
+    public boolean isSucceeded(int testSet) {
+      return succeeded[testSet];
+    }
+
+    public int getLogins() {
+      return logins;
+    }
+
+  }
+
+}
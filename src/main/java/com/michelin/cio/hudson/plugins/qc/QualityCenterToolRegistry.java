@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+import hudson.tools.ToolInstallation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry, on the master, of where the Quality Center client and the QTP
+ * Add-in are installed on each node.
+ *
+ * <p>Finding a tool on a node takes several remote calls (the installers
+ * check for the {@code .installedByHudson} marker and for the tool's files,
+ * and the path to {@code OTAClient.dll} is then checked again). They are
+ * only made the first time a tool is used on a node: The result is kept
+ * here until the node reconnects, the tool is installed again or its
+ * configuration changes.</p>
+ */
+public final class QualityCenterToolRegistry {
+
+  /** Entries by node name, then by {@link #getKey(ToolInstallation) tool}. */
+  private static final Map<String, Map<String, Entry>> ENTRIES = new ConcurrentHashMap<String, Map<String, Entry>>();
+
+  private QualityCenterToolRegistry() {
+  }
+
+  /**
+   * Returns the state of the given tool on the given node.
+   *
+   * @return {@code null} if the tool hasn't been looked for on that node
+   *         since it connected
+   */
+  public static Entry get(Node node, ToolInstallation tool) {
+    return get(node.getNodeName(), tool);
+  }
+
+  static Entry get(String nodeName, ToolInstallation tool) {
+    Map<String, Entry> entries = ENTRIES.get(nodeName);
+    return entries != null ? entries.get(getKey(tool)) : null;
+  }
+
+  /**
+   * Records where the given tool has been found (or installed) on the given
+   * node.
+   *
+   * @param source where the tool has been installed from, {@code null} if it
+   *        has only been found
+   */
+  public static Entry put(Node node, ToolInstallation tool, String home, String source) {
+    return put(node.getNodeName(), tool, home, source);
+  }
+
+  static Entry put(String nodeName, ToolInstallation tool, String home, String source) {
+    Map<String, Entry> entries;
+    synchronized(ENTRIES) {
+      entries = ENTRIES.get(nodeName);
+      if(entries == null) {
+        entries = new ConcurrentHashMap<String, Entry>();
+        ENTRIES.put(nodeName, entries);
+      }
+    }
+
+    Entry previous = entries.get(getKey(tool));
+    if(source == null && previous != null && home.equals(previous.getHome())) {
+      // the tool has been found where it had been installed
+      source = previous.getSource();
+    }
+    Entry entry = new Entry(nodeName, tool.getName(), home, source);
+    entries.put(getKey(tool), entry);
+    return entry;
+  }
+
+  /**
+   * Forgets about the tools of the given node.
+   */
+  public static void invalidate(String nodeName) {
+    ENTRIES.remove(nodeName);
+  }
+
+  /**
+   * Forgets about the given type of tool on all the nodes, when its
+   * configuration changes.
+   */
+  public static void invalidate(Class<? extends ToolInstallation> type) {
+    String prefix = type.getName() + ':';
+    for(Map<String, Entry> entries : ENTRIES.values()) {
+      for(String key : entries.keySet()) {
+        if(key.startsWith(prefix)) {
+          entries.remove(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the state of the given tool on all the nodes, sorted by node name.
+   */
+  public static List<Entry> getEntries(ToolInstallation tool) {
+    List<Entry> list = new ArrayList<Entry>();
+    for(Map<String, Entry> entries : ENTRIES.values()) {
+      Entry entry = entries.get(getKey(tool));
+      if(entry != null) {
+        list.add(entry);
+      }
+    }
+    Collections.sort(list, new Comparator<Entry>() {
+      public int compare(Entry e1, Entry e2) {
+        return e1.getNodeName().compareTo(e2.getNodeName());
+      }
+    });
+    return list;
+  }
+
+  private static String getKey(ToolInstallation tool) {
+    return tool.getClass().getName() + ':' + tool.getName();
+  }
+
+  /**
+   * State of a tool on a node.
+   */
+  public static final class Entry {
+
+    private final String nodeName;
+    private final String toolName;
+    private final String home;
+    private final String source;
+    private final long validated = System.currentTimeMillis();
+    /** Path to {@code OTAClient.dll}, for the Quality Center client. */
+    private String qcDll;
+    /** Home, with the environment variables expanded, where {@link #qcDll} has been found. */
+    private String qcDllHome;
+
+    private Entry(String nodeName, String toolName, String home, String source) {
+      this.nodeName = nodeName;
+      this.toolName = toolName;
+      this.home = home;
+      this.source = source;
+    }
+
+    public String getNodeName() {
+      return nodeName;
+    }
+
+    public String getToolName() {
+      return toolName;
+    }
+
+    public String getHome() {
+      return home;
+    }
+
+    /**
+     * Returns where the tool has been installed from by Hudson.
+     *
+     * @return {@code null} if it has been found on the node
+     */
+    public String getSource() {
+      return source;
+    }
+
+    /**
+     * Returns when the tool has been found or installed on the node.
+     */
+    public Date getValidated() {
+      return new Date(validated);
+    }
+
+    /**
+     * Returns the path to {@code OTAClient.dll} in the given home.
+     *
+     * @return {@code null} if it hasn't been found there yet
+     */
+    public synchronized String getQCDll(String expandedHome) {
+      return expandedHome.equals(qcDllHome) ? qcDll : null;
+    }
+
+    public synchronized void setQCDll(String expandedHome, String qcDll) {
+      this.qcDllHome = expandedHome;
+      this.qcDll = qcDll;
+    }
+
+  }
+
+  /**
+   * Forgets about the tools of the nodes which reconnect: They may have been
+   * reinstalled, or uninstalled, in the meantime. They are then installed
+   * again, if needed, by {@link QualityCenterPrewarm}.
+   */
+  @Extension
+  public static class ComputerListenerImpl extends ComputerListener {
+
+    @Override
+    public void onOnline(Computer computer, TaskListener listener) {
+      invalidate(computer.getName());
+      if(QualityCenterPrewarm.ON_ONLINE) {
+        QualityCenterPrewarm.prewarm(computer);
+      }
+    }
+
+    @Override
+    public void onOffline(Computer computer) {
+      invalidate(computer.getName());
+    }
+
+  }
+
+}
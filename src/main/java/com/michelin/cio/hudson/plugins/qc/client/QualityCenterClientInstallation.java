@@ -26,6 +26,7 @@ package com.michelin.cio.hudson.plugins.qc.client;
 
 import com.michelin.cio.hudson.plugins.qc.Messages;
 import com.michelin.cio.hudson.plugins.qc.QualityCenter;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterToolRegistry;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.Functions;
@@ -73,17 +74,39 @@ public class QualityCenterClientInstallation extends ToolInstallation implements
     Computer computer = node.toComputer();
     if(computer instanceof SlaveComputer && !((SlaveComputer) computer).isUnix()) {
         computer = null;
-        return new QualityCenterClientInstallation(getName(), translateFor(node, log));
+        return new QualityCenterClientInstallation(getName(), getHome(node, log));
     }
     
     // Is the job running on the master node?
     if(Functions.isWindows()) {
-      return new QualityCenterClientInstallation(getName(), translateFor(node, log));
+      return new QualityCenterClientInstallation(getName(), getHome(node, log));
     }
 
     return null;
   }
 
+  /**
+   * Returns the home of this installation on the given node, which is only
+   * looked for (and installed, if needed) the first time.
+   */
+  private String getHome(Node node, TaskListener log) throws IOException, InterruptedException {
+    QualityCenterToolRegistry.Entry entry = QualityCenterToolRegistry.get(node, this);
+    if(entry != null) {
+      return entry.getHome();
+    }
+    String home = translateFor(node, log);
+    QualityCenterToolRegistry.put(node, this, home, null);
+    return home;
+  }
+
+  /**
+   * Returns the state of this installation on the nodes where it has been
+   * used.
+   */
+  public List<QualityCenterToolRegistry.Entry> getNodeStates() {
+    return QualityCenterToolRegistry.getEntries(this);
+  }
+
   public QualityCenterClientInstallation forEnvironment(EnvVars environment) {
     return new QualityCenterClientInstallation(getName(), environment.expand(getHome()));
   }
@@ -103,6 +126,22 @@ public class QualityCenterClientInstallation extends ToolInstallation implements
     });
   }
 
+  /**
+   * Returns the path to {@code OTAClient.dll} on the given node, which is
+   * only looked for the first time.
+   */
+  public String getQCDll(Node node, Launcher launcher) throws IOException, InterruptedException {
+    QualityCenterToolRegistry.Entry entry = QualityCenterToolRegistry.get(node, this);
+    if(entry != null && entry.getQCDll(getHome()) != null) {
+      return entry.getQCDll(getHome());
+    }
+    String qcDll = getQCDll(launcher);
+    if(entry != null && qcDll != null) {
+      entry.setQCDll(getHome(), qcDll);
+    }
+    return qcDll;
+  }
+
   private File getDllFile() {
     String home = Util.replaceMacro(getHome(), EnvVars.masterEnvVars);
     return new File(home, QualityCenterClientInstaller.DLL_NAME);
@@ -25,6 +25,9 @@
 package com.michelin.cio.hudson.plugins.qc.client;
 
 import com.michelin.cio.hudson.plugins.qc.Messages;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterInstallLock;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterInstallerCache;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterToolRegistry;
 import com.michelin.cio.hudson.plugins.qc.QualityCenterUtils;
 import hudson.AbortException;
 import hudson.Extension;
@@ -81,6 +84,21 @@ public class QualityCenterClientInstaller extends ToolInstaller {
   @Override
   public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log) throws IOException, InterruptedException {
     FilePath expectedLocation = preferredLocation(tool, node);
+
+    // Only one build at a time installs the client on a node, the others
+    // wait for it and then find the client installed
+    QualityCenterInstallLock lock = QualityCenterInstallLock.acquire(node, expectedLocation, log);
+    try {
+      FilePath home = performInstallation(expectedLocation, node, log);
+      QualityCenterToolRegistry.put(node, tool, home.getRemote(), localPathToQCClient != null && localPathToQCClient.length() > 0 ? localPathToQCClient : qcServerURL);
+      return home;
+    }
+    finally {
+      lock.release();
+    }
+  }
+
+  private FilePath performInstallation(FilePath expectedLocation, Node node, TaskListener log) throws IOException, InterruptedException {
     PrintStream out = log.getLogger();
     FilePath qcFolder = expectedLocation.child(DLL_PATH_ON_NODE);
 
@@ -114,7 +132,7 @@ public class QualityCenterClientInstaller extends ToolInstaller {
       out.println(Messages.QualityCenterClientInstaller_CopyingFromMaster(localPathToQCClient));
       file.copyFrom(installerOnMaster);
     }
-    // Else, download it from Quality Center Server
+    // Else, download it from Quality Center Server (through the cache of the master)
     else {
       String url;
       // Add a "/" at the end of the URL if it isnt already
@@ -124,9 +142,7 @@ public class QualityCenterClientInstaller extends ToolInstaller {
       else {
         url = qcServerURL + "/" + INSTALLER_PATH_ON_SERVER + INSTALLLER_FILE_NAME;
       }
-      URL installURL = new URL(url);
-      out.println(Messages.QualityCenterClientInstaller_Downloading(installURL));
-      file.copyFrom(installURL);
+      QualityCenterInstallerCache.copyTo(new URL(url), file, log);
     }
 
     // Perform installation
@@ -26,6 +26,7 @@ package com.michelin.cio.hudson.plugins.qc.qtpaddins;
 
 import com.michelin.cio.hudson.plugins.qc.Messages;
 import com.michelin.cio.hudson.plugins.qc.QualityCenter;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterToolRegistry;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.Functions;
@@ -80,17 +81,39 @@ public class QualityCenterQTPAddinsInstallation extends ToolInstallation impleme
     Computer computer = node.toComputer();
     if(computer instanceof SlaveComputer && !((SlaveComputer) computer).isUnix()) {
         computer = null;
-        return new QualityCenterQTPAddinsInstallation(getName(), translateFor(node, log));
+        return new QualityCenterQTPAddinsInstallation(getName(), getHome(node, log));
     }
 
     // Is the job running on the master node?
     if(Functions.isWindows()) {
-      return new QualityCenterQTPAddinsInstallation(getName(), translateFor(node, log));
+      return new QualityCenterQTPAddinsInstallation(getName(), getHome(node, log));
     }
 
     return null;
   }
 
+  /**
+   * Returns the home of this installation on the given node, which is only
+   * looked for (and installed, if needed) the first time.
+   */
+  private String getHome(Node node, TaskListener log) throws IOException, InterruptedException {
+    QualityCenterToolRegistry.Entry entry = QualityCenterToolRegistry.get(node, this);
+    if(entry != null) {
+      return entry.getHome();
+    }
+    String home = translateFor(node, log);
+    QualityCenterToolRegistry.put(node, this, home, null);
+    return home;
+  }
+
+  /**
+   * Returns the state of this installation on the nodes where it has been
+   * used.
+   */
+  public List<QualityCenterToolRegistry.Entry> getNodeStates() {
+    return QualityCenterToolRegistry.getEntries(this);
+  }
+
   public QualityCenterQTPAddinsInstallation forEnvironment(EnvVars environment) {
     return new QualityCenterQTPAddinsInstallation(getName(), environment.expand(getHome()));
   }
@@ -26,13 +26,15 @@ package com.michelin.cio.hudson.plugins.qc.qtpaddins;
 
 import com.michelin.cio.hudson.plugins.qc.client.QualityCenterClientInstallation;
 import com.michelin.cio.hudson.plugins.qc.Messages;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterInstallLock;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterInstallerCache;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterTemplateRenderer;
+import com.michelin.cio.hudson.plugins.qc.QualityCenterToolRegistry;
 import com.michelin.cio.hudson.plugins.qc.QualityCenterUtils;
-import groovy.text.GStringTemplateEngine;
 import hudson.AbortException;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
-import hudson.ProxyConfiguration;
 import hudson.model.Hudson;
 import hudson.model.Node;
 import hudson.model.TaskListener;
@@ -48,7 +50,6 @@ import java.io.PrintStream;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.HashMap;
 import java.util.Map;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -103,6 +104,21 @@ public class QualityCenterQTPAddinsInstaller extends ToolInstaller {
   @Override
   public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log) throws InterruptedException, AbortException, IOException  {
     FilePath expectedLocation = preferredLocation(tool, node);
+
+    // Only one build at a time installs the Add-in on a node, the others
+    // wait for it and then find the Add-in installed
+    QualityCenterInstallLock lock = QualityCenterInstallLock.acquire(node, expectedLocation, log);
+    try {
+      FilePath home = performInstallation(expectedLocation, node, log);
+      QualityCenterToolRegistry.put(node, tool, home.getRemote(), localPathToQTPAddin != null && localPathToQTPAddin.length() > 0 ? localPathToQTPAddin : version);
+      return home;
+    }
+    finally {
+      lock.release();
+    }
+  }
+
+  private FilePath performInstallation(FilePath expectedLocation, Node node, TaskListener log) throws InterruptedException, AbortException, IOException  {
     PrintStream out = log.getLogger();
 
     // Check if has been installed by hudson or manually
@@ -120,9 +136,6 @@ public class QualityCenterQTPAddinsInstaller extends ToolInstaller {
       throw new AbortException();
     }
 
-    // Get the URL to the bundled InstallShield silent install script template
-    URL template = Hudson.getInstance().pluginManager.uberClassLoader.getResource(TEMPLATE_NAME);
-
     // Note from the code reviewer:  The following could clearly have been done
     // with Velocity (and it would surely have been faster), but, well, let's
     // let the kids play a little bit!
@@ -131,8 +144,7 @@ public class QualityCenterQTPAddinsInstaller extends ToolInstaller {
     // To perform a silent installation, we need to have a setup.iss file in the same
     // folder as the installer which will describe each step of the installation.
     // Though we need to specify the installer key for each step, and the key varies for each
-    // version which is why we need to parse a template.
-    GStringTemplateEngine engine = new GStringTemplateEngine();
+    // version which is why we need to parse a template (which is only compiled once).
     // Get the defined version of the QTPAddin
     QTPVersion currentVersion = QTPVersion.valueOf("QTP" + this.version.replaceAll("\\.", ""));
     if(version == null) {
@@ -149,7 +161,7 @@ public class QualityCenterQTPAddinsInstaller extends ToolInstaller {
     out.println(Messages.QualityCenterQTPAddinsInstaller_GeneratingInstallerISS());
     try {
       // Parse the template and put the result in a string
-      instalIss = engine.createTemplate(template).make(binding).toString();
+      instalIss = QualityCenterTemplateRenderer.GSTRING.render(TEMPLATE_NAME, binding);
     } catch (Exception e) {
       log.fatalError(Messages.QualityCenterQTPAddinsInstaller_CouldntGenerateInstallerISS());
       throw new AbortException();
@@ -176,13 +188,11 @@ public class QualityCenterQTPAddinsInstaller extends ToolInstaller {
       out.println(Messages.QualityCenterClientInstaller_CopyingFromMaster(localPathToQTPAddin));
       installer.copyFrom(installerOnMaster);
     }
-    // Else, download it from HP Update Center
+    // Else, download it from HP Update Center (through the cache of the master)
     else {
       URL installURL = new URL(currentVersion.url);
-      URLConnection cnx = ProxyConfiguration.open(installURL);
       installer = expectedLocation.child(installURL.getFile());
-      out.println(Messages.QualityCenterClientInstaller_Downloading(installURL));
-      installer.copyFrom(cnx.getInputStream());
+      QualityCenterInstallerCache.copyTo(installURL, installer, log);
     }
 
     // Perform install
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import hudson.model.Actionable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class QualityCenterBuildActionTest {
+
+  private static final int THREADS = 8;
+
+  /**
+   * Stands for a build, which only holds actions.
+   */
+  private static class FakeBuild extends Actionable {
+
+    public String getDisplayName() {
+      return "#1";
+    }
+
+    public String getSearchUrl() {
+      return "1/";
+    }
+
+  }
+
+  /**
+   * Runs {@code THREADS} build steps at once, each one registering a TestSet
+   * on the given build, and returns the actions they got.
+   */
+  private static List<QualityCenterBuildAction> runBuildSteps(final Actionable[] builds) throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<QualityCenterBuildAction>> futures = new ArrayList<Future<QualityCenterBuildAction>>();
+      for(int i = 0; i < THREADS; i++) {
+        final int step = i;
+        futures.add(executor.submit(new Callable<QualityCenterBuildAction>() {
+          public QualityCenterBuildAction call() throws Exception {
+            start.await();
+            QualityCenterBuildAction action = QualityCenterBuildAction.getOrCreate(builds[step % builds.length]);
+            action.addTestSet("TestSet" + step, "report" + step + ".xml", QualityCenter.ENGINE_REST);
+            return action;
+          }
+        }));
+      }
+      start.countDown();
+      List<QualityCenterBuildAction> actions = new ArrayList<QualityCenterBuildAction>();
+      for(Future<QualityCenterBuildAction> future : futures) {
+        actions.add(future.get());
+      }
+      return actions;
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void concurrentBuildStepsOfABuildShareOneAction() throws Exception {
+    FakeBuild build = new FakeBuild();
+
+    List<QualityCenterBuildAction> actions = runBuildSteps(new Actionable[] { build });
+
+    assertEquals(1, build.getActions(QualityCenterBuildAction.class).size());
+    for(QualityCenterBuildAction action : actions) {
+      assertSame(build.getAction(QualityCenterBuildAction.class), action);
+    }
+    assertEquals(THREADS, actions.get(0).getTestSets().size());
+    assertEquals(THREADS, actions.get(0).getReportFiles().size());
+  }
+
+  @Test
+  public void concurrentBuildsHaveTheirOwnAction() throws Exception {
+    FakeBuild first = new FakeBuild();
+    FakeBuild second = new FakeBuild();
+
+    runBuildSteps(new Actionable[] { first, second });
+
+    QualityCenterBuildAction firstAction = first.getAction(QualityCenterBuildAction.class);
+    QualityCenterBuildAction secondAction = second.getAction(QualityCenterBuildAction.class);
+    assertNotSame(firstAction, secondAction);
+    // each build only archives the reports of its own TestSets
+    assertEquals(THREADS / 2, firstAction.getReportFiles().size());
+    assertEquals(THREADS / 2, secondAction.getReportFiles().size());
+    for(String report : firstAction.getReportFiles()) {
+      assertEquals(0, Integer.parseInt(report.substring("report".length(), report.indexOf('.'))) % 2);
+    }
+  }
+
+}
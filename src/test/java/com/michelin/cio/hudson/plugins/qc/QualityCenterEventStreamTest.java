@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QualityCenterEventStreamTest {
+
+  private ByteArrayOutputStream out;
+  private QualityCenterEventStream events;
+
+  @Before
+  public void setUp() {
+    out = new ByteArrayOutputStream();
+    events = new QualityCenterEventStream(new QualityCenterLogWriter(out, false), false);
+  }
+
+  private void println(String line) throws Exception {
+    events.write((line + "\r\n").getBytes("US-ASCII"));
+  }
+
+  @Test
+  public void eventsAreFollowedAndOtherLinesCopied() throws Exception {
+    println("Connecting to http://qc/qcbin");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"scheduled\",\"tests\":2}");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"finished\",\"status\":\"failed\",\"message\":\"\",\"tests\":2,\"failed\":1,\"elapsed\":90}");
+    events.close();
+
+    QualityCenterEventStream.Outcome outcome = events.getOutcome(0);
+    assertTrue(outcome.isFinished());
+    assertEquals("failed", outcome.getStatus());
+    assertEquals(2, outcome.getTestCount());
+    assertEquals(1, outcome.getFailureCount());
+    assertEquals(90, outcome.getElapsed());
+    String output = out.toString();
+    assertTrue(output, output.startsWith("Connecting to http://qc/qcbin"));
+    assertFalse(output, output.contains(QualityCenterEventStream.MARKER));
+  }
+
+  @Test
+  public void samplesHaveTheStatusOfTheRun() throws Exception {
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"test\",\"id\":\"1\",\"name\":\"Login\",\"status\":\"FinishedPassed\",\"duration\":12,\"elapsed\":12}");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"test\",\"id\":\"2\",\"name\":\"Logout\",\"status\":\"FinishedFailed\",\"duration\":30,\"elapsed\":42,\"runId\":\"7\",\"message\":\"Step 1 failed\"}");
+    events.close();
+
+    QualityCenterEventStream.Outcome outcome = events.getOutcome(0);
+    List<QualityCenterDurationStore.Sample> samples = outcome.getSamples();
+    assertEquals(2, samples.size());
+    assertEquals(QualityCenterDurationStore.PASSED, samples.get(0).getStatus());
+    assertEquals(QualityCenterDurationStore.FAILED, samples.get(1).getStatus());
+    assertEquals(30, samples.get(1).getDuration());
+    assertEquals("7", outcome.getFailedRuns().get("Logout"));
+    assertEquals(Long.valueOf(12), outcome.getDurations().get("1"));
+  }
+
+  @Test
+  public void eventsAreSortedOutByTestSet() throws Exception {
+    ByteArrayOutputStream log = new ByteArrayOutputStream();
+    QualityCenterPrefixedOutputStream prefixed = new QualityCenterPrefixedOutputStream(log, "Smoke");
+    events = new QualityCenterEventStream(new QualityCenterLogWriter(prefixed, false), false, prefixed);
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"connected\"}");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"testset\",\"index\":0,\"name\":\"Smoke\"}");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"finished\",\"status\":\"passed\",\"message\":\"\",\"tests\":3,\"failed\":0,\"elapsed\":20}");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"testset\",\"index\":1,\"name\":\"Regression\"}");
+    println("Scheduling Regression");
+    println(QualityCenterEventStream.MARKER + "{\"event\":\"finished\",\"status\":\"error\",\"message\":\"Not found\",\"tests\":0,\"failed\":0,\"elapsed\":1}");
+    events.close();
+
+    assertEquals(2, events.getTestSetCount());
+    assertEquals("passed", events.getOutcome(0).getStatus());
+    assertEquals(3, events.getOutcome(0).getTestCount());
+    assertEquals("error", events.getOutcome(1).getStatus());
+    assertEquals("Not found", events.getOutcome(1).getMessage());
+    assertTrue(log.toString(), log.toString().contains("[Regression] Scheduling Regression"));
+  }
+
+  @Test
+  public void runStatusIsTheExecutionStatusWithoutItsPrefix() {
+    assertEquals(QualityCenterTestInstance.STATUS_PASSED, QualityCenterEventStream.getRunStatus("FinishedPassed"));
+    assertEquals(QualityCenterTestInstance.STATUS_FAILED, QualityCenterEventStream.getRunStatus("FinishedFailed"));
+    assertEquals("Not Completed", QualityCenterEventStream.getRunStatus("Not Completed"));
+  }
+
+}
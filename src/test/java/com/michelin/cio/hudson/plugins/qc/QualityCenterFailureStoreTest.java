@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterFailureStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void reportIsSummarizedAndTrimmedInOnePass() throws Exception {
+    String details = StringUtils.repeat("Step failed. ", QualityCenterFailureStore.THRESHOLD);
+    String report = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<testsuite name=\"DEFAULT.Demo.Root.Smoke\">"
+            + "<testcase classname=\"Smoke\" name=\"Login\" time=\"1,500.0\"/>"
+            + "<testcase classname=\"Smoke\" name=\"Logout\" time=\"2.0\"><failure message=\"Failed\"><![CDATA[" + details + "]]></failure></testcase>"
+            + "<testcase classname=\"Smoke\" name=\"Search\" time=\"3.0\"><error message=\"Failed\">short</error></testcase>"
+            + "<testcase name=\"Export\"><skipped/></testcase>"
+            + "</testsuite>";
+
+    QualityCenterResultSummary summary = new QualityCenterResultSummary();
+    QualityCenterFailureStore failures = new QualityCenterFailureStore(folder.getRoot());
+    File copy = new File(folder.getRoot(), "0-testSet.xml");
+    try {
+      failures.copy(new ByteArrayInputStream(report.getBytes("UTF-8")), copy, summary, "reports/testSet.xml");
+    }
+    finally {
+      failures.close();
+    }
+
+    assertEquals(1, summary.getReportCount());
+    assertEquals("reports/testSet.xml", summary.getReport(0));
+    assertEquals(4, summary.size());
+    assertEquals(1, summary.getPassCount());
+    assertEquals(2, summary.getFailCount());
+    assertEquals(1, summary.getSkipCount());
+    assertEquals(QualityCenterResultSummary.ERROR, summary.getStatus(2));
+    // the test cases without a class name belong to their suite
+    assertEquals("DEFAULT.Demo.Root.Smoke", summary.getSuite(3));
+    assertEquals(1505.0, summary.getDuration(), 0.001);
+
+    // only the long details are stored apart
+    assertEquals(1, failures.getCount());
+    assertEquals(details.getBytes("UTF-8").length, new File(folder.getRoot(), "failures.dat").length());
+    String trimmed = FileUtils.readFileToString(copy, "UTF-8");
+    assertFalse(trimmed.contains(details));
+    assertTrue(trimmed.contains(details.substring(0, QualityCenterFailureStore.PREVIEW)));
+    assertTrue(trimmed.contains(">short</error>"));
+  }
+
+}
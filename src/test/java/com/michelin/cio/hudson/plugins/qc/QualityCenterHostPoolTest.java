@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class QualityCenterHostPoolTest {
+
+  @Test
+  public void longestTestsAreGivenFirstToTheLeastLoadedHost() {
+    Map<String, Long> durations = new LinkedHashMap<String, Long>();
+    durations.put("a", 10L);
+    durations.put("b", 70L);
+    durations.put("c", 30L);
+    durations.put("d", 40L);
+    durations.put("e", 20L);
+    QualityCenterHostPool<String> pool = new QualityCenterHostPool<String>(Arrays.asList("h1", "h2"), durations);
+
+    // b -> h1 (70), d -> h2 (40), c -> h2 (70), e -> h1 (90), a -> h2 (80)
+    assertEquals("h1", pool.getHost("b"));
+    assertEquals("h2", pool.getHost("d"));
+    assertEquals("h2", pool.getHost("c"));
+    assertEquals("h1", pool.getHost("e"));
+    assertEquals("h2", pool.getHost("a"));
+    assertEquals(Long.valueOf(90), pool.getLoads().get("h1"));
+    assertEquals(Long.valueOf(80), pool.getLoads().get("h2"));
+    assertEquals(3, pool.getTestCount("h2"));
+    assertEquals(90, pool.getExpectedDuration());
+  }
+
+  @Test
+  public void unknownDurationsAreTheAverageOfTheKnownOnes() {
+    Map<String, Long> durations = new LinkedHashMap<String, Long>();
+    durations.put("a", 10L);
+    durations.put("b", 30L);
+    durations.put("c", null);
+    QualityCenterHostPool<String> pool = new QualityCenterHostPool<String>(Arrays.asList("h1"), durations);
+
+    assertEquals(60, pool.getExpectedDuration());
+  }
+
+  @Test
+  public void hostIsDownOnceTestsInARowDidntRunOnIt() {
+    Map<String, Long> durations = new LinkedHashMap<String, Long>();
+    durations.put("a", 40L);
+    durations.put("b", 30L);
+    durations.put("c", 20L);
+    durations.put("d", 10L);
+    durations.put("e", 5L);
+    // a, d, e -> h1 and b, c -> h2
+    QualityCenterHostPool<String> pool = new QualityCenterHostPool<String>(Arrays.asList("h1", "h2"), durations);
+
+    assertFalse(pool.recordOutcome("a", false));
+    // a test which ran starts the count again
+    assertFalse(pool.recordOutcome("d", true));
+    assertFalse(pool.recordOutcome("e", false));
+    assertFalse(pool.isDown("h1"));
+
+    assertFalse(pool.recordOutcome("b", false));
+    assertTrue(pool.recordOutcome("c", false));
+    assertTrue(pool.isDown("h2"));
+    // it's only told once
+    assertFalse(pool.recordOutcome("c", false));
+    assertFalse(pool.recordOutcome("unknown", false));
+  }
+
+  @Test
+  public void hostsAreParsedWithoutDuplicates() {
+    assertEquals(Arrays.asList("h1", "h2", "h3"), QualityCenterHostPool.parseHosts(" h1, h2;h3\nh1 "));
+    assertEquals(0, QualityCenterHostPool.parseHosts(null).size());
+  }
+
+}
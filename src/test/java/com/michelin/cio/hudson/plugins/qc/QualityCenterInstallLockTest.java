@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class QualityCenterInstallLockTest {
+
+  private static final String LOCATION = "C:\\Program Files\\HP\\QC Client";
+
+  /**
+   * Acquires a lock in another thread, which holds it until it's told to
+   * release it.
+   */
+  private static class Installation extends Thread {
+
+    final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    final CountDownLatch acquired = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    private final String key;
+
+    Installation(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public void run() {
+      try {
+        QualityCenterInstallLock lock = QualityCenterInstallLock.acquire(key, LOCATION, "node1", new StreamTaskListener(log));
+        acquired.countDown();
+        try {
+          done.await();
+        }
+        finally {
+          lock.release();
+        }
+      }
+      catch(InterruptedException ie) {
+        // the test is over
+      }
+    }
+
+    boolean isWaiting() {
+      return log.toString().contains(Messages.QualityCenterInstallLock_Waiting(LOCATION, "node1"));
+    }
+
+  }
+
+  @Test
+  public void secondInstallationWaitsForTheFirstOne() throws Exception {
+    String key = "node1:" + LOCATION;
+    long contentions = QualityCenterInstallLock.getContentions();
+    Installation first = new Installation(key);
+    Installation second = new Installation(key);
+
+    first.start();
+    assertTrue(first.acquired.await(10, TimeUnit.SECONDS));
+    second.start();
+    for(int i = 0; i < 100 && !second.isWaiting(); i++) {
+      Thread.sleep(50);
+    }
+    assertTrue(second.log.toString(), second.isWaiting());
+    assertFalse(second.acquired.await(200, TimeUnit.MILLISECONDS));
+
+    // the second one goes once the first one is done
+    first.done.countDown();
+    assertTrue(second.acquired.await(10, TimeUnit.SECONDS));
+    second.done.countDown();
+    second.join(10000);
+    first.join(10000);
+
+    assertFalse(first.isWaiting());
+    assertEquals(contentions + 1, QualityCenterInstallLock.getContentions());
+  }
+
+  @Test
+  public void installationsOfOtherDirectoriesDontWait() throws Exception {
+    Installation first = new Installation("node1:" + LOCATION);
+    Installation second = new Installation("node1:" + LOCATION + "2");
+
+    first.start();
+    assertTrue(first.acquired.await(10, TimeUnit.SECONDS));
+    second.start();
+    try {
+      assertTrue(second.acquired.await(10, TimeUnit.SECONDS));
+      assertFalse(second.isWaiting());
+    }
+    finally {
+      first.done.countDown();
+      second.done.countDown();
+      first.join(10000);
+      second.join(10000);
+    }
+  }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterInstallerCacheTest {
+
+  private static final String CLIENT = "installers/QCClient.msi";
+  private static final String ADDIN = "installers/QTPAddin.msi";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private QualityCenterStubServer server;
+  private File dir;
+  private long maxSize;
+  private long revalidationInterval;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+    dir = folder.getRoot();
+    maxSize = QualityCenterInstallerCache.MAX_SIZE;
+    revalidationInterval = QualityCenterInstallerCache.REVALIDATION_INTERVAL;
+  }
+
+  @After
+  public void tearDown() {
+    QualityCenterInstallerCache.MAX_SIZE = maxSize;
+    QualityCenterInstallerCache.REVALIDATION_INTERVAL = revalidationInterval;
+    server.stop();
+  }
+
+  private static byte[] content(long seed) {
+    byte[] content = new byte[10000];
+    new Random(seed).nextBytes(content);
+    return content;
+  }
+
+  private Properties get(String path) throws Exception {
+    return QualityCenterInstallerCache.getEntry(new URL(server.getURL() + path), dir,
+            new StreamTaskListener(new ByteArrayOutputStream()));
+  }
+
+  private byte[] read(Properties entry) throws Exception {
+    return FileUtils.readFileToByteArray(QualityCenterInstallerCache.getBlob(dir, entry));
+  }
+
+  @Test
+  public void installerIsOnlyDownloadedOnce() throws Exception {
+    server.onFile(CLIENT, content(1), "ETag", "\"v1\"");
+
+    Properties entry = get(CLIENT);
+    assertArrayEquals(content(1), read(entry));
+    assertEquals(entry.getProperty("hash"), get(CLIENT).getProperty("hash"));
+    assertEquals(1, server.getRequests("GET", CLIENT).size());
+  }
+
+  @Test
+  public void installerIsRevalidatedWithItsETag() throws Exception {
+    QualityCenterInstallerCache.REVALIDATION_INTERVAL = 0;
+    server.onFile(CLIENT, content(1), "ETag", "\"v1\"");
+    String hash = get(CLIENT).getProperty("hash");
+
+    // same ETag: the server says it didn't change, so the cached one is used
+    server.onFile(CLIENT, content(2), "ETag", "\"v1\"");
+    Properties entry = get(CLIENT);
+    assertEquals(hash, entry.getProperty("hash"));
+    assertArrayEquals(content(1), read(entry));
+
+    server.onFile(CLIENT, content(2), "ETag", "\"v2\"");
+    entry = get(CLIENT);
+    assertArrayEquals(content(2), read(entry));
+    assertEquals("\"v2\"", entry.getProperty("etag"));
+    assertEquals(3, server.getRequests("GET", CLIENT).size());
+  }
+
+  @Test
+  public void cachedInstallerIsUsedWhenItCantBeRevalidated() throws Exception {
+    QualityCenterInstallerCache.REVALIDATION_INTERVAL = 0;
+    server.onFile(CLIENT, content(1), "ETag", "\"v1\"");
+    get(CLIENT);
+
+    server.on("GET", CLIENT, 503, "");
+    assertArrayEquals(content(1), read(get(CLIENT)));
+  }
+
+  @Test
+  public void sameContentIsOnlyStoredOnce() throws Exception {
+    server.onFile(CLIENT, content(1));
+    server.onFile(ADDIN, content(1));
+
+    assertEquals(get(CLIENT).getProperty("hash"), get(ADDIN).getProperty("hash"));
+    assertEquals(1, new File(dir, "blobs").list().length);
+  }
+
+  @Test
+  public void leastRecentlyUsedInstallersAreEvicted() throws Exception {
+    QualityCenterInstallerCache.MAX_SIZE = 15000;
+    server.onFile(CLIENT, content(1));
+    server.onFile(ADDIN, content(2));
+
+    File client = QualityCenterInstallerCache.getBlob(dir, get(CLIENT));
+    File addin = QualityCenterInstallerCache.getBlob(dir, get(ADDIN));
+    assertFalse(client.exists());
+    assertTrue(addin.exists());
+
+    // an evicted installer is downloaded again
+    assertArrayEquals(content(1), read(get(CLIENT)));
+    assertEquals(2, server.getRequests("GET", CLIENT).size());
+    assertFalse(addin.exists());
+  }
+
+}
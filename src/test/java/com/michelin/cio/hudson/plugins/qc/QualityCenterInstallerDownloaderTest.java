@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import hudson.remoting.Base64;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterInstallerDownloaderTest {
+
+  private static final String INSTALLER = "installers/QCClient.msi";
+  private static final String ETAG = "\"v1\"";
+  private static final String KEY = "qcclient";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private QualityCenterStubServer server;
+  private ByteArrayOutputStream log;
+  private byte[] content;
+  private File partsDir;
+  private long parallelThreshold;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+    log = new ByteArrayOutputStream();
+    content = new byte[10000];
+    new Random(42).nextBytes(content);
+    partsDir = new File(folder.getRoot(), "parts");
+    parallelThreshold = QualityCenterInstallerDownloader.PARALLEL_THRESHOLD;
+  }
+
+  @After
+  public void tearDown() {
+    QualityCenterInstallerDownloader.PARALLEL_THRESHOLD = parallelThreshold;
+    server.stop();
+  }
+
+  private File download() throws Exception {
+    URL url = new URL(server.getURL() + INSTALLER);
+    HttpURLConnection cnx = (HttpURLConnection) QualityCenterInstallerDownloader.open(url);
+    assertEquals(200, cnx.getResponseCode());
+    return new QualityCenterInstallerDownloader(url, partsDir, KEY, new StreamTaskListener(log)).download(cnx);
+  }
+
+  private List<String> getRanges() {
+    List<String> ranges = new ArrayList<String>();
+    for(QualityCenterStubServer.Request request : server.getRequests("GET", INSTALLER)) {
+      if(request.range != null) {
+        ranges.add(request.range);
+      }
+    }
+    return ranges;
+  }
+
+  /**
+   * Leaves the parts of a download which stopped after the given number of
+   * bytes, for the installer with the given {@code ETag}.
+   */
+  private void writePart(String etag, int done) throws IOException {
+    partsDir.mkdirs();
+    Properties state = new Properties();
+    state.setProperty("validator", etag);
+    state.setProperty("length", String.valueOf(content.length));
+    state.setProperty("connections", String.valueOf(QualityCenterInstallerDownloader.CONNECTIONS));
+    OutputStream out = new FileOutputStream(new File(partsDir, KEY + ".parts"));
+    try {
+      state.store(out, null);
+    }
+    finally {
+      out.close();
+    }
+    out = new FileOutputStream(new File(partsDir, KEY + ".part0"));
+    try {
+      out.write(content, 0, done);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private static String md5(byte[] content) throws Exception {
+    return Base64.encode(MessageDigest.getInstance("MD5").digest(content));
+  }
+
+  @Test
+  public void bigInstallerIsDownloadedThroughSeveralConnections() throws Exception {
+    server.onFile(INSTALLER, content, "ETag", ETAG, "Content-MD5", md5(content));
+    QualityCenterInstallerDownloader.PARALLEL_THRESHOLD = 1000;
+
+    File installer = download();
+
+    assertArrayEquals(content, FileUtils.readFileToByteArray(installer));
+    List<String> ranges = getRanges();
+    assertEquals(QualityCenterInstallerDownloader.CONNECTIONS, ranges.size());
+    assertTrue(ranges.toString(), ranges.contains("bytes=0-2499"));
+    assertTrue(ranges.toString(), ranges.contains("bytes=7500-9999"));
+    // only the installer is left
+    assertFalse(new File(partsDir, KEY + ".part0").exists());
+  }
+
+  @Test
+  public void interruptedDownloadIsResumed() throws Exception {
+    server.onFile(INSTALLER, content, "ETag", ETAG);
+    writePart(ETAG, 4000);
+
+    File installer = download();
+
+    assertArrayEquals(content, FileUtils.readFileToByteArray(installer));
+    List<String> ranges = getRanges();
+    assertEquals(1, ranges.size());
+    assertEquals("bytes=4000-9999", ranges.get(0));
+    assertTrue(log.toString(), log.toString().contains(Messages.QualityCenterInstallerCache_Resuming(
+            new URL(server.getURL() + INSTALLER), "4000")));
+  }
+
+  @Test
+  public void partsOfAnInstallerWhichChangedAreDiscarded() throws Exception {
+    server.onFile(INSTALLER, content, "ETag", ETAG);
+    writePart("\"v0\"", 4000);
+    FileUtils.writeByteArrayToFile(new File(partsDir, KEY + ".part0"), new byte[4000]);
+
+    File installer = download();
+
+    assertArrayEquals(content, FileUtils.readFileToByteArray(installer));
+    assertTrue(getRanges().isEmpty());
+  }
+
+  @Test
+  public void installerWithTheWrongChecksumIsRejected() throws Exception {
+    byte[] other = content.clone();
+    other[0]++;
+    server.onFile(INSTALLER, content, "ETag", ETAG, "Content-MD5", md5(other));
+
+    try {
+      download();
+      fail("the installer should have been rejected");
+    }
+    catch(IOException ioe) {
+      assertEquals(Messages.QualityCenterInstallerCache_WrongChecksum(new URL(server.getURL() + INSTALLER)), ioe.getMessage());
+    }
+    assertFalse(new File(partsDir, KEY + ".download").exists());
+    // the next attempt starts all over again
+    assertFalse(new File(partsDir, KEY + ".part0").exists());
+  }
+
+}
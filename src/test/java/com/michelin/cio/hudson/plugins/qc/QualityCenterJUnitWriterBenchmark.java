@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Times {@link QualityCenterJUnitWriter} at 10,000 and 100,000 test cases,
+ * to check that writing the report is linear in the number of tests and
+ * doesn't depend on it memory-wise.
+ *
+ * <p>This isn't run with the tests: run its {@code main} method with the
+ * test classpath (e.g. {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.michelin.cio.hudson.plugins.qc.QualityCenterJUnitWriterBenchmark}).</p>
+ */
+public class QualityCenterJUnitWriterBenchmark {
+
+  /** One test out of this many fails, with long details. */
+  private static final int FAILURE_RATE = 10;
+  /** The tests which ended are appended to the report by this many. */
+  private static final int CHECKPOINT_RATE = 100;
+
+  public static void main(String[] args) throws Exception {
+    File folder = File.createTempFile("qcbenchmark", "");
+    folder.delete();
+    try {
+      // warm-up, not reported
+      run(new File(folder, "warmup.xml"), 10000);
+
+      System.out.println("tests     time (ms)   per test (us)   heap (MB)   report (MB)");
+      for(int tests : new int[] { 10000, 100000 }) {
+        File report = new File(folder, "report" + tests + ".xml");
+        System.gc();
+        long start = System.nanoTime();
+        long heap = run(report, tests);
+        long elapsed = System.nanoTime() - start;
+        System.out.println(String.format("%-9d %9d   %13.1f   %9.1f   %11.1f", tests, elapsed / 1000000,
+                elapsed / 1000.0 / tests, heap / 1048576.0, report.length() / 1048576.0));
+      }
+    }
+    finally {
+      FileUtils.deleteDirectory(folder);
+    }
+  }
+
+  /**
+   * Writes a report of the given number of tests, as the REST engine does.
+   *
+   * @return the highest heap usage sampled while writing it, in bytes
+   */
+  private static long run(File report, int tests) throws IOException {
+    StringBuilder details = new StringBuilder();
+    for(int i = 0; i < 20; i++) {
+      details.append("Step ").append(i).append(": expected <b>OK</b> & got \"KO\" ]]> 0123456789abcdef\n");
+    }
+    Runtime runtime = Runtime.getRuntime();
+    long heap = 0;
+
+    QualityCenterJUnitWriter writer = new QualityCenterJUnitWriter(report, "http://qc/qcbin", "DEFAULT.Demo.Root.Benchmark");
+    try {
+      for(int i = 0; i < tests; i++) {
+        QualityCenterTestInstance test = new QualityCenterTestInstance(String.valueOf(i), String.valueOf(i), "Test" + i);
+        test.setDuration(i % 60);
+        if(i % FAILURE_RATE == 0) {
+          test.setStatus(QualityCenterTestInstance.STATUS_FAILED);
+          test.setFailureMessage(QualityCenterTestInstance.STATUS_FAILED);
+          test.setFailureDetails(details.toString());
+        }
+        else {
+          test.setStatus(QualityCenterTestInstance.STATUS_PASSED);
+        }
+        writer.writeTestCase(test);
+        if(i % CHECKPOINT_RATE == CHECKPOINT_RATE - 1) {
+          writer.checkpoint();
+          heap = Math.max(heap, runtime.totalMemory() - runtime.freeMemory());
+        }
+      }
+    }
+    finally {
+      writer.close();
+    }
+    return heap;
+  }
+
+}
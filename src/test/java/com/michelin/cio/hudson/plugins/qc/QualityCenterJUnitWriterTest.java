@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class QualityCenterJUnitWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File report;
+  private QualityCenterJUnitWriter writer;
+
+  @Before
+  public void setUp() throws Exception {
+    report = new File(folder.getRoot(), "reports/testSet.xml");
+    writer = new QualityCenterJUnitWriter(report, "http://qc/qcbin", "DEFAULT.Demo.Root.Smoke");
+  }
+
+  private static QualityCenterTestInstance test(String name, String status, String details) {
+    QualityCenterTestInstance test = new QualityCenterTestInstance("1", "1", name);
+    test.setStatus(status);
+    test.setDuration(3);
+    test.setFailureMessage(QualityCenterTestInstance.STATUS_PASSED.equals(status) ? null : status);
+    test.setFailureDetails(details);
+    return test;
+  }
+
+  private Element parse() throws Exception {
+    Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(report);
+    return document.getDocumentElement();
+  }
+
+  @Test
+  public void reportIsWrittenOnClose() throws Exception {
+    writer.writeTestCase(test("Login", QualityCenterTestInstance.STATUS_PASSED, null));
+    writer.writeTestCase(test("Logout <&>", QualityCenterTestInstance.STATUS_FAILED, "Step 1 ]]> failed\u0001"));
+    writer.close();
+
+    Element suite = parse();
+    assertEquals("2", suite.getAttribute("tests"));
+    assertEquals("1", suite.getAttribute("failures"));
+    assertEquals("0", suite.getAttribute("errors"));
+    assertEquals("6.0", suite.getAttribute("time"));
+    NodeList testCases = suite.getElementsByTagName("testcase");
+    assertEquals("Logout <&>", ((Element) testCases.item(1)).getAttribute("name"));
+    // the CDATA section is split around ]]>, and the control characters are dropped
+    assertEquals("Failed : Step 1 ]]> failed", ((Element) testCases.item(1)).getElementsByTagName("failure").item(0).getTextContent().trim());
+    assertFalse(new File(report.getPath() + QualityCenterJUnitWriter.PART_SUFFIX).exists());
+  }
+
+  @Test
+  public void testsWhichDidntRunHaveNoDetails() throws Exception {
+    writer.writeTestCase(test("Login", QualityCenterTestInstance.STATUS_NO_RUN, null));
+    writer.close();
+
+    Element failure = (Element) parse().getElementsByTagName("failure").item(0);
+    assertEquals(QualityCenterTestInstance.STATUS_NO_RUN, failure.getTextContent().trim());
+  }
+
+  @Test
+  public void checkpointsOnlyAppendTheNewTests() throws Exception {
+    writer.writeTestCase(test("Login", QualityCenterTestInstance.STATUS_PASSED, null));
+    writer.checkpoint();
+
+    Element suite = parse();
+    assertEquals(1, Integer.parseInt(suite.getAttribute("tests")));
+    assertEquals(1, suite.getElementsByTagName("testcase").getLength());
+    String first = FileUtils.readFileToString(report, "UTF-8");
+
+    writer.writeTestCase(test("Logout", QualityCenterTestInstance.STATUS_FAILED, "Step 2 failed"));
+    writer.checkpoint();
+
+    suite = parse();
+    assertEquals(2, Integer.parseInt(suite.getAttribute("tests")));
+    assertEquals(1, Integer.parseInt(suite.getAttribute("failures")));
+    assertEquals(2, suite.getElementsByTagName("testcase").getLength());
+    // the counters are updated in place, and the first test is left as is
+    String second = FileUtils.readFileToString(report, "UTF-8");
+    assertEquals(first.length() - "</testsuite>".length(), second.indexOf("\t<testcase classname=\"DEFAULT.Demo.Root.Smoke\" name=\"Logout\""));
+    assertEquals(first.substring(first.indexOf("<testcase"), first.indexOf("</testsuite>")),
+            second.substring(second.indexOf("<testcase"), second.indexOf("\t<testcase classname=\"DEFAULT.Demo.Root.Smoke\" name=\"Logout\"")));
+
+    writer.writeError("Timed out");
+    writer.close();
+
+    suite = parse();
+    assertEquals("2", suite.getAttribute("tests"));
+    assertEquals("1", suite.getAttribute("errors"));
+    assertTrue(FileUtils.readFileToString(report, "UTF-8").endsWith("</testsuite>"));
+  }
+
+  @Test
+  public void reportOfAStoppedScriptIsEndedAfterItsLastTestCase() throws Exception {
+    // as appended to by runTestSet.vbs, which was stopped while writing Logout
+    String header = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\r\n"
+            + "<testsuite hostname=\"http://qc/qcbin\"  name=\"DEFAULT.Demo.Root.Smoke\"  timestamp=\"2026-10-17T10:00:00\">";
+    report.getParentFile().mkdirs();
+    FileUtils.writeStringToFile(report, header
+            + "\t<testcase classname=\"DEFAULT.Demo.Root.Smoke\" name=\"Login\" time=\"3.0\">\r\n\t</testcase>\r\n"
+            + "\t<testcase classname=\"DEFAULT.Demo.Root.Smoke\" name=\"Logout\" time=\"3.0\">\r\n\t\t<failure mess", "UTF-8");
+    QualityCenterJUnitWriter.endReport(report);
+
+    NodeList testCases = parse().getElementsByTagName("testcase");
+    assertEquals(1, testCases.getLength());
+    assertEquals("Login", ((Element) testCases.item(0)).getAttribute("name"));
+
+    // ending it again changes nothing
+    String ended = FileUtils.readFileToString(report, "UTF-8");
+    QualityCenterJUnitWriter.endReport(report);
+    assertEquals(ended, FileUtils.readFileToString(report, "UTF-8"));
+
+    // no test ended yet
+    FileUtils.writeStringToFile(report, header, "UTF-8");
+    QualityCenterJUnitWriter.endReport(report);
+    assertEquals(0, parse().getElementsByTagName("testcase").getLength());
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QualityCenterLogWriterTest {
+
+  private int linesPerSecond;
+  private int burst;
+  private ByteArrayOutputStream out;
+
+  @Before
+  public void setUp() {
+    linesPerSecond = QualityCenterLogWriter.LINES_PER_SECOND;
+    burst = QualityCenterLogWriter.BURST;
+    // no line can be written once the burst has been used
+    QualityCenterLogWriter.LINES_PER_SECOND = 1;
+    QualityCenterLogWriter.BURST = 10;
+    out = new ByteArrayOutputStream();
+  }
+
+  @After
+  public void tearDown() {
+    QualityCenterLogWriter.LINES_PER_SECOND = linesPerSecond;
+    QualityCenterLogWriter.BURST = burst;
+  }
+
+  private static void writeLines(QualityCenterLogWriter log, int count) throws Exception {
+    for(int i = 0; i < count; i++) {
+      byte[] line = ("line " + i + "\n").getBytes();
+      log.write(line, line.length);
+    }
+  }
+
+  @Test
+  public void allTheLinesAreWrittenWhenNotLimited() throws Exception {
+    QualityCenterLogWriter log = new QualityCenterLogWriter(out, false);
+    writeLines(log, 100);
+    log.close();
+
+    assertEquals(100, log.getLines());
+    assertEquals(0, log.getOmittedLines());
+    assertTrue(out.toString().endsWith("line 99\n"));
+  }
+
+  @Test
+  public void linesExceedingTheRateAreOmittedAndReported() throws Exception {
+    QualityCenterLogWriter log = new QualityCenterLogWriter(out, true);
+    writeLines(log, 100);
+    byte[] always = "finished\n".getBytes();
+    log.writeAlways(always, always.length);
+    log.close();
+
+    long omitted = log.getOmittedLines();
+    assertTrue(String.valueOf(omitted), omitted >= 80);
+    String output = out.toString();
+    // the omitted lines are reported before the next line which is written
+    int notice = output.indexOf(Messages.QualityCenter_LinesOmitted(omitted, log.getOmittedBytes() / 1024));
+    assertTrue(output, notice > 0);
+    assertTrue(output, output.endsWith("finished\n"));
+    assertTrue(output, notice < output.indexOf("finished\n"));
+  }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class QualityCenterPollSchedulerTest {
+
+  /**
+   * Only moves forward when something sleeps, and records how long.
+   */
+  private static class FakeClock implements QualityCenterPollScheduler.Clock {
+
+    long now = 1000000;
+    final List<Long> sleeps = new ArrayList<Long>();
+
+    public long now() {
+      return now;
+    }
+
+    public void sleep(long millis) {
+      sleeps.add(millis);
+      now += millis;
+    }
+
+  }
+
+  @Test
+  public void intervalGrowsOnceTheFastPhaseIsOver() throws Exception {
+    FakeClock clock = new FakeClock();
+    QualityCenterPollScheduler scheduler = new QualityCenterPollScheduler(10 * 60 * 1000, 0, clock);
+
+    for(int i = 0; i < 24; i++) {
+      scheduler.waitForNextPoll();
+    }
+
+    // polls are frequent during the first 30 seconds
+    for(int i = 0; i < 15; i++) {
+      assertEquals(QualityCenterPollScheduler.MIN_INTERVAL, (long) clock.sleeps.get(i));
+    }
+    assertEquals(Arrays.asList(3000L, 4500L, 6750L, 10125L, 15187L, 22780L, 30000L, 30000L, 30000L),
+            clock.sleeps.subList(15, 24));
+  }
+
+  @Test
+  public void pollsAreFrequentAroundTheExpectedEnd() throws Exception {
+    FakeClock clock = new FakeClock();
+    long start = clock.now;
+    // ten minutes: the window is one minute on each side of the expected end
+    QualityCenterPollScheduler scheduler = new QualityCenterPollScheduler(20 * 60 * 1000, 10 * 60 * 1000, clock);
+
+    List<Long> polls = new ArrayList<Long>();
+    while(clock.now - start < 11 * 60 * 1000) {
+      scheduler.waitForNextPoll();
+      polls.add(clock.now - start);
+    }
+
+    // the interval grows, but no sleep goes past the beginning of the window
+    assertTrue(polls.contains(9 * 60 * 1000L));
+    for(int i = 0; i < polls.size() - 1; i++) {
+      long poll = polls.get(i);
+      long delay = clock.sleeps.get(i + 1);
+      if(poll >= 9 * 60 * 1000 && poll < 11 * 60 * 1000) {
+        assertEquals("after " + poll, QualityCenterPollScheduler.MIN_INTERVAL, delay);
+      }
+      else if(poll >= 30 * 1000 && poll < 9 * 60 * 1000) {
+        assertTrue("after " + poll, delay <= QualityCenterPollScheduler.MAX_INTERVAL);
+        assertTrue("after " + poll, poll + delay <= 9 * 60 * 1000);
+      }
+    }
+
+    // once the window is over, the interval grows again from the shortest one
+    assertEquals(11 * 60 * 1000L, (long) polls.get(polls.size() - 1));
+    scheduler.waitForNextPoll();
+    assertEquals(3000L, (long) clock.sleeps.get(clock.sleeps.size() - 1));
+  }
+
+  @Test
+  public void noPollIsScheduledPastTheDeadline() throws Exception {
+    FakeClock clock = new FakeClock();
+    QualityCenterPollScheduler scheduler = new QualityCenterPollScheduler(45 * 1000, 0, clock);
+
+    while(!scheduler.hasTimedOut()) {
+      scheduler.waitForNextPoll();
+    }
+
+    // the last sleep is cut short by the deadline
+    assertEquals(Arrays.asList(3000L, 4500L, 6750L, 750L), clock.sleeps.subList(15, clock.sleeps.size()));
+    assertEquals(1045000L, clock.now);
+
+    // nothing is left to wait for
+    scheduler.waitForNextPoll();
+    assertEquals(19, clock.sleeps.size());
+    assertFalse(new QualityCenterPollScheduler(45 * 1000, 0, clock).hasTimedOut());
+  }
+
+}
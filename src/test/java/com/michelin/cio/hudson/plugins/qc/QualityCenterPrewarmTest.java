@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class QualityCenterPrewarmTest {
+
+  private static QualityCenterPrewarm.Installer installer(final boolean applicable) {
+    return new QualityCenterPrewarm.Installer() {
+      public boolean install(TaskListener listener) {
+        listener.getLogger().println("Installing");
+        return applicable;
+      }
+    };
+  }
+
+  @Test
+  public void nodeIsOnlyQueuedOnceAtATime() {
+    QualityCenterPrewarm.Status status = QualityCenterPrewarm.queue("prewarm-once");
+    assertNotNull(status);
+    assertFalse(status.isDone());
+    assertEquals(-1, status.getDuration());
+    assertNull(QualityCenterPrewarm.queue("prewarm-once"));
+
+    status.run(installer(true));
+    assertTrue(status.isDone());
+    assertEquals(QualityCenterPrewarm.Status.State.INSTALLED, status.getState());
+    assertTrue(status.getLog().contains("Installing"));
+
+    // once done, the tools can be installed again
+    assertNotNull(QualityCenterPrewarm.queue("prewarm-once"));
+  }
+
+  @Test
+  public void nodesWhereNoToolAppliesAreSkipped() {
+    QualityCenterPrewarm.Status status = QualityCenterPrewarm.queue("prewarm-linux");
+    status.run(installer(false));
+    assertEquals(QualityCenterPrewarm.Status.State.SKIPPED, status.getState());
+    assertTrue(status.getDuration() >= 0);
+  }
+
+  @Test
+  public void failuresAreLogged() {
+    QualityCenterPrewarm.Status status = QualityCenterPrewarm.queue("prewarm-failed");
+    status.run(new QualityCenterPrewarm.Installer() {
+      public boolean install(TaskListener listener) throws IOException {
+        throw new IOException("Installer not found");
+      }
+    });
+    assertTrue(status.isDone());
+    assertEquals(QualityCenterPrewarm.Status.State.FAILED, status.getState());
+    assertTrue(status.getLog().contains("Installer not found"));
+  }
+
+  @Test
+  public void statusesAreSortedByNodeName() {
+    QualityCenterPrewarm.queue("prewarm-sort-b");
+    QualityCenterPrewarm.queue("prewarm-sort-a");
+
+    List<String> nodeNames = new ArrayList<String>();
+    for(QualityCenterPrewarm.Status status : QualityCenterPrewarm.getStatuses()) {
+      if(status.getNodeName().startsWith("prewarm-sort-")) {
+        nodeNames.add(status.getNodeName());
+      }
+    }
+    assertEquals("[prewarm-sort-a, prewarm-sort-b]", nodeNames.toString());
+  }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entities;
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entity;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import hudson.remoting.Base64;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterRestClientTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private QualityCenterStubServer server;
+  private QualityCenterRestClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+    client = new QualityCenterRestClient(server.getURL(), QualityCenterStubServer.DOMAIN, QualityCenterStubServer.PROJECT);
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  public void loginSendsTheCredentialsAndKeepsTheSessionCookie() throws Exception {
+    server.on("GET", "test-sets", 200, entities(entity("test-set", "id", "7")));
+
+    client.login("alice", "secret");
+    assertTrue(client.isLoggedIn());
+    client.getEntities("test-sets", null, "id");
+
+    List<QualityCenterStubServer.Request> logins = server.getRequests("GET", "authentication-point/authenticate");
+    assertEquals(1, logins.size());
+    assertEquals("Basic " + Base64.encode("alice:secret".getBytes("UTF-8")), logins.get(0).authorization);
+    QualityCenterStubServer.Request request = server.getRequests("GET", "test-sets").get(0);
+    assertTrue(request.cookie, request.cookie.startsWith(QualityCenterStubServer.COOKIE + "="));
+    assertEquals("/qcbin/rest/domains/DEFAULT/projects/Demo/test-sets", request.path);
+  }
+
+  @Test
+  public void loginFailsOnOtherSiteSessionErrors() throws Exception {
+    server.on("POST", "rest/site-session", 500, "");
+    try {
+      client.login("alice", "secret");
+      fail();
+    }
+    catch(QualityCenterRestClient.RestException re) {
+      assertEquals(500, re.getStatusCode());
+    }
+  }
+
+  @Test
+  public void expiredSessionIsReopenedOnce() throws Exception {
+    server.on("GET", "test-sets", 200, entities(entity("test-set", "id", "7")));
+    server.once("GET", "test-sets", 401, "");
+
+    client.login("alice", "secret");
+    List<Map<String, String>> testSets = client.getEntities("test-sets", null, "id");
+
+    assertEquals(1, testSets.size());
+    assertEquals("7", testSets.get(0).get("id"));
+    assertEquals(1, client.getReauthentications());
+    assertEquals(2, server.getRequests("GET", "authentication-point/authenticate").size());
+  }
+
+  @Test
+  public void errorTitleIsReported() throws Exception {
+    server.on("GET", "test-sets/7", 500, "<QCRestException><Id>qccore.general-error</Id><Title>Boom</Title></QCRestException>");
+
+    client.login("alice", "secret");
+    try {
+      client.getEntity("test-sets", "7");
+      fail();
+    }
+    catch(QualityCenterRestClient.RestException re) {
+      assertEquals(500, re.getStatusCode());
+      assertTrue(re.getMessage(), re.getMessage().endsWith("Boom"));
+    }
+  }
+
+  @Test
+  public void multiValuedFieldsAreFlattened() throws Exception {
+    server.on("GET", "tests", 200, "<Entities TotalResults=\"1\"><Entity Type=\"test\"><Fields>"
+            + "<Field Name=\"id\"><Value>3</Value></Field>"
+            + "<Field Name=\"user-list\"><Value>a</Value><Value>b</Value></Field>"
+            + "<Field Name=\"empty\"/>"
+            + "</Fields></Entity></Entities>");
+
+    client.login("alice", "secret");
+    Map<String, String> test = client.getEntities("tests", "{id[3]}", null).get(0);
+
+    assertEquals("a,b", test.get("user-list"));
+    assertEquals("", test.get("empty"));
+    assertEquals("{id[3]}", server.getRequests("GET", "tests").get(0).query.replaceAll(".*query=([^&]*).*", "$1"));
+  }
+
+  @Test
+  public void externalEntitiesAreNotResolved() throws Exception {
+    File secret = folder.newFile("secret.txt");
+    FileUtils.writeStringToFile(secret, "s3cr3t", "UTF-8");
+    server.on("GET", "tests", 200, "<?xml version=\"1.0\"?>"
+            + "<!DOCTYPE Entities [<!ENTITY secret SYSTEM \"" + secret.toURI() + "\">]>"
+            + "<Entities TotalResults=\"1\"><Entity Type=\"test\"><Fields>"
+            + "<Field Name=\"name\"><Value>&secret;</Value></Field>"
+            + "</Fields></Entity></Entities>");
+
+    client.login("alice", "secret");
+    try {
+      List<Map<String, String>> tests = client.getEntities("tests", null, null);
+      assertFalse(String.valueOf(tests.get(0).get("name")).contains("s3cr3t"));
+    }
+    catch(IOException ioe) {
+      // the parser may as well refuse the document
+    }
+  }
+
+  @Test
+  public void logoutForgetsTheSession() throws Exception {
+    client.login("alice", "secret");
+    client.logout();
+
+    assertFalse(client.isLoggedIn());
+    assertEquals(1, server.getRequests("GET", "authentication-point/logout").size());
+  }
+
+}
@@ -0,0 +1,412 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entities;
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entity;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class QualityCenterRestRunnerTest {
+
+  private static final String OWNER = QualityCenterRestRunnerTest.class.getName();
+  private static final String REPORT = "reports/testSet.xml";
+
+  @Rule
+  public TemporaryFolder workspace = new TemporaryFolder();
+
+  private QualityCenterStubServer server;
+  private ByteArrayOutputStream log;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+    log = new ByteArrayOutputStream();
+
+    // Root\Nightly\Smoke, with two tests planned on two different hosts
+    server.on("GET", "test-set-folders", 200, entities(entity("test-set-folder", "id", "2")));
+    server.on("GET", "test-sets", 200, entities(entity("test-set", "id", "3")));
+    server.on("GET", "test-instances", 200, entities(
+            entity("test-instance", "id", "101", "test-id", "11", "test-instance", "1", "host-name", "host1", "status", "Passed"),
+            entity("test-instance", "id", "102", "test-id", "12", "test-instance", "1", "host-name", "host2", "status", "Failed")));
+    server.on("GET", "tests", 200, entities(
+            entity("test", "id", "11", "name", "Login"),
+            entity("test", "id", "12", "name", "Logout")));
+    server.on("PUT", "test-instances/101", 200, "");
+    server.on("PUT", "test-instances/102", 200, "");
+    // the previous runs, and the ones of the execution
+    server.on("GET", "runs", 200, entities(
+            entity("run", "id", "9", "testcycl-id", "101", "status", "Passed", "duration", "20"),
+            entity("run", "id", "10", "testcycl-id", "102", "status", "Passed", "duration", "40")));
+    server.on("GET", "runs", "id[>10]", 200, entities(
+            entity("run", "id", "11", "testcycl-id", "101", "status", "Passed", "duration", "21"),
+            entity("run", "id", "12", "testcycl-id", "102", "status", "Failed", "duration", "42")));
+    server.on("GET", "run-steps", 200, entities(
+            entity("run-step", "id", "1", "parent-id", "12", "description", "<html><body>Button missing</body></html>")));
+    server.on("POST", "test-sets/3/startexecution", 200,
+            "<RunReply><SuccessStatus>1</SuccessStatus><info>55</info></RunReply>");
+    server.on("POST", "procedure-runs/55/stop", 200, "");
+    // the test set is locked while its hosts are changed
+    server.on("POST", "test-sets/3/lock", 200, "<Lock><LockStatus>LOCKED_BY_ME</LockStatus></Lock>");
+    server.on("DELETE", "test-sets/3/lock", 200, "");
+  }
+
+  /**
+   * Sets the hosts the test instances have when they are given back.
+   */
+  private void onCurrentHosts(String host1, String host2) {
+    server.on("GET", "test-instances", "fields=id,host-name", 200, entities(
+            entity("test-instance", "id", "101", "host-name", host1),
+            entity("test-instance", "id", "102", "host-name", host2)));
+  }
+
+  @After
+  public void tearDown() {
+    QualityCenterSessionPool.release(OWNER);
+    server.stop();
+  }
+
+  private QualityCenterRestRunner createRunner(int timeout, String runMode, String runHost) {
+    return new QualityCenterRestRunner(server.getURL(), "alice", "secret",
+            QualityCenterStubServer.DOMAIN, QualityCenterStubServer.PROJECT, "Root\\Nightly", "Smoke",
+            REPORT, timeout, runMode, runHost, OWNER, 0, false, new HashMap<String, Long>(),
+            new StreamTaskListener(log));
+  }
+
+  private String getReport() throws Exception {
+    return FileUtils.readFileToString(new File(workspace.getRoot(), REPORT), "UTF-8");
+  }
+
+  @Test
+  public void testSetIsRunAndReported() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+
+    QualityCenterRestRunner runner = createRunner(60, QualityCenter.RUN_MODE_PLANNED_HOST, null);
+    assertTrue(log.toString(), runner.invoke(workspace.getRoot(), null));
+
+    String report = getReport();
+    assertTrue(report, report.contains("tests=\"2\""));
+    assertTrue(report, report.contains("failures=\"1\""));
+    assertTrue(report, report.contains("name=\"Login\" time=\"21.0\""));
+    assertTrue(report, report.contains("<![CDATA[Failed : Button missing"));
+    assertFalse(new File(workspace.getRoot(), REPORT + QualityCenterJUnitWriter.PART_SUFFIX).exists());
+
+    // the folders are walked down from the root
+    assertEquals("{parent-id[0];name[\"Nightly\"]}", getQuery(server.getRequests("GET", "test-set-folders").get(0)));
+    assertEquals("{parent-id[2];name[\"Smoke\"]}", getQuery(server.getRequests("GET", "test-sets").get(0)));
+    // the planned hosts are kept as they are
+    assertTrue(server.getRequests("PUT", "test-instances/101").isEmpty());
+    assertTrue(server.getRequests("PUT", "test-instances/102").isEmpty());
+    assertTrue(server.getRequests("POST", "procedure-runs/55/stop").isEmpty());
+
+    List<String> samples = new ArrayList<String>();
+    for(QualityCenterDurationStore.Sample sample : runner.getSamples()) {
+      samples.add(sample.getTest() + ":" + sample.getStatus() + ":" + sample.getDuration());
+    }
+    assertEquals(Arrays.asList("Login:" + QualityCenterDurationStore.PASSED + ":21",
+            "Logout:" + QualityCenterDurationStore.FAILED + ":42"), samples);
+  }
+
+  @Test
+  public void onlyTheNewRunsAreFetchedOnceTheExecutionIsOver() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_PLANNED_HOST, null).invoke(workspace.getRoot(), null));
+
+    List<QualityCenterStubServer.Request> runs = server.getRequests("GET", "runs");
+    assertEquals(2, runs.size());
+    // the whole history is only read once, before the execution starts
+    assertEquals("{cycle-id[3]}", getQuery(runs.get(0)));
+    assertEquals("{cycle-id[3];id[>10]}", getQuery(runs.get(1)));
+  }
+
+  @Test
+  public void plannedHostsAreRestoredAfterTheExecution() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+    onCurrentHosts("host2", "host2");
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_REMOTE, "host2").invoke(workspace.getRoot(), null));
+
+    // only the test which wasn't planned on host2 has been moved, and back
+    assertTrue(server.getRequests("PUT", "test-instances/102").isEmpty());
+    List<QualityCenterStubServer.Request> updates = server.getRequests("PUT", "test-instances/101");
+    assertEquals(2, updates.size());
+    assertTrue(updates.get(0).body, updates.get(0).body.contains("<Value>host2</Value>"));
+    assertTrue(updates.get(1).body, updates.get(1).body.contains("<Value>host1</Value>"));
+
+    List<QualityCenterStubServer.Request> requests = server.getRequests();
+    int started = indexOf(requests, "POST", "startexecution");
+    assertTrue(indexOf(requests, "PUT", "test-instances/101") < started);
+    assertTrue(lastIndexOf(requests, "PUT", "test-instances/101") > started);
+    // while the test set is locked
+    assertTrue(indexOf(requests, "POST", "test-sets/3/lock") < indexOf(requests, "PUT", "test-instances/101"));
+    assertTrue(indexOf(requests, "DELETE", "test-sets/3/lock") > lastIndexOf(requests, "PUT", "test-instances/101"));
+    assertFalse(new File(workspace.getRoot(), REPORT + QualityCenterRestRunner.HOSTS_SUFFIX).exists());
+  }
+
+  @Test
+  public void hostChangedInTheMeantimeIsLeftAsIs() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+    // someone else edited the test set during the execution
+    onCurrentHosts("host3", "host2");
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_REMOTE, "host2").invoke(workspace.getRoot(), null));
+
+    assertEquals(1, server.getRequests("PUT", "test-instances/101").size());
+    assertTrue(log.toString(), log.toString().contains(Messages.QualityCenter_RestHostChanged("Login", "host3")));
+  }
+
+  @Test
+  public void hostsLeftByAStoppedBuildAreGivenBackFirst() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+    onCurrentHosts("host2", "host2");
+    File hostsFile = new File(workspace.getRoot(), REPORT + QualityCenterRestRunner.HOSTS_SUFFIX);
+    FileUtils.writeStringToFile(hostsFile, "101\thost1\thost2\r\n", "UTF-8");
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_REMOTE, "host2").invoke(workspace.getRoot(), null));
+
+    // given back before the planned hosts are read, then changed and given
+    // back by this build
+    List<QualityCenterStubServer.Request> updates = server.getRequests("PUT", "test-instances/101");
+    assertEquals(3, updates.size());
+    assertTrue(updates.get(0).body, updates.get(0).body.contains("<Value>host1</Value>"));
+    List<QualityCenterStubServer.Request> requests = server.getRequests();
+    int firstUpdate = indexOf(requests, "PUT", "test-instances/101");
+    for(int i = 0; i < firstUpdate; i++) {
+      assertFalse(requests.get(i).toString(), requests.get(i).query != null && requests.get(i).query.contains("fields=id,test-id"));
+    }
+    assertFalse(hostsFile.exists());
+  }
+
+  @Test
+  public void hostsAreNotChangedWhileAnotherBuildHoldsTheLock() throws Exception {
+    server.on("POST", "test-sets/3/lock", 200, "<Lock><LockStatus>LOCKED_BY_OTHER</LockStatus></Lock>");
+    long pollInterval = QualityCenterRestRunner.LOCK_POLL_INTERVAL;
+    QualityCenterRestRunner.LOCK_POLL_INTERVAL = 100;
+    try {
+      assertFalse(createRunner(1, QualityCenter.RUN_MODE_REMOTE, "host2").invoke(workspace.getRoot(), null));
+    }
+    finally {
+      QualityCenterRestRunner.LOCK_POLL_INTERVAL = pollInterval;
+    }
+
+    assertTrue(server.getRequests("POST", "test-sets/3/lock").size() > 1);
+    assertTrue(server.getRequests("PUT", "test-instances/101").isEmpty());
+    assertTrue(server.getRequests("POST", "test-sets/3/startexecution").isEmpty());
+    String report = getReport();
+    assertTrue(report, report.contains(Messages.QualityCenter_RestTestSetLocked("Smoke").replace("'", "&apos;")));
+  }
+
+  @Test
+  public void testsWhichDidntRunOnADownHostAreReportedAsSuch() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+    // neither test ran on host3
+    server.on("GET", "runs", "id[>10]", 200, entities());
+    server.on("GET", "test-instances", "fields=id,status", 200, entities(
+            entity("test-instance", "id", "101", "status", QualityCenterTestInstance.STATUS_NO_RUN),
+            entity("test-instance", "id", "102", "status", QualityCenterTestInstance.STATUS_NO_RUN)));
+    onCurrentHosts("host3", "host3");
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_HOST_POOL, "host3").invoke(workspace.getRoot(), null));
+
+    assertTrue(log.toString(), log.toString().contains(Messages.QualityCenter_HostPoolHostDown("host3", QualityCenterHostPool.FAILURES_BEFORE_DOWN)));
+    String report = getReport();
+    String notRun = Messages.QualityCenter_HostPoolNotRunOnDownHost(QualityCenterTestInstance.STATUS_NO_RUN, "host3");
+    // both tests are told so, not only the one after which the host was considered down
+    assertTrue(report, report.indexOf(notRun) >= 0 && report.indexOf(notRun) != report.lastIndexOf(notRun));
+  }
+
+  @Test
+  public void executionIsStoppedOnTimeout() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Running")));
+    // no run has ended yet
+    server.on("GET", "runs", "id[>10]", 200, entities());
+    onCurrentHosts("host2", "host2");
+
+    QualityCenterRestRunner runner = createRunner(1, QualityCenter.RUN_MODE_REMOTE, "host2");
+    assertFalse(runner.invoke(workspace.getRoot(), null));
+
+    assertEquals(1, server.getRequests("POST", "procedure-runs/55/stop").size());
+    // the planned host is given back even though the execution didn't end
+    assertEquals(2, server.getRequests("PUT", "test-instances/101").size());
+
+    String report = getReport();
+    assertTrue(report, report.contains("errors=\"1\""));
+    assertTrue(report, report.contains(Messages.QualityCenter_RestTimedOut()));
+    // the tests which didn't run have no details
+    assertTrue(report, report.contains("<![CDATA[No Run]]>"));
+    assertTrue(runner.getSamples().isEmpty());
+  }
+
+  @Test
+  public void endedTestsAreReportedWhileTheExecutionRuns() throws Exception {
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Running")));
+    server.on("GET", "runs", "id[>10]", 200, entities(
+            entity("run", "id", "11", "testcycl-id", "101", "status", "Passed", "duration", "21"),
+            entity("run", "id", "12", "testcycl-id", "102", "status", "Not Completed", "duration", "")));
+
+    assertFalse(createRunner(1, QualityCenter.RUN_MODE_PLANNED_HOST, null).invoke(workspace.getRoot(), null));
+
+    String report = getReport();
+    assertTrue(report, report.contains("tests=\"2\""));
+    assertTrue(report, report.contains("name=\"Login\" time=\"21.0\">\r\n\t</testcase>"));
+    // the test which was still running is reported once, as not run
+    assertEquals(report.indexOf("name=\"Logout\""), report.lastIndexOf("name=\"Logout\""));
+  }
+
+  @Test
+  public void testsAreNamedByBatchesAndRunsMatchedByInstance() throws Exception {
+    // 200 tests, the first one being in the test set twice
+    List<String> instances = new ArrayList<String>();
+    List<String> tests = new ArrayList<String>();
+    List<String> runs = new ArrayList<String>();
+    for(int i = 0; i <= 200; i++) {
+      String status = i == 123 || i == 200 ? "Failed" : "Passed";
+      instances.add(entity("test-instance", "id", String.valueOf(5000 + i), "test-id", String.valueOf(7000 + i % 200),
+              "test-instance", i == 200 ? "2" : "1", "status", status));
+      if(i < 200) {
+        tests.add(entity("test", "id", String.valueOf(7000 + i), "name", "Test" + i));
+      }
+      // the runs come back in another order than the instances
+      runs.add(0, entity("run", "id", String.valueOf(100 + i), "testcycl-id", String.valueOf(5000 + i),
+              "status", status, "duration", String.valueOf(i)));
+    }
+    server.on("GET", "test-instances", 200, entities(instances.toArray(new String[instances.size()])));
+    server.on("GET", "tests", 200, entities(tests.toArray(new String[tests.size()])));
+    server.on("GET", "runs", "id[>10]", 200, entities(runs.toArray(new String[runs.size()])));
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+
+    assertTrue(log.toString(), createRunner(60, QualityCenter.RUN_MODE_PLANNED_HOST, null).invoke(workspace.getRoot(), null));
+
+    // each test is looked up once, by batches of 100
+    List<QualityCenterStubServer.Request> lookups = server.getRequests("GET", "tests");
+    assertEquals(2, lookups.size());
+    Set<String> testIds = new HashSet<String>();
+    for(QualityCenterStubServer.Request lookup : lookups) {
+      String query = getQuery(lookup);
+      List<String> batch = Arrays.asList(query.substring("{id[".length(), query.length() - "]}".length()).split(" OR "));
+      assertEquals(100, batch.size());
+      testIds.addAll(batch);
+    }
+    assertEquals(200, testIds.size());
+
+    // each run is reported with its own instance
+    Document report = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(workspace.getRoot(), REPORT));
+    NodeList testCases = report.getElementsByTagName("testcase");
+    assertEquals(201, testCases.getLength());
+    List<String> failed = new ArrayList<String>();
+    for(int i = 0; i < testCases.getLength(); i++) {
+      Element testCase = (Element) testCases.item(i);
+      String name = testCase.getAttribute("name");
+      // the duration of each run is the number of its instance
+      int instance = name.startsWith("[2]") ? 200 : Integer.parseInt(name.substring(name.indexOf("Test") + "Test".length()));
+      assertEquals(name, instance + ".0", testCase.getAttribute("time"));
+      if(testCase.getElementsByTagName("failure").getLength() > 0) {
+        failed.add(name);
+      }
+    }
+    assertEquals(Arrays.asList("Test123", "[2]Test0"), failed);
+  }
+
+  @Test
+  public void sameNamedInstancesGetTheirNumberOrTheNextFreeOne() {
+    List<Map<String, String>> instances = new ArrayList<Map<String, String>>();
+    instances.add(instance("1", "11", "1"));
+    instances.add(instance("2", "11", "2"));
+    // another test with the same name, and the same instance number
+    instances.add(instance("3", "12", "1"));
+    instances.add(instance("4", "13", "1"));
+    Map<String, String> testNames = new HashMap<String, String>();
+    testNames.put("11", "Login");
+    testNames.put("12", "Login");
+    testNames.put("13", "Logout");
+
+    List<String> names = new ArrayList<String>();
+    for(QualityCenterTestInstance test : QualityCenterRestRunner.createTestInstances(instances, testNames)) {
+      names.add(test.getName());
+    }
+    assertEquals(Arrays.asList("[1]Login", "[2]Login", "[3]Login", "Logout"), names);
+  }
+
+  private static Map<String, String> instance(String id, String testId, String number) {
+    Map<String, String> instance = new HashMap<String, String>();
+    instance.put("id", id);
+    instance.put("test-id", testId);
+    instance.put("test-instance", number);
+    return instance;
+  }
+
+  /**
+   * Returns the QC query sent with a request.
+   */
+  private static String getQuery(QualityCenterStubServer.Request request) {
+    for(String parameter : request.query.split("&")) {
+      if(parameter.startsWith("query=")) {
+        return parameter.substring("query=".length());
+      }
+    }
+    return null;
+  }
+
+  private static int indexOf(List<QualityCenterStubServer.Request> requests, String method, String path) {
+    for(int i = 0; i < requests.size(); i++) {
+      if(requests.get(i).method.equals(method) && requests.get(i).path.endsWith(path)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int lastIndexOf(List<QualityCenterStubServer.Request> requests, String method, String path) {
+    List<QualityCenterStubServer.Request> reversed = new ArrayList<QualityCenterStubServer.Request>(requests);
+    Collections.reverse(reversed);
+    int index = indexOf(reversed, method, path);
+    return index < 0 ? -1 : requests.size() - 1 - index;
+  }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Times the assembly of the results of a test set at 1,000, 10,000 and
+ * 50,000 tests, one instance in ten being another instance of a test: the
+ * test instances are named, indexed by ID, matched with their runs and
+ * written to the report, as the REST engine does. They are also matched
+ * with their runs by scanning the tests by name, as {@code GetIdTestName}
+ * used to do in {@code runTestSet.vbs}.
+ *
+ * <p>This isn't run with the tests: run its {@code main} method with the
+ * test classpath (e.g. {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.michelin.cio.hudson.plugins.qc.QualityCenterResultAssemblyBenchmark}).</p>
+ */
+public class QualityCenterResultAssemblyBenchmark {
+
+  /** One instance out of this many is another instance of a test. */
+  private static final int DUPLICATE_RATE = 10;
+
+  public static void main(String[] args) throws Exception {
+    File folder = File.createTempFile("qcbenchmark", "");
+    folder.delete();
+    try {
+      // warm-up, not reported
+      assemble(new File(folder, "warmup.xml"), createInstances(1000), createTestNames(1000), createRuns(1000));
+      scan(createInstances(1000), createTestNames(1000), createRuns(1000));
+
+      System.out.println("tests   indexed (ms)   distinct names   scanning by name (ms)   distinct tests");
+      for(int tests : new int[] { 1000, 10000, 50000 }) {
+        List<Map<String, String>> instances = createInstances(tests);
+        Map<String, String> testNames = createTestNames(tests);
+        List<Map<String, String>> runs = createRuns(tests);
+
+        long start = System.nanoTime();
+        int names = assemble(new File(folder, "report" + tests + ".xml"), instances, testNames, runs);
+        long indexed = System.nanoTime() - start;
+        start = System.nanoTime();
+        int matched = scan(instances, testNames, runs);
+        long scanned = System.nanoTime() - start;
+
+        System.out.println(String.format("%-7d %12d   %14d   %21d   %14d", tests, indexed / 1000000, names,
+                scanned / 1000000, matched));
+      }
+    }
+    finally {
+      FileUtils.deleteDirectory(folder);
+    }
+  }
+
+  /**
+   * Returns the test instances of a test set: the instances of a same test
+   * follow each other.
+   */
+  private static List<Map<String, String>> createInstances(int tests) {
+    List<Map<String, String>> instances = new ArrayList<Map<String, String>>(tests);
+    int testId = 0;
+    int number = 1;
+    for(int i = 0; i < tests; i++) {
+      if(i % DUPLICATE_RATE != 1) {
+        testId++;
+        number = 1;
+      }
+      else {
+        number++;
+      }
+      Map<String, String> instance = new HashMap<String, String>();
+      instance.put("id", String.valueOf(100000 + i));
+      instance.put("test-id", String.valueOf(testId));
+      instance.put("test-instance", String.valueOf(number));
+      instances.add(instance);
+    }
+    return instances;
+  }
+
+  private static Map<String, String> createTestNames(int tests) {
+    Map<String, String> testNames = new HashMap<String, String>();
+    for(int i = 1; i <= tests; i++) {
+      testNames.put(String.valueOf(i), "Test" + i);
+    }
+    return testNames;
+  }
+
+  /**
+   * Returns a run for each test instance, in the order they ended.
+   */
+  private static List<Map<String, String>> createRuns(int tests) {
+    List<Map<String, String>> runs = new ArrayList<Map<String, String>>(tests);
+    for(int i = 0; i < tests; i++) {
+      Map<String, String> run = new HashMap<String, String>();
+      run.put("id", String.valueOf(i + 1));
+      run.put("testcycl-id", String.valueOf(100000 + i));
+      run.put("status", i % 7 == 0 ? QualityCenterTestInstance.STATUS_FAILED : QualityCenterTestInstance.STATUS_PASSED);
+      run.put("duration", String.valueOf(i % 60));
+      runs.add(run);
+    }
+    Collections.shuffle(runs, new Random(tests));
+    return runs;
+  }
+
+  /**
+   * Assembles the results through an index of the tests by instance ID.
+   *
+   * @return the number of distinct names in the report
+   */
+  private static int assemble(File report, List<Map<String, String>> instances, Map<String, String> testNames,
+          List<Map<String, String>> runs) throws Exception {
+    Map<String, QualityCenterTestInstance> pending = new LinkedHashMap<String, QualityCenterTestInstance>();
+    for(QualityCenterTestInstance test : QualityCenterRestRunner.createTestInstances(instances, testNames)) {
+      pending.put(test.getId(), test);
+    }
+
+    Set<String> names = new HashSet<String>();
+    QualityCenterJUnitWriter writer = new QualityCenterJUnitWriter(report, "http://qc/qcbin", "DEFAULT.Demo.Root.Benchmark");
+    try {
+      for(Map<String, String> run : runs) {
+        QualityCenterTestInstance test = pending.remove(run.get("testcycl-id"));
+        test.setStatus(run.get("status"));
+        test.setRunId(run.get("id"));
+        test.setDuration(Long.parseLong(run.get("duration")));
+        if(QualityCenterTestInstance.STATUS_FAILED.equals(test.getStatus())) {
+          test.setFailureMessage(test.getStatus());
+          test.setFailureDetails("Step 1 failed");
+        }
+        writer.writeTestCase(test);
+        names.add(test.getName());
+      }
+    }
+    finally {
+      writer.close();
+    }
+    return names.size();
+  }
+
+  /**
+   * Matches the runs with the tests by scanning them by name, the first
+   * test with the name of the run winning.
+   *
+   * @return the number of distinct tests the runs were matched with
+   */
+  private static int scan(List<Map<String, String>> instances, Map<String, String> testNames, List<Map<String, String>> runs) {
+    String[] names = new String[instances.size()];
+    Map<String, String> instanceNames = new HashMap<String, String>();
+    for(int i = 0; i < names.length; i++) {
+      names[i] = testNames.get(instances.get(i).get("test-id"));
+      instanceNames.put(instances.get(i).get("id"), names[i]);
+    }
+
+    Set<Integer> matched = new HashSet<Integer>();
+    for(Map<String, String> run : runs) {
+      String name = instanceNames.get(run.get("testcycl-id"));
+      for(int i = 0; i < names.length; i++) {
+        if(names[i].equals(name)) {
+          matched.add(i);
+          break;
+        }
+      }
+    }
+    return matched.size();
+  }
+
+}
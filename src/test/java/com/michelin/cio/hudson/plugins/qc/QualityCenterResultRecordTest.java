@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterResultRecordTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void recordIsSummedUpByTestSetAndReadBack() throws Exception {
+    QualityCenterResultSummary summary = new QualityCenterResultSummary();
+    int smoke = summary.addReport("reports/smoke.xml");
+    int nightly = summary.addReport("reports/nightly.xml");
+    summary.addTestCase(smoke, "Smoke", "Login", "1.5");
+    summary.setStatus(summary.addTestCase(smoke, "Smoke", "Logout", "2.0"), QualityCenterResultSummary.FAILED);
+    summary.setStatus(summary.addTestCase(nightly, "Nightly", "Search", "3.0"), QualityCenterResultSummary.ERROR);
+    summary.setStatus(summary.addTestCase(nightly, "Nightly", "Export", null), QualityCenterResultSummary.SKIPPED);
+
+    QualityCenterResultRecord.create(summary, Arrays.asList("Smoke", "Nightly = 1")).save(folder.getRoot());
+    QualityCenterResultRecord record = QualityCenterResultRecord.load(folder.getRoot());
+
+    assertEquals(4, record.getTotalCount());
+    assertEquals(1, record.getPassCount());
+    // the errors are failures too
+    assertEquals(2, record.getFailCount());
+    assertEquals(1, record.getErrorCount());
+    assertEquals(1, record.getSkipCount());
+    assertEquals(6.5, record.getDuration(), 0.001);
+
+    assertEquals(2, record.getTestSets().size());
+    QualityCenterResultRecord.TestSet testSet = record.getTestSets().get(0);
+    assertEquals("Smoke", testSet.getName());
+    assertEquals(1, testSet.getPassCount());
+    assertEquals(1, testSet.getFailCount());
+    assertEquals(3.5, testSet.getDuration(), 0.001);
+    testSet = record.getTestSets().get(1);
+    assertEquals("Nightly = 1", testSet.getName());
+    assertEquals(1, testSet.getFailCount());
+    assertEquals(1, testSet.getErrorCount());
+    assertEquals(1, testSet.getSkipCount());
+  }
+
+  @Test
+  public void buildsArchivedWithoutARecordHaveNone() throws Exception {
+    assertNull(QualityCenterResultRecord.load(folder.getRoot()));
+  }
+
+  @Test(expected = IOException.class)
+  public void corruptedRecordIsReported() throws Exception {
+    FileUtils.writeStringToFile(new File(folder.getRoot(), QualityCenterResultRecord.FILE), "passed=many\n", "ISO-8859-1");
+    QualityCenterResultRecord.load(folder.getRoot());
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterRunnerScriptTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void scriptIsInstalledAndThePreviousVersionsRemoved() throws Exception {
+    File previous = new File(folder.getRoot(), "0123456789ab");
+    FileUtils.writeStringToFile(new File(previous, QualityCenterRunnerScript.SCRIPT_NAME), "' previous", "UTF-8");
+    File dir = new File(folder.getRoot(), "ba9876543210");
+
+    new QualityCenterRunnerScript.Install("' current".getBytes("UTF-8")).invoke(dir, null);
+
+    assertEquals("' current", FileUtils.readFileToString(new File(dir, QualityCenterRunnerScript.SCRIPT_NAME), "UTF-8"));
+    assertFalse(previous.exists());
+    // only the script is left, without its temporary copy
+    assertEquals(1, dir.list().length);
+  }
+
+  @Test
+  public void scriptCopiedByAnotherBuildIsLeftAsIs() throws Exception {
+    File dir = new File(folder.getRoot(), "ba9876543210");
+    File script = new File(dir, QualityCenterRunnerScript.SCRIPT_NAME);
+    FileUtils.writeStringToFile(script, "' current", "UTF-8");
+    assertTrue(script.setLastModified(1000000000000L));
+
+    new QualityCenterRunnerScript.Install("' current".getBytes("UTF-8")).invoke(dir, null);
+
+    assertEquals(1000000000000L, script.lastModified());
+  }
+
+}
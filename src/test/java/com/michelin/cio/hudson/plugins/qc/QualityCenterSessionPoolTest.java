@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QualityCenterSessionPoolTest {
+
+  private QualityCenterStubServer server;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+  }
+
+  private QualityCenterRestClient acquire(String password, String owner, long timeToLive) throws Exception {
+    return QualityCenterSessionPool.acquire(server.getURL(), "alice", password,
+            QualityCenterStubServer.DOMAIN, QualityCenterStubServer.PROJECT, owner, timeToLive);
+  }
+
+  private int logins() {
+    return server.getRequests("GET", "authentication-point/authenticate").size();
+  }
+
+  private int logouts() {
+    return server.getRequests("GET", "authentication-point/logout").size();
+  }
+
+  @Test
+  public void sessionIsOnlySharedWithTheSameKey() throws Exception {
+    String owner = "owner-" + System.nanoTime();
+    try {
+      QualityCenterRestClient client = acquire("secret", owner, 0);
+      assertSame(client, acquire("secret", owner, 0));
+      assertEquals(1, logins());
+      assertEquals(1, QualityCenterSessionPool.getLogins(owner));
+
+      // a new password, or another build step, gets its own session
+      assertNotSame(client, acquire("changed", owner, 0));
+      assertNotSame(client, acquire("secret", owner + "-other", 0));
+      assertEquals(3, logins());
+    }
+    finally {
+      QualityCenterSessionPool.release(owner);
+      QualityCenterSessionPool.release(owner + "-other");
+    }
+  }
+
+  @Test
+  public void sessionsOfABuildStepAreClosedWithIt() throws Exception {
+    String owner = "owner-" + System.nanoTime();
+    QualityCenterRestClient client = acquire("secret", owner, 0);
+    QualityCenterSessionPool.release(client);
+    // handing the client back doesn't close the session
+    assertEquals(0, logouts());
+    assertTrue(client.isLoggedIn());
+
+    QualityCenterSessionPool.release(owner);
+    assertEquals(1, logouts());
+    assertEquals(0, QualityCenterSessionPool.getLogins(owner));
+
+    // the next build step opens a new session
+    assertNotSame(client, acquire("secret", owner, 0));
+    assertEquals(2, logins());
+    QualityCenterSessionPool.release(owner);
+  }
+
+  @Test
+  public void sharedSessionIsClosedOnceIdleForLongerThanItsTimeToLive() throws Exception {
+    QualityCenterRestClient client = acquire("secret", null, 60 * 1000);
+    long now = System.currentTimeMillis();
+
+    // a session in use is never closed
+    QualityCenterSessionPool.reap(now + 10 * 60 * 1000);
+    assertEquals(0, logouts());
+
+    QualityCenterSessionPool.release(client);
+    QualityCenterSessionPool.reap(now + 30 * 1000);
+    assertEquals(0, logouts());
+    assertSame(client, acquire("secret", null, 60 * 1000));
+    QualityCenterSessionPool.release(client);
+
+    QualityCenterSessionPool.reap(System.currentTimeMillis() + 61 * 1000);
+    assertEquals(1, logouts());
+    assertEquals(1, logins());
+    assertNotSame(client, acquire("secret", null, 60 * 1000));
+    QualityCenterSessionPool.reap(Long.MAX_VALUE);
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Embedded HTTP server standing for the ALM/Quality Center REST API.
+ *
+ * <p>The responses are registered by method and by path (the end of the
+ * path, the domain and project part being left out), optionally only for
+ * the queries containing a given string; The last registered response which
+ * matches a request is the one sent back. All the requests are recorded, so
+ * that the tests can check what has been sent.</p>
+ *
+ * <p>It also serves files, such as the installers of the tools, honoring the
+ * byte ranges as a web server does.</p>
+ */
+class QualityCenterStubServer {
+
+  static final String DOMAIN = "DEFAULT";
+  static final String PROJECT = "Demo";
+  static final String COOKIE = "LWSSO_COOKIE_KEY";
+
+  private final HttpServer server;
+  private final List<Response> responses = new ArrayList<Response>();
+  private final List<Request> requests = new ArrayList<Request>();
+
+  QualityCenterStubServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      public void handle(HttpExchange exchange) throws IOException {
+        QualityCenterStubServer.this.handle(exchange);
+      }
+    });
+    server.start();
+
+    on("GET", "authentication-point/authenticate", 200, "");
+    on("GET", "authentication-point/logout", 200, "");
+    // site sessions are only known from ALM 11.5 on
+    on("POST", "rest/site-session", 404, "");
+  }
+
+  String getURL() {
+    return "http://localhost:" + server.getAddress().getPort() + "/qcbin/";
+  }
+
+  void stop() {
+    server.stop(0);
+  }
+
+  /**
+   * Registers the response to the requests with the given method whose path
+   * ends with {@code path}.
+   */
+  void on(String method, String path, int status, String body) {
+    on(method, path, null, status, body);
+  }
+
+  /**
+   * Registers the response to the requests with the given method whose path
+   * ends with {@code path}, and whose query contains {@code query}.
+   */
+  synchronized void on(String method, String path, String query, int status, String body) {
+    responses.add(new Response(method, path, query, status, body, -1));
+  }
+
+  /**
+   * Serves a file under the given path, with the given headers (name/value
+   * pairs): The byte ranges are honored when an {@code ETag} is given and
+   * matches the {@code If-Range} header, if any, and the file isn't sent
+   * again when it matches the {@code If-None-Match} header.
+   */
+  synchronized void onFile(String path, byte[] content, String... headers) {
+    Response response = new Response("GET", path, null, 200, "", -1);
+    response.content = content;
+    response.headers = headers;
+    responses.add(response);
+  }
+
+  /**
+   * Registers a response which is only sent back once.
+   */
+  synchronized void once(String method, String path, int status, String body) {
+    responses.add(new Response(method, path, null, status, body, 1));
+  }
+
+  /**
+   * Returns the requests received so far.
+   */
+  synchronized List<Request> getRequests() {
+    return new ArrayList<Request>(requests);
+  }
+
+  /**
+   * Returns the requests with the given method whose path ends with
+   * {@code path}.
+   */
+  synchronized List<Request> getRequests(String method, String path) {
+    List<Request> matching = new ArrayList<Request>();
+    for(Request request : requests) {
+      if(request.method.equals(method) && request.path.endsWith(path)) {
+        matching.add(request);
+      }
+    }
+    return matching;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    Request request = new Request(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+            exchange.getRequestURI().getQuery(), IOUtils.toString(exchange.getRequestBody(), "UTF-8"),
+            exchange.getRequestHeaders().getFirst("Authorization"), exchange.getRequestHeaders().getFirst("Cookie"),
+            exchange.getRequestHeaders().getFirst("Range"));
+    Response response;
+    int count;
+    synchronized(this) {
+      requests.add(request);
+      response = find(request);
+      count = requests.size();
+    }
+
+    if(response.content != null) {
+      sendFile(exchange, request, response);
+      return;
+    }
+    if(request.path.endsWith("authentication-point/authenticate") && response.status == 200) {
+      exchange.getResponseHeaders().add("Set-Cookie", COOKIE + "=session" + count + "; Path=/qcbin");
+    }
+    byte[] body = response.body.getBytes("UTF-8");
+    exchange.getResponseHeaders().add("Content-Type", "application/xml");
+    // the connections aren't reused, so that a request is never sent on a
+    // connection the server is closing
+    exchange.getResponseHeaders().add("Connection", "close");
+    exchange.sendResponseHeaders(response.status, body.length > 0 ? body.length : -1);
+    OutputStream out = exchange.getResponseBody();
+    try {
+      out.write(body);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private void sendFile(HttpExchange exchange, Request request, Response response) throws IOException {
+    String etag = null;
+    for(int i = 0; i < response.headers.length; i += 2) {
+      exchange.getResponseHeaders().add(response.headers[i], response.headers[i + 1]);
+      if(response.headers[i].equals("ETag")) {
+        etag = response.headers[i + 1];
+      }
+    }
+    exchange.getResponseHeaders().add("Connection", "close");
+
+    int first = 0;
+    int last = response.content.length - 1;
+    int status = 200;
+    String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+    if(etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      exchange.sendResponseHeaders(304, -1);
+      exchange.close();
+      return;
+    }
+    if(etag != null) {
+      exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+      if(request.range != null && (ifRange == null || ifRange.equals(etag))) {
+        String[] range = request.range.substring("bytes=".length()).split("-");
+        first = Integer.parseInt(range[0]);
+        if(range.length > 1 && range[1].length() > 0) {
+          last = Math.min(last, Integer.parseInt(range[1]));
+        }
+        status = 206;
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + first + "-" + last + "/" + response.content.length);
+      }
+    }
+    exchange.sendResponseHeaders(status, last - first + 1);
+    OutputStream out = exchange.getResponseBody();
+    try {
+      out.write(response.content, first, last - first + 1);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  private Response find(Request request) {
+    for(int i = responses.size() - 1; i >= 0; i--) {
+      Response response = responses.get(i);
+      if(response.matches(request)) {
+        if(response.remaining > 0 && --response.remaining == 0) {
+          responses.remove(i);
+        }
+        return response;
+      }
+    }
+    return new Response(request.method, request.path, null, 404, "", -1);
+  }
+
+  /**
+   * Builds an {@code <Entities>} document.
+   */
+  static String entities(String... entities) {
+    StringBuilder xml = new StringBuilder("<Entities TotalResults=\"" + entities.length + "\">");
+    for(String entity : entities) {
+      xml.append(entity);
+    }
+    return xml.append("</Entities>").toString();
+  }
+
+  /**
+   * Builds an {@code <Entity>} from its fields, given as name/value pairs.
+   */
+  static String entity(String type, String... fields) {
+    StringBuilder xml = new StringBuilder("<Entity Type=\"" + type + "\"><Fields>");
+    for(int i = 0; i < fields.length; i += 2) {
+      xml.append("<Field Name=\"").append(fields[i]).append("\"><Value>");
+      xml.append(QualityCenterRestClient.escape(fields[i + 1])).append("</Value></Field>");
+    }
+    return xml.append("</Fields></Entity>").toString();
+  }
+
+  static class Request {
+
+    final String method;
+    final String path;
+    /** The query string, decoded. */
+    final String query;
+    final String body;
+    final String authorization;
+    final String cookie;
+    final String range;
+
+    Request(String method, String path, String query, String body, String authorization, String cookie, String range) {
+      this.method = method;
+      this.path = path;
+      this.query = query;
+      this.body = body;
+      this.authorization = authorization;
+      this.cookie = cookie;
+      this.range = range;
+    }
+
+    @Override
+    public String toString() {
+      return method + " " + path + (query != null ? "?" + query : "");
+    }
+
+  }
+
+  private static class Response {
+
+    final String method;
+    final String path;
+    final String query;
+    final int status;
+    final String body;
+    /** How many times it can still be sent, {@code -1} for ever. */
+    int remaining;
+    /** The file served, if any, see {@link #onFile}. */
+    byte[] content;
+    String[] headers;
+
+    Response(String method, String path, String query, int status, String body, int remaining) {
+      this.method = method;
+      this.path = path;
+      this.query = query;
+      this.status = status;
+      this.body = body;
+      this.remaining = remaining;
+    }
+
+    boolean matches(Request request) {
+      return method.equals(request.method) && request.path.endsWith(path)
+              && (query == null || (request.query != null && request.query.contains(query)));
+    }
+
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import groovy.text.GStringTemplateEngine;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Times the rendering of the silent install script of the QTP Add-in, when
+ * {@code installTemplate.iss} is compiled for each installation (as it used
+ * to be) and when {@link QualityCenterTemplateRenderer} compiles it once.
+ *
+ * <p>This isn't run with the tests: run its {@code main} method with the
+ * test classpath (e.g. {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.michelin.cio.hudson.plugins.qc.QualityCenterTemplateRendererBenchmark}).</p>
+ */
+public class QualityCenterTemplateRendererBenchmark {
+
+  private static final String TEMPLATE = "installTemplate.iss";
+  private static final int WARMUP = 200;
+  private static final int RENDERS = 1000;
+
+  public static void main(String[] args) throws Exception {
+    final URL url = QualityCenterTemplateRendererBenchmark.class.getClassLoader().getResource(TEMPLATE);
+    if(url == null) {
+      throw new IllegalStateException("Couldn't find " + TEMPLATE + " on the classpath");
+    }
+    QualityCenterTemplateRenderer renderer = new QualityCenterTemplateRenderer.GStringRenderer() {
+      @Override
+      protected URL getResource(String name) {
+        return url;
+      }
+    };
+
+    // before: a new engine, and a new compilation, per installation
+    for(int i = 0; i < WARMUP; i++) {
+      new GStringTemplateEngine().createTemplate(url).make(binding(i)).toString();
+    }
+    long start = System.nanoTime();
+    for(int i = 0; i < RENDERS; i++) {
+      new GStringTemplateEngine().createTemplate(url).make(binding(i)).toString();
+    }
+    long compiled = System.nanoTime() - start;
+
+    // after: compiled on the first render only
+    for(int i = 0; i < WARMUP; i++) {
+      renderer.render(TEMPLATE, binding(i));
+    }
+    start = System.nanoTime();
+    for(int i = 0; i < RENDERS; i++) {
+      renderer.render(TEMPLATE, binding(i));
+    }
+    long cached = System.nanoTime() - start;
+
+    System.out.println(String.format("compiled per render: %8.3f ms per render", compiled / 1000000.0 / RENDERS));
+    System.out.println(String.format("cached template:     %8.3f ms per render", cached / 1000000.0 / RENDERS));
+  }
+
+  /**
+   * Returns the binding of the installation of an Add-in.
+   */
+  private static Map<String, String> binding(int i) {
+    Map<String, String> binding = new HashMap<String, String>();
+    binding.put("key", "A1B2C3D4-0000-0000-0000-" + String.format("%012d", i));
+    binding.put("path", "C:\\Program Files\\HP\\QuickTest Professional\\Addin" + i);
+    return binding;
+  }
+
+}
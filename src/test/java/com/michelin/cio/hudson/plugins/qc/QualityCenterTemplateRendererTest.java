@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterTemplateRendererTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Reads the templates from the temporary folder, and counts how many times
+   * they are compiled.
+   */
+  private class CountingRenderer extends QualityCenterTemplateRenderer.GStringRenderer {
+
+    int compilations;
+
+    @Override
+    protected URL getResource(String name) {
+      File template = new File(folder.getRoot(), name);
+      try {
+        return template.exists() ? template.toURI().toURL() : null;
+      }
+      catch(MalformedURLException mue) {
+        throw new AssertionError(mue);
+      }
+    }
+
+    @Override
+    protected CompiledTemplate compile(URL url) throws Exception {
+      compilations++;
+      return super.compile(url);
+    }
+
+  }
+
+  @Test
+  public void templateIsOnlyCompiledOnce() throws Exception {
+    FileUtils.writeStringToFile(new File(folder.getRoot(), "install.iss"), "InstallDir=${dir}", "UTF-8");
+    CountingRenderer renderer = new CountingRenderer();
+
+    assertEquals("InstallDir=C:\\QTP", renderer.render("install.iss", Collections.singletonMap("dir", "C:\\QTP")));
+    assertEquals("InstallDir=D:\\QTP", renderer.render("install.iss", Collections.singletonMap("dir", "D:\\QTP")));
+    assertEquals(1, renderer.compilations);
+  }
+
+  @Test(expected = IOException.class)
+  public void missingTemplateIsReported() throws Exception {
+    new CountingRenderer().render("missing.iss", Collections.<String, Object>emptyMap());
+  }
+
+}
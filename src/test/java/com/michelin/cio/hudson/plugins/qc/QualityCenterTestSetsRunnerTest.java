@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entities;
+import static com.michelin.cio.hudson.plugins.qc.QualityCenterStubServer.entity;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class QualityCenterTestSetsRunnerTest {
+
+  private static final String OWNER = QualityCenterTestSetsRunnerTest.class.getName();
+
+  @Rule
+  public TemporaryFolder workspace = new TemporaryFolder();
+
+  private QualityCenterStubServer server;
+  private ByteArrayOutputStream log;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new QualityCenterStubServer();
+    log = new ByteArrayOutputStream();
+
+    // every test set of Root\Nightly has the same test, except Missing
+    server.on("GET", "test-set-folders", 200, entities(entity("test-set-folder", "id", "2")));
+    server.on("GET", "test-sets", 200, entities(entity("test-set", "id", "3")));
+    server.on("GET", "test-sets", "Missing", 200, entities());
+    server.on("GET", "test-instances", 200, entities(
+            entity("test-instance", "id", "101", "test-id", "11", "test-instance", "1", "host-name", "host1", "status", "Passed")));
+    server.on("GET", "tests", 200, entities(entity("test", "id", "11", "name", "Login")));
+    server.on("GET", "runs", 200, entities(
+            entity("run", "id", "9", "testcycl-id", "101", "status", "Passed", "duration", "20")));
+    server.on("GET", "runs", "id[>9]", 200, entities(
+            entity("run", "id", "11", "testcycl-id", "101", "status", "Passed", "duration", "21")));
+    server.on("POST", "test-sets/3/startexecution", 200,
+            "<RunReply><SuccessStatus>1</SuccessStatus><info>55</info></RunReply>");
+    server.on("GET", "procedure-runs/55", 200, entities(entity("procedure-run", "id", "55", "state", "Finished")));
+  }
+
+  @After
+  public void tearDown() {
+    QualityCenterSessionPool.release(OWNER);
+    server.stop();
+  }
+
+  private QualityCenterTestSetsRunner createRunner(int maxConcurrentTestSets, String... testSetNames) {
+    String[] reportFiles = new String[testSetNames.length];
+    for(int i = 0; i < testSetNames.length; i++) {
+      reportFiles[i] = "reports/" + testSetNames[i] + ".xml";
+    }
+    return new QualityCenterTestSetsRunner(QualityCenter.ENGINE_REST, server.getURL(), "alice", "secret",
+            QualityCenterStubServer.DOMAIN, QualityCenterStubServer.PROJECT, "Root\\Nightly", testSetNames, reportFiles,
+            60, QualityCenter.RUN_MODE_PLANNED_HOST, null, maxConcurrentTestSets, OWNER, 0, null,
+            QualityCenter.CONSOLE_OUTPUT_FULL, false, new ArrayList<Map<String, Long>>(), new StreamTaskListener(log));
+  }
+
+  private File getReport(String testSetName) {
+    return new File(workspace.getRoot(), "reports/" + testSetName + ".xml");
+  }
+
+  @Test
+  public void testSetsAreRunThroughOneSession() throws Exception {
+    QualityCenterTestSetsRunner.Summary summary = createRunner(1, "Smoke", "Regression", "Nightly")
+            .invoke(workspace.getRoot(), null);
+
+    assertTrue(log.toString(), summary.isSucceeded());
+    assertEquals(3, server.getRequests("POST", "test-sets/3/startexecution").size());
+    String[] testSetNames = { "Smoke", "Regression", "Nightly" };
+    for(int i = 0; i < testSetNames.length; i++) {
+      assertTrue(testSetNames[i], getReport(testSetNames[i]).exists());
+      assertEquals(1, summary.getSamples(i).size());
+    }
+    // the session is opened once, and closed with the build step
+    assertEquals(1, summary.getLogins());
+    assertEquals(1, server.getRequests("GET", "authentication-point/authenticate").size());
+    assertEquals(1, server.getRequests("GET", "authentication-point/logout").size());
+  }
+
+  @Test
+  public void testSetsRunOneAfterTheOtherStopAtTheFirstFailure() throws Exception {
+    // the report of a previous build mustn't be taken for this one's
+    FileUtils.writeStringToFile(getReport("Nightly"), "<testsuite/>", "UTF-8");
+
+    QualityCenterTestSetsRunner.Summary summary = createRunner(1, "Smoke", "Missing", "Nightly")
+            .invoke(workspace.getRoot(), null);
+
+    assertFalse(summary.isSucceeded());
+    assertEquals(1, server.getRequests("POST", "test-sets/3/startexecution").size());
+    assertTrue(getReport("Smoke").exists());
+    assertFalse(getReport("Nightly").exists());
+  }
+
+  @Test
+  public void testSetsRunAtTheSameTimeAreAllRun() throws Exception {
+    QualityCenterTestSetsRunner.Summary summary = createRunner(2, "Smoke", "Missing", "Nightly")
+            .invoke(workspace.getRoot(), null);
+
+    assertFalse(summary.isSucceeded());
+    assertEquals(2, server.getRequests("POST", "test-sets/3/startexecution").size());
+    assertTrue(getReport("Smoke").exists());
+    assertTrue(getReport("Nightly").exists());
+    assertTrue(log.toString(), log.toString().contains("[Nightly] "));
+    assertEquals(1, summary.getLogins());
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, Manufacture Française des Pneumatiques Michelin
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package com.michelin.cio.hudson.plugins.qc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.michelin.cio.hudson.plugins.qc.client.QualityCenterClientInstallation;
+import com.michelin.cio.hudson.plugins.qc.qtpaddins.QualityCenterQTPAddinsInstallation;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class QualityCenterToolRegistryTest {
+
+  private final QualityCenterClientInstallation client = new QualityCenterClientInstallation("QC 10", "C:\\QC");
+  private final QualityCenterQTPAddinsInstallation addin = new QualityCenterQTPAddinsInstallation("QTP Add-in", "C:\\QTP");
+
+  @After
+  public void tearDown() {
+    QualityCenterToolRegistry.invalidate("node1");
+    QualityCenterToolRegistry.invalidate("node2");
+  }
+
+  @Test
+  public void toolFoundWhereItWasInstalledKeepsItsSource() {
+    QualityCenterToolRegistry.put("node1", client, "C:\\QC", "http://qc/qcbin");
+    QualityCenterToolRegistry.Entry entry = QualityCenterToolRegistry.put("node1", client, "C:\\QC", null);
+    assertEquals("http://qc/qcbin", entry.getSource());
+    assertEquals(entry, QualityCenterToolRegistry.get("node1", client));
+
+    // found somewhere else, it hasn't been installed by Hudson
+    assertNull(QualityCenterToolRegistry.put("node1", client, "D:\\QC", null).getSource());
+  }
+
+  @Test
+  public void toolsAreForgottenWhenTheirNodeReconnectsOrTheirConfigurationChanges() {
+    QualityCenterToolRegistry.put("node1", client, "C:\\QC", null);
+    QualityCenterToolRegistry.put("node1", addin, "C:\\QTP", null);
+    QualityCenterToolRegistry.put("node2", client, "C:\\QC", null);
+
+    QualityCenterToolRegistry.invalidate(QualityCenterQTPAddinsInstallation.class);
+    assertNull(QualityCenterToolRegistry.get("node1", addin));
+    assertEquals("C:\\QC", QualityCenterToolRegistry.get("node1", client).getHome());
+
+    QualityCenterToolRegistry.invalidate("node1");
+    assertNull(QualityCenterToolRegistry.get("node1", client));
+    assertEquals("C:\\QC", QualityCenterToolRegistry.get("node2", client).getHome());
+  }
+
+  @Test
+  public void entriesAreSortedByNodeName() {
+    QualityCenterToolRegistry.put("node2", client, "C:\\QC", null);
+    QualityCenterToolRegistry.put("node1", client, "D:\\QC", null);
+    QualityCenterToolRegistry.put("node1", addin, "C:\\QTP", null);
+
+    List<QualityCenterToolRegistry.Entry> entries = QualityCenterToolRegistry.getEntries(client);
+    assertEquals(2, entries.size());
+    assertEquals("node1", entries.get(0).getNodeName());
+    assertEquals("D:\\QC", entries.get(0).getHome());
+    assertEquals("node2", entries.get(1).getNodeName());
+  }
+
+  @Test
+  public void qcDllIsOnlyKnownForTheHomeItWasFoundIn() {
+    QualityCenterToolRegistry.Entry entry = QualityCenterToolRegistry.put("node1", client, "%QC_HOME%", null);
+    entry.setQCDll("C:\\QC", "C:\\QC\\OTAClient.dll");
+
+    assertEquals("C:\\QC\\OTAClient.dll", entry.getQCDll("C:\\QC"));
+    assertNull(entry.getQCDll("D:\\QC"));
+  }
+
+}